@@ -0,0 +1,47 @@
+package com.github.sammyvimes.hazelcast.ssl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates throw-away keystores for the benchmarks with the JDK keytool, so that
+ * no internal JDK classes are needed to self-sign a certificate.
+ */
+public final class KeyMaterial {
+
+    public static final String PASSWORD = "password";
+
+    private KeyMaterial() {
+    }
+
+    public static String createKeyStore(final String keyAlgorithm, final int keySize) throws IOException, InterruptedException {
+        final File directory = Files.createTempDirectory("hazelcast-ssl-bench").toFile();
+        directory.deleteOnExit();
+        final File keyStore = new File(directory, keyAlgorithm.toLowerCase() + "-" + keySize + ".jks");
+        keyStore.deleteOnExit();
+
+        final String keytool = Paths.get(System.getProperty("java.home"), "bin", "keytool").toString();
+        final List<String> command = Arrays.asList(keytool, "-genkeypair",
+                "-alias", "main",
+                "-keyalg", keyAlgorithm,
+                "-keysize", String.valueOf(keySize),
+                "-sigalg", "EC".equals(keyAlgorithm) ? "SHA256withECDSA" : "SHA256withRSA",
+                "-dname", "cn=Unknown",
+                "-validity", "365",
+                "-storetype", "JKS",
+                "-keystore", keyStore.getAbsolutePath(),
+                "-storepass", PASSWORD,
+                "-keypass", PASSWORD);
+
+        final Process process = new ProcessBuilder(command).inheritIO().start();
+        if (process.waitFor() != 0) {
+            throw new IOException("keytool failed for " + command);
+        }
+
+        return keyStore.getAbsolutePath();
+    }
+}
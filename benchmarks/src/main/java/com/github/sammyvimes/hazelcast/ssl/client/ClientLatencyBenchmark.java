@@ -0,0 +1,109 @@
+package com.github.sammyvimes.hazelcast.ssl.client;
+
+import com.github.sammyvimes.hazelcast.ssl.KeyMaterial;
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.github.sammyvimes.hazelcast.ssl.node.SSLNodeContext;
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.NetworkConfig;
+import com.hazelcast.config.SSLConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.HazelcastInstanceFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of single {@code HazelcastClient} requests against one member on loopback, over TLS through
+ * {@link SSLClientExtension} and in plaintext. Sample mode reports percentiles, e.g.
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar ClientLatencyBenchmark -p valueSize=16384
+ * </pre>
+ * Run with {@code -t} for concurrent requests sharing the client's connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(2)
+public class ClientLatencyBenchmark {
+    private static final int PORT = 8701;
+    private static final int KEYS = 1000;
+
+    @Param({"plaintext", "tls"})
+    public String transport;
+
+    @Param({"128", "16384"})
+    public int valueSize;
+
+    private HazelcastInstance member;
+    private HazelcastInstance client;
+    private IMap<Integer, byte[]> map;
+    private byte[] value;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final SSLConfig sslConfig = "tls".equals(this.transport) ? sslConfig() : null;
+
+        final Config config = new Config();
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        final NetworkConfig networkConfig = config.getNetworkConfig();
+        networkConfig.setPort(PORT).setPortAutoIncrement(false);
+        networkConfig.getJoin().getMulticastConfig().setEnabled(false);
+        networkConfig.setSSLConfig(sslConfig);
+        this.member = HazelcastInstanceFactory.newHazelcastInstance(config, "client-latency-member", new SSLNodeContext());
+
+        final ClientConfig clientConfig = new ClientConfig();
+        clientConfig.getNetworkConfig().addAddress("127.0.0.1:" + PORT).setSSLConfig(sslConfig);
+        this.client = HazelcastClient.newHazelcastClient(clientConfig);
+
+        this.value = new byte[this.valueSize];
+        ThreadLocalRandom.current().nextBytes(this.value);
+        this.map = this.client.getMap("latency");
+        for (int key = 0; key < KEYS; key++) {
+            this.map.set(key, this.value);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.client.shutdown();
+        this.member.getLifecycleService().terminate();
+    }
+
+    @Benchmark
+    public byte[] get() {
+        return this.map.get(ThreadLocalRandom.current().nextInt(KEYS));
+    }
+
+    @Benchmark
+    public void set() {
+        this.map.set(ThreadLocalRandom.current().nextInt(KEYS), this.value);
+    }
+
+    private static SSLConfig sslConfig() throws Exception {
+        final SSLConfig sslConfig = new SSLConfig();
+        sslConfig.setEnabled(true);
+        sslConfig.setFactoryClassName(SSLContextFactoryImpl.class.getName());
+        sslConfig.setProperty(SSLContextFactoryImpl.Props.KEY_STORE, KeyMaterial.createKeyStore("RSA", 2048));
+        sslConfig.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, KeyMaterial.PASSWORD);
+        sslConfig.setProperty(SSLContextFactoryImpl.Props.MUTUAL_AUTHENTICATION, "REQUIRED");
+        return sslConfig;
+    }
+}
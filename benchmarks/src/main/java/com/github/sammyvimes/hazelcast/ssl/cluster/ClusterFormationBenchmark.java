@@ -0,0 +1,293 @@
+package com.github.sammyvimes.hazelcast.ssl.cluster;
+
+import com.github.sammyvimes.hazelcast.ssl.KeyMaterial;
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.github.sammyvimes.hazelcast.ssl.SSLProperties;
+import com.github.sammyvimes.hazelcast.ssl.node.SSLNodeContext;
+import com.hazelcast.config.AdvancedNetworkConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.SSLConfig;
+import com.hazelcast.config.ServerSocketEndpointConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.Member;
+import com.hazelcast.instance.HazelcastInstanceFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Time for a cluster of members with {@code mutualAuthentication=REQUIRED} and TCP-IP join on loopback to form
+ * ({@link #coldStart}) and to restart every member one after the other ({@link #rollingRestart}). Each fork runs a
+ * single invocation, so a cold start is measured in a cold JVM, the way it happens in production. Besides the total
+ * time, {@link FormationTimes} reports when every member saw the full member list and when the partition table was
+ * assigned with all backups in sync. Narrow the matrix with JMH options, e.g.
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar ClusterFormationBenchmark.coldStart -p members=20 -p key=EC-256 -f 5
+ * </pre>
+ * All members share one JVM and its CPUs, so handshakes of different members compete with each other the way they
+ * would not on separate hosts; compare parameter values with each other rather than with a real deployment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(3)
+public class ClusterFormationBenchmark {
+    private static final int BASE_PORT = 7701;
+    private static final int PORT_RANGE = 1000;
+    private static final long FORMATION_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long POLL_MILLIS = 5;
+    private static final AtomicInteger NEXT_PORT = new AtomicInteger(BASE_PORT);
+
+    @Param({"10", "20", "30"})
+    public int members;
+
+    /**
+     * Key algorithm and size of the member certificate, e.g. {@code RSA-4096} or {@code EC-256}.
+     */
+    @Param({"RSA-2048", "RSA-4096", "EC-256"})
+    public String key;
+
+    /**
+     * {@code off} shrinks the session cache to a single session with a one second lifetime, which leaves
+     * practically nothing to resume.
+     */
+    @Param({"on", "off"})
+    public String resumption;
+
+    @Param({"-1"})
+    public int handshakeThreads;
+
+    @Param({"0"})
+    public int handshakeMaxConcurrent;
+
+    @Param({"adaptive"})
+    public String taskInlining;
+
+    @Param({"0"})
+    public int warmUpHandshakes;
+
+    private SSLConfig sslConfig;
+    private final List<HazelcastInstance> instances = new ArrayList<>();
+    private List<String> addresses;
+    private int basePort;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final String[] keyParts = this.key.split("-");
+        if (keyParts.length != 2) {
+            throw new IllegalArgumentException("Invalid key '" + this.key + "', expected <algorithm>-<size>");
+        }
+
+        final Properties properties = new Properties();
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE, KeyMaterial.createKeyStore(keyParts[0], Integer.parseInt(keyParts[1])));
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, KeyMaterial.PASSWORD);
+        properties.setProperty(SSLContextFactoryImpl.Props.MUTUAL_AUTHENTICATION, "REQUIRED");
+        properties.setProperty(SSLContextFactoryImpl.Props.HANDSHAKE_TASK_INLINING, this.taskInlining);
+        if ("off".equals(this.resumption)) {
+            properties.setProperty(SSLContextFactoryImpl.Props.SESSION_CACHE_SIZE, "1");
+            properties.setProperty(SSLContextFactoryImpl.Props.SESSION_TIMEOUT_SECONDS, "1");
+        }
+
+        this.sslConfig = new SSLConfig();
+        this.sslConfig.setEnabled(true);
+        this.sslConfig.setFactoryClassName(SSLContextFactoryImpl.class.getName());
+        this.sslConfig.setProperties(properties);
+    }
+
+    @Setup(Level.Invocation)
+    public void allocatePorts() {
+        this.basePort = NEXT_PORT.getAndAdd(this.members);
+        if (this.basePort + this.members > BASE_PORT + PORT_RANGE) {
+            NEXT_PORT.set(BASE_PORT + this.members);
+            this.basePort = BASE_PORT;
+        }
+
+        this.addresses = new ArrayList<>();
+        for (int i = 0; i < this.members; i++) {
+            this.addresses.add("127.0.0.1:" + (this.basePort + i));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void terminate() {
+        for (final HazelcastInstance instance : this.instances) {
+            instance.getLifecycleService().terminate();
+        }
+        this.instances.clear();
+    }
+
+    /**
+     * Starts the first member, then all others at once, like a stateful set with parallel pod management.
+     */
+    @Benchmark
+    public int coldStart(final FormationTimes times) throws Exception {
+        final long start = System.nanoTime();
+        this.instances.add(this.newInstance(0));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(this.members - 1);
+        try {
+            final List<Future<HazelcastInstance>> futures = new ArrayList<>();
+            for (int i = 1; i < this.members; i++) {
+                final int index = i;
+                futures.add(executor.submit(() -> this.newInstance(index)));
+            }
+            for (final Future<HazelcastInstance> future : futures) {
+                this.instances.add(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        times.membershipMillis += this.awaitMembers(this.instances, start);
+        times.partitionsStableMillis += this.awaitPartitionsStable(start);
+        return this.instances.size();
+    }
+
+    /**
+     * Replaces each member of a formed cluster with a new one on the same port, waiting for the cluster to be safe
+     * in between. The restarted members reuse the warm JVM, so this isolates the handshakes with the survivors.
+     */
+    @Benchmark
+    public int rollingRestart(final RunningCluster cluster, final FormationTimes times) {
+        for (int i = 0; i < this.members; i++) {
+            final long start = System.nanoTime();
+            this.instances.get(i).getLifecycleService().terminate();
+            this.instances.set(i, this.newInstance(i));
+
+            times.membershipMillis += this.awaitMembers(this.instances, start);
+            times.partitionsStableMillis += this.awaitPartitionsStable(start);
+        }
+        return this.instances.size();
+    }
+
+    private HazelcastInstance newInstance(final int index) {
+        final int port = this.basePort + index;
+        final Config config = new Config();
+        config.setInstanceName("formation-" + port);
+        config.getGroupConfig().setName("formation-" + this.basePort);
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        // the default 5 s join batching window would hide the handshake cost
+        config.setProperty("hazelcast.wait.seconds.before.join", "1");
+        config.setProperty("hazelcast.max.wait.seconds.before.join", "5");
+        config.setProperty(SSLProperties.HANDSHAKE_THREADS.getName(), String.valueOf(this.handshakeThreads));
+        config.setProperty(SSLProperties.HANDSHAKE_MAX_CONCURRENT.getName(), String.valueOf(this.handshakeMaxConcurrent));
+        config.setProperty(SSLProperties.WARM_UP_HANDSHAKES.getName(), String.valueOf(this.warmUpHandshakes));
+
+        final AdvancedNetworkConfig networkConfig = config.getAdvancedNetworkConfig();
+        networkConfig.setEnabled(true);
+        final ServerSocketEndpointConfig memberEndpointConfig = new ServerSocketEndpointConfig();
+        memberEndpointConfig.setPort(port);
+        memberEndpointConfig.setPortAutoIncrement(false);
+        // a restarted member binds the port of the one it replaces
+        memberEndpointConfig.setReuseAddress(true);
+        memberEndpointConfig.setSSLConfig(new SSLConfig(this.sslConfig));
+        networkConfig.setMemberEndpointConfig(memberEndpointConfig);
+
+        final JoinConfig join = networkConfig.getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).setMembers(this.addresses);
+        return HazelcastInstanceFactory.newHazelcastInstance(config, config.getInstanceName(), new SSLNodeContext());
+    }
+
+    /**
+     * Waits until every member lists exactly the running members, so a survivor that still lists a terminated member
+     * doesn't count.
+     */
+    private long awaitMembers(final List<HazelcastInstance> instances, final long start) {
+        final Set<Member> expected = new HashSet<>();
+        for (final HazelcastInstance instance : instances) {
+            expected.add(instance.getCluster().getLocalMember());
+        }
+        for (final HazelcastInstance instance : instances) {
+            while (!expected.equals(new HashSet<>(instance.getCluster().getMembers()))) {
+                pause(start, "full membership");
+            }
+        }
+        return elapsedMillis(start);
+    }
+
+    private long awaitPartitionsStable(final long start) {
+        final HazelcastInstance master = this.instances.get(0);
+        // the partition table is assigned lazily, asking for an owner triggers the first arrangement
+        master.getPartitionService().getPartition(0).getOwner();
+        while (!master.getPartitionService().isClusterSafe()) {
+            pause(start, "a safe cluster");
+        }
+        return elapsedMillis(start);
+    }
+
+    private static void pause(final long start, final String condition) {
+        if (elapsedMillis(start) > FORMATION_TIMEOUT_MILLIS) {
+            throw new IllegalStateException("Timed out waiting for " + condition);
+        }
+
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + condition, exception);
+        }
+    }
+
+    private static long elapsedMillis(final long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * A formed cluster for {@link #rollingRestart}, started outside of the measurement.
+     */
+    @State(Scope.Benchmark)
+    public static class RunningCluster {
+        @Setup(Level.Invocation)
+        public void form(final ClusterFormationBenchmark benchmark) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < benchmark.members; i++) {
+                benchmark.instances.add(benchmark.newInstance(i));
+            }
+            benchmark.awaitMembers(benchmark.instances, start);
+            benchmark.awaitPartitionsStable(start);
+        }
+    }
+
+    /**
+     * Milliseconds until every member saw the full member list and until the cluster was safe, summed over all
+     * restarts for {@link #rollingRestart}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FormationTimes {
+        public long membershipMillis;
+        public long partitionsStableMillis;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.membershipMillis = 0;
+            this.partitionsStableMillis = 0;
+        }
+    }
+}
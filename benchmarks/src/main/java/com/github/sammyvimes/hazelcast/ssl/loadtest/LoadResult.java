@@ -0,0 +1,117 @@
+package com.github.sammyvimes.hazelcast.ssl.loadtest;
+
+import com.github.sammyvimes.hazelcast.ssl.loadtest.OperationMix.Operation;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies of one load test run, one histogram per operation plus their total, in nanoseconds.
+ */
+final class LoadResult {
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private final TransportMode mode;
+    private final long durationNanos;
+    private final Histogram[] histograms = newHistograms();
+
+    LoadResult(final TransportMode mode, final long durationNanos) {
+        this.mode = mode;
+        this.durationNanos = durationNanos;
+    }
+
+    static Histogram[] newHistograms() {
+        final Histogram[] histograms = new Histogram[Operation.values().length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = newHistogram();
+        }
+        return histograms;
+    }
+
+    static void record(final Histogram[] histograms, final Operation operation, final long latencyNanos) {
+        histograms[operation.ordinal()].recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(MAX_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Adds the histograms of one load thread.
+     */
+    void add(final Histogram[] threadHistograms) {
+        for (int i = 0; i < this.histograms.length; i++) {
+            this.histograms[i].add(threadHistograms[i]);
+        }
+    }
+
+    double throughput() {
+        return this.total().getTotalCount() * (double) TimeUnit.SECONDS.toNanos(1) / this.durationNanos;
+    }
+
+    double percentileMicros(final double percentile) {
+        return this.total().getValueAtPercentile(percentile) / NANOS_PER_MICRO;
+    }
+
+    private Histogram total() {
+        final Histogram total = newHistogram();
+        for (final Histogram histogram : this.histograms) {
+            total.add(histogram);
+        }
+        return total;
+    }
+
+    void print(final PrintStream out) {
+        out.printf("%n%s: %.0f ops/s%n", this.mode, this.throughput());
+        out.printf("  %-16s %12s %10s %10s %10s%n", "operation", "count", "p50 us", "p99 us", "p99.9 us");
+        for (final Operation operation : Operation.values()) {
+            printRow(out, operation.toString(), this.histograms[operation.ordinal()]);
+        }
+        printRow(out, "all", this.total());
+    }
+
+    private static void printRow(final PrintStream out, final String name, final Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        out.printf("  %-16s %12d %10.1f %10.1f %10.1f%n", name, histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / NANOS_PER_MICRO,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MICRO,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MICRO);
+    }
+
+    /**
+     * Prints each TLS mode relative to the plaintext run, if there is one.
+     */
+    static void printComparison(final PrintStream out, final List<LoadResult> results) {
+        LoadResult baseline = null;
+        for (final LoadResult result : results) {
+            if (result.mode == TransportMode.PLAINTEXT) {
+                baseline = result;
+            }
+        }
+        if (baseline == null) {
+            return;
+        }
+
+        out.printf("%nTLS tax relative to %s:%n", baseline.mode);
+        out.printf("  %-12s %12s %10s %10s %10s%n", "mode", "throughput", "p50", "p99", "p99.9");
+        for (final LoadResult result : results) {
+            if (result != baseline) {
+                out.printf("  %-12s %+11.1f%% %+9.1f%% %+9.1f%% %+9.1f%%%n", result.mode,
+                        change(result.throughput(), baseline.throughput()),
+                        change(result.percentileMicros(50), baseline.percentileMicros(50)),
+                        change(result.percentileMicros(99), baseline.percentileMicros(99)),
+                        change(result.percentileMicros(99.9), baseline.percentileMicros(99.9)));
+            }
+        }
+    }
+
+    private static double change(final double value, final double baseline) {
+        return baseline == 0 ? 0 : 100 * (value - baseline) / baseline;
+    }
+}
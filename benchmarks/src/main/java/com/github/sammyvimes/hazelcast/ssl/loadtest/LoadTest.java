@@ -0,0 +1,177 @@
+package com.github.sammyvimes.hazelcast.ssl.loadtest;
+
+import com.github.sammyvimes.hazelcast.ssl.KeyMaterial;
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.github.sammyvimes.hazelcast.ssl.loadtest.OperationMix.Operation;
+import com.github.sammyvimes.hazelcast.ssl.node.SSLNodeContext;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.SSLConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.HazelcastInstanceFactory;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts an in-JVM cluster per {@link TransportMode}, drives an IMap operation mix against it and reports
+ * throughput and latency percentiles, so the cost of TLS can be compared with plaintext. Run with:
+ * <pre>
+ *   java -Dloadtest.durationSeconds=60 -cp benchmarks/target/benchmarks.jar \
+ *       com.github.sammyvimes.hazelcast.ssl.loadtest.LoadTest
+ * </pre>
+ * See {@link LoadTestSettings} for the settings. The load comes from lite members, which send the same operations
+ * over the member protocol in every mode; {@code ClientLatencyBenchmark} measures clients. All members share one
+ * JVM and its CPUs, so the numbers are for comparing modes
+ * with each other, not for sizing a real cluster.
+ */
+public final class LoadTest {
+    private static final int PRELOAD_BATCH = 1000;
+    private static final String MAP_NAME = "loadtest";
+
+    private final LoadTestSettings settings;
+    private final SSLConfig sslConfig;
+    private final byte[] value;
+
+    private LoadTest(final LoadTestSettings settings, final SSLConfig sslConfig) {
+        this.settings = settings;
+        this.sslConfig = sslConfig;
+        this.value = new byte[settings.valueSize];
+        ThreadLocalRandom.current().nextBytes(this.value);
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final LoadTestSettings settings = new LoadTestSettings();
+        settings.describe().forEach(System.out::println);
+
+        final LoadTest loadTest = new LoadTest(settings, sslConfig(settings));
+        final List<LoadResult> results = new ArrayList<>();
+        for (int i = 0; i < settings.modes.size(); i++) {
+            final LoadResult result = loadTest.run(settings.modes.get(i), settings.basePort + 100 * i);
+            result.print(System.out);
+            results.add(result);
+        }
+
+        LoadResult.printComparison(System.out, results);
+    }
+
+    private static SSLConfig sslConfig(final LoadTestSettings settings) throws Exception {
+        final Properties properties = settings.sslProperties();
+        if (settings.keyStore != null) {
+            properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE, settings.keyStore);
+            properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD,
+                    settings.keyStorePassword != null ? settings.keyStorePassword : KeyMaterial.PASSWORD);
+        } else {
+            properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE, KeyMaterial.createKeyStore(settings.keyAlgorithm, settings.keySize));
+            properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, KeyMaterial.PASSWORD);
+        }
+        if (!properties.containsKey(SSLContextFactoryImpl.Props.MUTUAL_AUTHENTICATION)) {
+            properties.setProperty(SSLContextFactoryImpl.Props.MUTUAL_AUTHENTICATION, "REQUIRED");
+        }
+
+        final SSLConfig sslConfig = new SSLConfig();
+        sslConfig.setEnabled(true);
+        // a class name rather than an instance, so every member loads its own factory
+        sslConfig.setFactoryClassName(settings.sslFactory != null ? settings.sslFactory : SSLContextFactoryImpl.class.getName());
+        sslConfig.setProperties(properties);
+        return sslConfig;
+    }
+
+    private LoadResult run(final TransportMode mode, final int basePort) throws Exception {
+        System.out.println();
+        System.out.println("Starting " + this.settings.members + " members and " + this.settings.drivers + " drivers, " + mode);
+        final List<HazelcastInstance> instances = new ArrayList<>();
+        try {
+            final List<String> addresses = new ArrayList<>();
+            for (int i = 0; i < this.settings.members; i++) {
+                addresses.add("127.0.0.1:" + (basePort + i));
+            }
+
+            for (int i = 0; i < this.settings.members; i++) {
+                instances.add(this.newInstance(mode, basePort + i, addresses, false));
+            }
+            final List<HazelcastInstance> drivers = new ArrayList<>();
+            for (int i = 0; i < this.settings.drivers; i++) {
+                drivers.add(this.newInstance(mode, basePort + this.settings.members + i, addresses, true));
+            }
+            instances.addAll(drivers);
+
+            this.preload(instances.get(0).getMap(MAP_NAME));
+            return this.drive(mode, drivers);
+        } finally {
+            for (final HazelcastInstance instance : instances) {
+                instance.getLifecycleService().terminate();
+            }
+        }
+    }
+
+    private HazelcastInstance newInstance(final TransportMode mode, final int port, final List<String> addresses, final boolean lite) {
+        final Config config = new Config();
+        config.setInstanceName("loadtest-" + mode.id() + "-" + port);
+        config.getGroupConfig().setName("loadtest-" + mode.id());
+        config.setLiteMember(lite);
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        mode.configure(config, port, addresses, new SSLConfig(this.sslConfig));
+        return HazelcastInstanceFactory.newHazelcastInstance(config, config.getInstanceName(), new SSLNodeContext());
+    }
+
+    private void preload(final IMap<Integer, byte[]> map) {
+        final Map<Integer, byte[]> batch = new HashMap<>();
+        for (int key = 0; key < this.settings.keys; key++) {
+            batch.put(key, this.value);
+            if (batch.size() == PRELOAD_BATCH) {
+                map.putAll(batch);
+                batch.clear();
+            }
+        }
+        map.putAll(batch);
+    }
+
+    private LoadResult drive(final TransportMode mode, final List<HazelcastInstance> drivers) throws Exception {
+        final int threads = drivers.size() * this.settings.threads;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final long now = System.nanoTime();
+            final long measureStart = now + TimeUnit.SECONDS.toNanos(this.settings.warmupSeconds);
+            final long measureEnd = measureStart + TimeUnit.SECONDS.toNanos(this.settings.durationSeconds);
+            System.out.println("Running " + this.settings.warmupSeconds + " s warm-up and " + this.settings.durationSeconds + " s measurement");
+
+            final List<Future<Histogram[]>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                final IMap<Integer, byte[]> map = drivers.get(i % drivers.size()).getMap(MAP_NAME);
+                futures.add(executor.submit(() -> this.load(map, measureStart, measureEnd)));
+            }
+
+            final LoadResult result = new LoadResult(mode, measureEnd - measureStart);
+            for (final Future<Histogram[]> future : futures) {
+                result.add(future.get());
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Histogram[] load(final IMap<Integer, byte[]> map, final long measureStart, final long measureEnd) {
+        final Histogram[] histograms = LoadResult.newHistograms();
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        long start;
+        while ((start = System.nanoTime()) < measureEnd) {
+            final Operation operation = this.settings.mix.next(random);
+            operation.execute(map, random.nextInt(this.settings.keys), this.value);
+            if (start >= measureStart) {
+                LoadResult.record(histograms, operation, System.nanoTime() - start);
+            }
+        }
+        return histograms;
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.sammyvimes.hazelcast.ssl.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties:
+ * <ul>
+ * <li>{@code members} - data members (default 3)</li>
+ * <li>{@code drivers} - lite members generating the load (default 2)</li>
+ * <li>{@code threads} - load threads per driver (default 8)</li>
+ * <li>{@code warmupSeconds} / {@code durationSeconds} - unrecorded and recorded run time per mode (default 10 / 30)</li>
+ * <li>{@code keys} / {@code valueSize} - IMap key space and value size in bytes (default 10000 / 1024)</li>
+ * <li>{@code mix} - operation weights, default {@code get=70,put=20,entryProcessor=10}</li>
+ * <li>{@code modes} - transports to compare, default {@code plaintext,unified,endpoint}</li>
+ * <li>{@code basePort} - port of the first member, each mode gets its own range (default 6701)</li>
+ * <li>{@code keyAlgorithm} / {@code keySize} - generated key pair when no {@code keyStore} is given (default RSA / 2048)</li>
+ * <li>{@code keyStore} / {@code keyStorePassword} - existing keystore to use instead</li>
+ * <li>{@code sslFactory} - {@code SSLConfig} factory class, defaults to {@code SSLContextFactoryImpl}</li>
+ * <li>{@code ssl.<name>} - any further {@code SSLConfig} property, e.g. {@code loadtest.ssl.protocol=TLSv1.3}</li>
+ * </ul>
+ */
+final class LoadTestSettings {
+    private static final String PREFIX = "loadtest.";
+    private static final String SSL_PREFIX = PREFIX + "ssl.";
+
+    final int members = intProperty("members", 3);
+    final int drivers = intProperty("drivers", 2);
+    final int threads = intProperty("threads", 8);
+    final int warmupSeconds = intProperty("warmupSeconds", 10);
+    final int durationSeconds = intProperty("durationSeconds", 30);
+    final int keys = intProperty("keys", 10000);
+    final int valueSize = intProperty("valueSize", 1024);
+    final OperationMix mix = OperationMix.parse(property("mix", "get=70,put=20,entryProcessor=10"));
+    final List<TransportMode> modes = TransportMode.parse(property("modes", "plaintext,unified,endpoint"));
+    final int basePort = intProperty("basePort", 6701);
+    final String keyAlgorithm = property("keyAlgorithm", "RSA");
+    final int keySize = intProperty("keySize", 2048);
+    final String keyStore = property("keyStore", null);
+    final String keyStorePassword = property("keyStorePassword", null);
+    final String sslFactory = property("sslFactory", null);
+
+    /**
+     * @return the {@code loadtest.ssl.*} properties without their prefix
+     */
+    Properties sslProperties() {
+        final Properties properties = new Properties();
+        for (final String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(SSL_PREFIX)) {
+                properties.setProperty(name.substring(SSL_PREFIX.length()), System.getProperty(name));
+            }
+        }
+        return properties;
+    }
+
+    List<String> describe() {
+        final List<String> lines = new ArrayList<>();
+        lines.add(this.members + " members, " + this.drivers + " drivers x " + this.threads + " threads, "
+                + this.keys + " keys of " + this.valueSize + " bytes, mix " + this.mix);
+        lines.add(this.warmupSeconds + " s warm-up, " + this.durationSeconds + " s measured per mode, modes " + this.modes);
+        return lines;
+    }
+
+    private static String property(final String name, final String defaultValue) {
+        return System.getProperty(PREFIX + name, defaultValue);
+    }
+
+    private static int intProperty(final String name, final int defaultValue) {
+        final String value = property(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (final NumberFormatException exception) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' for " + PREFIX + name, exception);
+        }
+    }
+}
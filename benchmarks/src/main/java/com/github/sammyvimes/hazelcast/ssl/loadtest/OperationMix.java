@@ -0,0 +1,122 @@
+package com.github.sammyvimes.hazelcast.ssl.loadtest;
+
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.AbstractEntryProcessor;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted mix of IMap operations, parsed from e.g. {@code get=70,put=20,entryProcessor=10}.
+ */
+final class OperationMix {
+
+    enum Operation {
+        GET("get") {
+            @Override
+            void execute(final IMap<Integer, byte[]> map, final int key, final byte[] value) {
+                map.get(key);
+            }
+        },
+        PUT("put") {
+            @Override
+            void execute(final IMap<Integer, byte[]> map, final int key, final byte[] value) {
+                map.put(key, value);
+            }
+        },
+        ENTRY_PROCESSOR("entryProcessor") {
+            @Override
+            void execute(final IMap<Integer, byte[]> map, final int key, final byte[] value) {
+                map.executeOnKey(key, new TouchEntryProcessor());
+            }
+        };
+
+        private final String id;
+
+        Operation(final String id) {
+            this.id = id;
+        }
+
+        abstract void execute(IMap<Integer, byte[]> map, int key, byte[] value);
+
+        @Override
+        public String toString() {
+            return this.id;
+        }
+    }
+
+    private final int[] weights = new int[Operation.values().length];
+    private final int totalWeight;
+
+    private OperationMix(final int[] weights) {
+        System.arraycopy(weights, 0, this.weights, 0, weights.length);
+        int total = 0;
+        for (final int weight : weights) {
+            total += weight;
+        }
+        this.totalWeight = total;
+    }
+
+    static OperationMix parse(final String mix) {
+        final int[] weights = new int[Operation.values().length];
+        for (final String entry : mix.split(",")) {
+            final String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid operation mix entry '" + entry + "', expected <operation>=<weight>");
+            }
+            weights[byId(parts[0].trim()).ordinal()] = Integer.parseInt(parts[1].trim());
+        }
+
+        final OperationMix operationMix = new OperationMix(weights);
+        if (operationMix.totalWeight <= 0) {
+            throw new IllegalArgumentException("Operation mix '" + mix + "' has no positive weight");
+        }
+        return operationMix;
+    }
+
+    private static Operation byId(final String id) {
+        for (final Operation operation : Operation.values()) {
+            if (operation.id.equalsIgnoreCase(id)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + id + "', expected get, put or entryProcessor");
+    }
+
+    Operation next(final Random random) {
+        int remaining = random.nextInt(this.totalWeight);
+        for (final Operation operation : Operation.values()) {
+            remaining -= this.weights[operation.ordinal()];
+            if (remaining < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (final Operation operation : Operation.values()) {
+            if (this.weights[operation.ordinal()] > 0) {
+                builder.append(builder.length() == 0 ? "" : ",").append(operation).append('=').append(this.weights[operation.ordinal()]);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Bumps the first byte of the value in place, so the processor reads and writes the entry.
+     */
+    static final class TouchEntryProcessor extends AbstractEntryProcessor<Integer, byte[]> {
+        @Override
+        public Object process(final Map.Entry<Integer, byte[]> entry) {
+            final byte[] value = entry.getValue();
+            if (value != null && value.length > 0) {
+                value[0]++;
+                entry.setValue(value);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.sammyvimes.hazelcast.ssl.loadtest;
+
+import com.github.sammyvimes.hazelcast.ssl.tcp.SSLUnifiedChannelInitializer;
+import com.hazelcast.config.AdvancedNetworkConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.NetworkConfig;
+import com.hazelcast.config.SSLConfig;
+import com.hazelcast.config.ServerSocketEndpointConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How the members of a load test run talk to each other.
+ */
+enum TransportMode {
+    /**
+     * No TLS, the baseline.
+     */
+    PLAINTEXT("plaintext") {
+        @Override
+        void configure(final Config config, final int port, final List<String> members, final SSLConfig sslConfig) {
+            configureNetwork(config.getNetworkConfig(), port, members);
+        }
+    },
+    /**
+     * One port for all protocols, served by {@link SSLUnifiedChannelInitializer}.
+     */
+    UNIFIED_TLS("unified") {
+        @Override
+        void configure(final Config config, final int port, final List<String> members, final SSLConfig sslConfig) {
+            configureNetwork(config.getNetworkConfig(), port, members).setSSLConfig(sslConfig);
+        }
+    },
+    /**
+     * Advanced networking with a TLS member endpoint.
+     */
+    ENDPOINT_TLS("endpoint") {
+        @Override
+        void configure(final Config config, final int port, final List<String> members, final SSLConfig sslConfig) {
+            final AdvancedNetworkConfig networkConfig = config.getAdvancedNetworkConfig();
+            networkConfig.setEnabled(true);
+
+            final ServerSocketEndpointConfig memberEndpointConfig = new ServerSocketEndpointConfig();
+            memberEndpointConfig.setPort(port);
+            memberEndpointConfig.setPortAutoIncrement(false);
+            memberEndpointConfig.setSSLConfig(sslConfig);
+            networkConfig.setMemberEndpointConfig(memberEndpointConfig);
+            configureJoin(networkConfig.getJoin(), members);
+        }
+    };
+
+    private final String id;
+
+    TransportMode(final String id) {
+        this.id = id;
+    }
+
+    String id() {
+        return this.id;
+    }
+
+    abstract void configure(Config config, int port, List<String> members, SSLConfig sslConfig);
+
+    static List<TransportMode> parse(final String ids) {
+        final List<TransportMode> modes = new ArrayList<>();
+        for (final String id : ids.split(",")) {
+            modes.add(byId(id.trim()));
+        }
+        return modes;
+    }
+
+    private static TransportMode byId(final String id) {
+        for (final TransportMode mode : values()) {
+            if (mode.id.equalsIgnoreCase(id)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transport mode '" + id + "', expected plaintext, unified or endpoint");
+    }
+
+    private static NetworkConfig configureNetwork(final NetworkConfig networkConfig, final int port, final List<String> members) {
+        networkConfig.setPort(port);
+        networkConfig.setPortAutoIncrement(false);
+        configureJoin(networkConfig.getJoin(), members);
+        return networkConfig;
+    }
+
+    private static void configureJoin(final JoinConfig join, final List<String> members) {
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).setMembers(members);
+    }
+
+    @Override
+    public String toString() {
+        return this.id;
+    }
+}
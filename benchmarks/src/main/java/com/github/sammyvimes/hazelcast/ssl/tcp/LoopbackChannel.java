@@ -0,0 +1,205 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.networking.Channel;
+import com.hazelcast.internal.networking.ChannelCloseListener;
+import com.hazelcast.internal.networking.ChannelOption;
+import com.hazelcast.internal.networking.ChannelOptions;
+import com.hazelcast.internal.networking.InboundHandler;
+import com.hazelcast.internal.networking.InboundPipeline;
+import com.hazelcast.internal.networking.OutboundFrame;
+import com.hazelcast.internal.networking.OutboundHandler;
+import com.hazelcast.internal.networking.OutboundPipeline;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A socket-less {@link Channel} that hosts exactly one inbound and one outbound handler.
+ * Bytes are moved between two channels by {@link SSLLoopback}, the pipelines only mimic
+ * what {@code NioInboundPipeline} / {@code NioOutboundPipeline} do on {@code replace}.
+ */
+class LoopbackChannel implements Channel {
+    private final boolean clientMode;
+    private final InetSocketAddress localAddress;
+    private final InetSocketAddress remoteAddress;
+    private final ConcurrentMap attributeMap = new ConcurrentHashMap();
+    private final LoopbackOptions options = new LoopbackOptions();
+    private final LoopbackInboundPipeline inboundPipeline = new LoopbackInboundPipeline();
+    private final LoopbackOutboundPipeline outboundPipeline = new LoopbackOutboundPipeline();
+
+    LoopbackChannel(final boolean clientMode, final boolean directBuffers, final int socketBufferSize) {
+        this.clientMode = clientMode;
+        this.localAddress = new InetSocketAddress("127.0.0.1", clientMode ? 40000 : 5701);
+        this.remoteAddress = new InetSocketAddress("127.0.0.1", clientMode ? 5701 : 40000);
+        this.options.setOption(ChannelOption.DIRECT_BUF, directBuffers)
+                .setOption(ChannelOption.SO_RCVBUF, socketBufferSize)
+                .setOption(ChannelOption.SO_SNDBUF, socketBufferSize);
+    }
+
+    InboundHandler inboundHandler() {
+        return this.inboundPipeline.handler;
+    }
+
+    OutboundHandler outboundHandler() {
+        return this.outboundPipeline.handler;
+    }
+
+    @Override
+    public ChannelOptions options() {
+        return this.options;
+    }
+
+    @Override
+    public ConcurrentMap attributeMap() {
+        return this.attributeMap;
+    }
+
+    @Override
+    public InboundPipeline inboundPipeline() {
+        return this.inboundPipeline;
+    }
+
+    @Override
+    public OutboundPipeline outboundPipeline() {
+        return this.outboundPipeline;
+    }
+
+    @Override
+    public Socket socket() {
+        return null;
+    }
+
+    @Override
+    public SocketAddress remoteSocketAddress() {
+        return this.remoteAddress;
+    }
+
+    @Override
+    public SocketAddress localSocketAddress() {
+        return this.localAddress;
+    }
+
+    @Override
+    public long lastReadTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long lastWriteTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void connect(final InetSocketAddress address, final int timeoutMillis) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public boolean isClosed() {
+        return false;
+    }
+
+    @Override
+    public void addCloseListener(final ChannelCloseListener listener) {
+    }
+
+    @Override
+    public boolean isClientMode() {
+        return this.clientMode;
+    }
+
+    @Override
+    public boolean write(final OutboundFrame frame) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long bytesRead() {
+        return 0;
+    }
+
+    @Override
+    public long bytesWritten() {
+        return 0;
+    }
+
+    private static class LoopbackOptions implements ChannelOptions {
+        private final Map<ChannelOption, Object> values = new HashMap<>();
+
+        @Override
+        public <T> ChannelOptions setOption(final ChannelOption<T> option, final T value) {
+            this.values.put(option, value);
+            return this;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getOption(final ChannelOption<T> option) {
+            return (T) this.values.get(option);
+        }
+    }
+
+    private class LoopbackInboundPipeline implements InboundPipeline {
+        private InboundHandler handler;
+
+        @Override
+        public InboundPipeline addLast(final InboundHandler... handlers) {
+            this.handler = handlers[0];
+            this.handler.setChannel(LoopbackChannel.this).handlerAdded();
+            return this;
+        }
+
+        @Override
+        public InboundPipeline replace(final InboundHandler oldHandler, final InboundHandler... handlers) {
+            return this.addLast(handlers);
+        }
+
+        @Override
+        public InboundPipeline remove(final InboundHandler handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public InboundPipeline wakeup() {
+            return this;
+        }
+    }
+
+    private class LoopbackOutboundPipeline implements OutboundPipeline {
+        private OutboundHandler handler;
+
+        @Override
+        public OutboundPipeline addLast(final OutboundHandler... handlers) {
+            this.handler = handlers[0];
+            this.handler.setChannel(LoopbackChannel.this).handlerAdded();
+            return this;
+        }
+
+        @Override
+        public OutboundPipeline replace(final OutboundHandler oldHandler, final OutboundHandler... handlers) {
+            return this.addLast(handlers);
+        }
+
+        @Override
+        public OutboundPipeline remove(final OutboundHandler handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OutboundPipeline wakeup() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.KeyMaterial;
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record throughput of {@link SSLOutboundHandler#onWrite()} and {@link SSLInboundHandler#onRead()}
+ * over an in-memory {@link SSLLoopback}. Run with:
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar SSLHandlerBenchmark
+ * </pre>
+ * The {@code wrap}/{@code wrapAndUnwrap} benchmarks report ops/s and plaintext MB/s (the
+ * {@code megabytes} counter), the {@code *Time} variants report ns/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SSLHandlerBenchmark {
+
+    private static final int SOCKET_BUFFER_SIZE = 128 * 1024;
+    private static final double MEGABYTE = 1024 * 1024;
+
+    @Param({"64", "1024", "16384", "131072", "1048576"})
+    public int payloadSize;
+
+    @Param({"TLSv1.2", "TLSv1.3"})
+    public String protocol;
+
+    @Param({"AES_128_GCM", "AES_256_GCM"})
+    public String cipher;
+
+    @Param({"false", "true"})
+    public boolean directBuffers;
+
+    @Param({"JSSE", "Conscrypt"})
+    public String provider;
+
+    private SSLLoopback loopback;
+    private ByteBuffer payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE, KeyMaterial.createKeyStore("RSA", 2048));
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, KeyMaterial.PASSWORD);
+        properties.setProperty(SSLContextFactoryImpl.Props.PROTOCOL, this.protocol);
+        properties.setProperty(SSLContextFactoryImpl.Props.CIPHERSUITES, cipherSuite(this.protocol, this.cipher));
+
+        final SSLEngineFactory sslEngineFactory = newSSLEngineFactory(this.provider);
+        sslEngineFactory.init(properties, false);
+        if (sslEngineFactory instanceof ConscryptSSLEngineFactory && !((ConscryptSSLEngineFactory) sslEngineFactory).isConscrypt()) {
+            throw new IllegalStateException("Conscrypt is not available");
+        }
+
+        this.loopback = new SSLLoopback(sslEngineFactory, this.directBuffers, SOCKET_BUFFER_SIZE);
+        this.loopback.handshake();
+        if (!this.protocol.equals(this.loopback.protocol())) {
+            throw new IllegalStateException("Negotiated " + this.loopback.protocol() + " instead of " + this.protocol);
+        }
+
+        final byte[] bytes = new byte[this.payloadSize];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        this.payload = this.directBuffers ? ByteBuffer.allocateDirect(this.payloadSize) : ByteBuffer.allocate(this.payloadSize);
+        this.payload.put(bytes);
+    }
+
+    @Benchmark
+    public int wrap(final Bytes bytes) throws Exception {
+        this.payload.clear();
+        final int produced = this.loopback.wrap(this.payload);
+        bytes.megabytes += this.payloadSize / MEGABYTE;
+        return produced;
+    }
+
+    @Benchmark
+    public int wrapAndUnwrap(final Bytes bytes) throws Exception {
+        this.payload.clear();
+        final int received = this.loopback.wrapAndUnwrap(this.payload);
+        bytes.megabytes += this.payloadSize / MEGABYTE;
+        return received;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int wrapTime() throws Exception {
+        this.payload.clear();
+        return this.loopback.wrap(this.payload);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int wrapAndUnwrapTime() throws Exception {
+        this.payload.clear();
+        return this.loopback.wrapAndUnwrap(this.payload);
+    }
+
+    static SSLEngineFactory newSSLEngineFactory(final String provider) {
+        if ("Conscrypt".equals(provider)) {
+            return new ConscryptSSLEngineFactory();
+        }
+        return new SSLEngineFactoryAdaptor(new SSLContextFactoryImpl());
+    }
+
+    static String cipherSuite(final String protocol, final String cipher) {
+        final String digest = cipher.startsWith("AES_256") ? "SHA384" : "SHA256";
+        if ("TLSv1.3".equals(protocol)) {
+            return "TLS_" + cipher + "_" + digest;
+        }
+        return "TLS_ECDHE_RSA_WITH_" + cipher + "_" + digest;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.megabytes = 0;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.KeyMaterial;
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full handshakes per second over an in-memory {@link SSLLoopback}, by the key type the server authenticates with.
+ * Both sides run on the benchmark thread and sessions are never resumed, so the score is the handshakes one core
+ * completes for the client and the server together. Run with:
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar SSLHandshakeBenchmark
+ * </pre>
+ * {@code EC-256+RSA-4096} loads both keys, as with {@code keyStore=ec.pem,rsa.pem}; it should perform like
+ * {@code EC-256}, because peers that support ECDSA are served the ECDSA key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SSLHandshakeBenchmark {
+
+    private static final int SOCKET_BUFFER_SIZE = 64 * 1024;
+
+    @Param({"RSA-2048", "RSA-4096", "EC-256", "EC-256+RSA-4096"})
+    public String keyTypes;
+
+    @Param({"TLSv1.2", "TLSv1.3"})
+    public String protocol;
+
+    @Param({"false", "true"})
+    public boolean mutualAuthentication;
+
+    private SSLEngineFactory sslEngineFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final StringBuilder keyStores = new StringBuilder();
+        for (final String keyType : this.keyTypes.split("\\+")) {
+            final String[] algorithmAndSize = keyType.split("-");
+            keyStores.append(KeyMaterial.createKeyStore(algorithmAndSize[0], Integer.parseInt(algorithmAndSize[1]))).append(',');
+        }
+
+        final Properties properties = new Properties();
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE, keyStores.toString());
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, KeyMaterial.PASSWORD);
+        properties.setProperty(SSLContextFactoryImpl.Props.PROTOCOL, this.protocol);
+        if (this.mutualAuthentication) {
+            properties.setProperty(SSLContextFactoryImpl.Props.MUTUAL_AUTHENTICATION, "REQUIRED");
+        }
+        this.sslEngineFactory = new SSLEngineFactoryAdaptor(new SSLContextFactoryImpl());
+        this.sslEngineFactory.init(properties, false);
+
+        final SSLLoopback loopback = this.handshake();
+        if (!this.protocol.equals(loopback.protocol())) {
+            throw new IllegalStateException("Negotiated " + loopback.protocol() + " instead of " + this.protocol);
+        }
+        final String expectedKeyAlgorithm = this.keyTypes.split("-")[0];
+        if (!expectedKeyAlgorithm.equals(loopback.serverKeyAlgorithm())) {
+            throw new IllegalStateException("Authenticated with " + loopback.serverKeyAlgorithm() + " instead of " + expectedKeyAlgorithm);
+        }
+    }
+
+    @Benchmark
+    public SSLLoopback handshake() throws Exception {
+        final SSLLoopback loopback = new SSLLoopback(this.sslEngineFactory, false, SOCKET_BUFFER_SIZE);
+        loopback.handshake();
+        return loopback;
+    }
+}
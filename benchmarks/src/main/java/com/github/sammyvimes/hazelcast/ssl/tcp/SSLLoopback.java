@@ -0,0 +1,142 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import java.nio.ByteBuffer;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * Wires a client and a server {@link SSLOutboundHandler} / {@link SSLInboundHandler} pair
+ * back to back and moves the ciphertext between them in memory, the same way the NIO
+ * pipelines move it between the handlers and the socket.
+ */
+class SSLLoopback {
+    private static final int MAX_HANDSHAKE_ROUNDS = 1000;
+    private static final int APP_BUFFER_SIZE = 64 * 1024;
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+    private static final long MAX_POOLED_BYTES = 64 * 1024 * 1024;
+    private static final SSLBufferSizing BUFFER_SIZING = SSLBufferSizing.fromProperties(new Properties());
+
+    private final LoopbackChannel client;
+    private final LoopbackChannel server;
+    private final SSLEngine clientEngine;
+    private final SSLEngine serverEngine;
+
+    SSLLoopback(final SSLEngineFactory sslEngineFactory, final boolean directBuffers, final int socketBufferSize) throws Exception {
+        this.client = new LoopbackChannel(true, directBuffers, socketBufferSize);
+        this.server = new LoopbackChannel(false, directBuffers, socketBufferSize);
+        this.clientEngine = sslEngineFactory.create(true);
+        this.serverEngine = sslEngineFactory.create(false);
+        final SSLBufferPool bufferPool = new SSLBufferPool(MAX_POOLED_BYTES, 0);
+        init(this.client, this.clientEngine, bufferPool);
+        init(this.server, this.serverEngine, bufferPool);
+    }
+
+    private static void init(final LoopbackChannel channel, final SSLEngine sslEngine, final SSLBufferPool bufferPool) throws Exception {
+        final SSLExecutor sslExecutor = new SSLExecutor(new SSLHandshakeExecutor(DIRECT_EXECUTOR, 0, 0, 0), SSLHandshakeExecutor.MEMBER_PRIORITY,
+                SSLTaskInlining.NEVER);
+        final SSLHandshakeTracker handshakeTracker = new SSLHandshakeTracker(new SSLHandshakeMetrics(), new SSLSessionStats());
+        final SSLConnectionCounters counters = new SSLConnectionCounters();
+        sslEngine.beginHandshake();
+        channel.inboundPipeline().addLast(new SSLInboundHandler(sslEngine, sslExecutor, bufferPool, BUFFER_SIZING, handshakeTracker, counters));
+        channel.outboundPipeline().addLast(new SSLOutboundHandler(sslEngine, sslExecutor, bufferPool, BUFFER_SIZING, handshakeTracker, counters,
+                SSLRecordCoalescing.DISABLED, SSLRecordSizing.DISABLED));
+
+        final ByteBuffer app = ByteBuffer.allocate(APP_BUFFER_SIZE);
+        channel.inboundHandler().dst(app);
+        final ByteBuffer plain = ByteBuffer.allocate(0);
+        channel.outboundHandler().src(plain);
+    }
+
+    void handshake() throws Exception {
+        int rounds = 0;
+        while (!this.isEngineHandshakeDone()) {
+            if (++rounds > MAX_HANDSHAKE_ROUNDS) {
+                throw new IllegalStateException("Handshake did not complete in " + MAX_HANDSHAKE_ROUNDS + " rounds");
+            }
+            this.pump(this.client, this.server);
+            this.pump(this.server, this.client);
+        }
+
+        // let both handler pairs observe NOT_HANDSHAKING and switch to their regular buffers
+        for (int i = 0; i < 4; i++) {
+            this.pump(this.client, this.server);
+            this.pump(this.server, this.client);
+        }
+    }
+
+    String cipherSuite() {
+        return this.clientEngine.getSession().getCipherSuite();
+    }
+
+    String protocol() {
+        return this.clientEngine.getSession().getProtocol();
+    }
+
+    /**
+     * @return the algorithm of the key the server authenticated with, e.g. {@code EC}
+     */
+    String serverKeyAlgorithm() {
+        return this.serverEngine.getSession().getLocalCertificates()[0].getPublicKey().getAlgorithm();
+    }
+
+    /**
+     * Encrypts {@code payload} on the client side only; the produced records are dropped.
+     */
+    int wrap(final ByteBuffer payload) throws Exception {
+        this.client.outboundHandler().src(payload);
+        int produced = 0;
+        while (payload.hasRemaining()) {
+            this.client.outboundHandler().onWrite();
+            final ByteBuffer ciphertext = (ByteBuffer) this.client.outboundHandler().dst();
+            produced += ciphertext.remaining();
+            ciphertext.position(ciphertext.limit());
+        }
+        return produced;
+    }
+
+    /**
+     * Sends {@code payload} from the client to the server and returns the number of plaintext
+     * bytes that came out of the server inbound handler.
+     */
+    int wrapAndUnwrap(final ByteBuffer payload) throws Exception {
+        final int expected = payload.remaining();
+        this.client.outboundHandler().src(payload);
+        int received = 0;
+        while (received < expected) {
+            this.client.outboundHandler().onWrite();
+            transfer((ByteBuffer) this.client.outboundHandler().dst(), (ByteBuffer) this.server.inboundHandler().src());
+            this.server.inboundHandler().onRead();
+
+            final ByteBuffer app = (ByteBuffer) this.server.inboundHandler().dst();
+            app.flip();
+            received += app.remaining();
+            app.clear();
+        }
+        return received;
+    }
+
+    private void pump(final LoopbackChannel from, final LoopbackChannel to) throws Exception {
+        from.outboundHandler().onWrite();
+        transfer((ByteBuffer) from.outboundHandler().dst(), (ByteBuffer) to.inboundHandler().src());
+        to.inboundHandler().onRead();
+        ((ByteBuffer) to.inboundHandler().dst()).clear();
+    }
+
+    private boolean isEngineHandshakeDone() {
+        return this.clientEngine.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING
+                && this.serverEngine.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING;
+    }
+
+    private static void transfer(final ByteBuffer from, final ByteBuffer to) {
+        if (from.remaining() <= to.remaining()) {
+            to.put(from);
+        } else {
+            final int limit = from.limit();
+            from.limit(from.position() + to.remaining());
+            to.put(from);
+            from.limit(limit);
+        }
+    }
+}
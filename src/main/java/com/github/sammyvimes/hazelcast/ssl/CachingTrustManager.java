@@ -0,0 +1,140 @@
+package com.github.sammyvimes.hazelcast.ssl;
+
+import com.hazelcast.util.Clock;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.net.Socket;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+
+/**
+ * Skips the validation of {@code delegate} for peer chains in the {@link PeerCertificateCache}. A chain is keyed by
+ * the SHA-256 of its encoded certificates together with the direction and the key exchange it was validated for,
+ * and by the cache generation of the key material this trust manager was loaded with.
+ * Checks that verify the peer's host name depend on more than the chain and always go to {@code delegate}.
+ */
+final class CachingTrustManager extends X509ExtendedTrustManager {
+    private final X509ExtendedTrustManager delegate;
+    private final PeerCertificateCache cache;
+    private final int generation;
+
+    CachingTrustManager(final X509ExtendedTrustManager delegate, final PeerCertificateCache cache, final int generation) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.generation = generation;
+    }
+
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
+        this.check('c', chain, authType, () -> this.delegate.checkClientTrusted(chain, authType));
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
+        this.check('s', chain, authType, () -> this.delegate.checkServerTrusted(chain, authType));
+    }
+
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType, final Socket socket) throws CertificateException {
+        if (identifiesEndpoint(socket)) {
+            this.delegate.checkClientTrusted(chain, authType, socket);
+            return;
+        }
+        this.check('c', chain, authType, () -> this.delegate.checkClientTrusted(chain, authType, socket));
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType, final Socket socket) throws CertificateException {
+        if (identifiesEndpoint(socket)) {
+            this.delegate.checkServerTrusted(chain, authType, socket);
+            return;
+        }
+        this.check('s', chain, authType, () -> this.delegate.checkServerTrusted(chain, authType, socket));
+    }
+
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType, final SSLEngine engine) throws CertificateException {
+        if (identifiesEndpoint(engine)) {
+            this.delegate.checkClientTrusted(chain, authType, engine);
+            return;
+        }
+        this.check('c', chain, authType, () -> this.delegate.checkClientTrusted(chain, authType, engine));
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType, final SSLEngine engine) throws CertificateException {
+        if (identifiesEndpoint(engine)) {
+            this.delegate.checkServerTrusted(chain, authType, engine);
+            return;
+        }
+        this.check('s', chain, authType, () -> this.delegate.checkServerTrusted(chain, authType, engine));
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return this.delegate.getAcceptedIssuers();
+    }
+
+    private void check(final char direction, final X509Certificate[] chain, final String authType,
+                       final Validation validation) throws CertificateException {
+        if (chain == null || chain.length == 0) {
+            validation.validate();
+            return;
+        }
+
+        final String key = this.generation + key(direction, chain, authType);
+        final long now = Clock.currentTimeMillis();
+        if (this.cache.isTrusted(key, now)) {
+            return;
+        }
+
+        validation.validate();
+        this.cache.onValidated(key, now, notAfter(chain));
+    }
+
+    private static String key(final char direction, final X509Certificate[] chain, final String authType) throws CertificateException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new CertificateException(exception);
+        }
+        for (final X509Certificate certificate : chain) {
+            digest.update(certificate.getEncoded());
+        }
+        return direction + authType + ':' + Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    private static long notAfter(final X509Certificate[] chain) {
+        long notAfter = Long.MAX_VALUE;
+        for (final X509Certificate certificate : chain) {
+            notAfter = Math.min(notAfter, certificate.getNotAfter().getTime());
+        }
+        return notAfter;
+    }
+
+    private static boolean identifiesEndpoint(final SSLEngine engine) {
+        if (engine == null) {
+            return false;
+        }
+        final String algorithm = engine.getSSLParameters().getEndpointIdentificationAlgorithm();
+        return algorithm != null && !algorithm.isEmpty();
+    }
+
+    private static boolean identifiesEndpoint(final Socket socket) {
+        if (!(socket instanceof SSLSocket)) {
+            return false;
+        }
+        final String algorithm = ((SSLSocket) socket).getSSLParameters().getEndpointIdentificationAlgorithm();
+        return algorithm != null && !algorithm.isEmpty();
+    }
+
+    private interface Validation {
+        void validate() throws CertificateException;
+    }
+}
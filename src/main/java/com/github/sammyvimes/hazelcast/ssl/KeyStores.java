@@ -0,0 +1,205 @@
+package com.github.sammyvimes.hazelcast.ssl;
+
+import com.hazelcast.config.ConfigurationException;
+
+import javax.crypto.Cipher;
+import javax.crypto.EncryptedPrivateKeyInfo;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loads the key and trust material of an {@link SSLContextFactoryImpl}. A store is a comma separated list of files,
+ * each of them a JKS, JCEKS or PKCS12 keystore or a PEM file, detected from the content unless a type is configured.
+ * A PEM file holds certificates and at most one unencrypted or password encrypted PKCS#8 private key, whose
+ * certificate chain are the certificates of the file, leaf first. Several files are merged into one keystore, e.g. an
+ * ECDSA and an RSA key, so that the key manager can pick the key type each peer supports.
+ */
+final class KeyStores {
+    static final String PEM = "PEM";
+
+    private static final Pattern PEM_BLOCK = Pattern.compile("-----BEGIN ([A-Z0-9 ]+)-----([^-]*)-----END \\1-----");
+    private static final byte[] PEM_PREFIX = "-----BEGIN".getBytes(StandardCharsets.US_ASCII);
+    private static final int JKS_MAGIC = 0xFEEDFEED;
+    private static final int JCEKS_MAGIC = 0xCECECECE;
+    private static final byte DER_SEQUENCE = 0x30;
+    private static final List<String> PBES2 = Arrays.asList("PBES2", "1.2.840.113549.1.5.13");
+
+    private KeyStores() {
+    }
+
+    /**
+     * @param type the type of every file, {@code null} to detect it per file
+     */
+    static KeyStore load(final String files, final String type, final char[] password) throws IOException, GeneralSecurityException {
+        final List<String> fileNames = fileNames(files);
+        if (fileNames.isEmpty()) {
+            throw new ConfigurationException("No key material files in '" + files + "'");
+        }
+
+        if (fileNames.size() == 1) {
+            return loadFile(fileNames.get(0), type, password);
+        }
+
+        final KeyStore merged = KeyStore.getInstance(KeyStore.getDefaultType());
+        merged.load(null, null);
+        for (int i = 0; i < fileNames.size(); i++) {
+            final KeyStore keyStore = loadFile(fileNames.get(i), type, password);
+            for (final String alias : Collections.list(keyStore.aliases())) {
+                // the same alias, e.g. the keytool default, may be in several files
+                final String mergedAlias = i + "-" + alias;
+                if (keyStore.isKeyEntry(alias)) {
+                    final Key key = keyStore.getKey(alias, keyPassword(password));
+                    merged.setKeyEntry(mergedAlias, key, keyPassword(password), keyStore.getCertificateChain(alias));
+                } else {
+                    merged.setCertificateEntry(mergedAlias, keyStore.getCertificate(alias));
+                }
+            }
+        }
+        return merged;
+    }
+
+    static List<String> fileNames(final String files) {
+        final List<String> fileNames = new ArrayList<>();
+        if (files == null) {
+            return fileNames;
+        }
+        for (final String file : files.split(",")) {
+            if (!file.trim().isEmpty()) {
+                fileNames.add(file.trim());
+            }
+        }
+        return fileNames;
+    }
+
+    /**
+     * @return the password the keys of a loaded keystore are protected with
+     */
+    static char[] keyPassword(final char[] password) {
+        return password == null ? new char[0] : password;
+    }
+
+    private static KeyStore loadFile(final String file, final String type, final char[] password) throws IOException, GeneralSecurityException {
+        final byte[] content = Files.readAllBytes(Paths.get(file));
+        final String fileType = type != null ? type : detectType(content);
+        if (PEM.equalsIgnoreCase(fileType)) {
+            return loadPem(file, new String(content, StandardCharsets.US_ASCII), password);
+        }
+
+        final KeyStore keyStore = KeyStore.getInstance(fileType);
+        keyStore.load(new ByteArrayInputStream(content), password);
+        return keyStore;
+    }
+
+    static String detectType(final byte[] content) {
+        if (content.length >= 4) {
+            final int magic = (content[0] & 0xFF) << 24 | (content[1] & 0xFF) << 16 | (content[2] & 0xFF) << 8 | content[3] & 0xFF;
+            if (magic == JKS_MAGIC) {
+                return "JKS";
+            }
+            if (magic == JCEKS_MAGIC) {
+                return "JCEKS";
+            }
+        }
+        if (startsWithPem(content)) {
+            return PEM;
+        }
+        if (content.length > 0 && content[0] == DER_SEQUENCE) {
+            return "PKCS12";
+        }
+        return KeyStore.getDefaultType();
+    }
+
+    private static boolean startsWithPem(final byte[] content) {
+        int start = 0;
+        while (start < content.length && Character.isWhitespace(content[start])) {
+            start++;
+        }
+        if (content.length - start < PEM_PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < PEM_PREFIX.length; i++) {
+            if (content[start + i] != PEM_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static KeyStore loadPem(final String file, final String content, final char[] password) throws IOException, GeneralSecurityException {
+        final CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
+        final List<Certificate> certificates = new ArrayList<>();
+        byte[] encodedKey = null;
+        boolean encrypted = false;
+
+        final Matcher matcher = PEM_BLOCK.matcher(content);
+        while (matcher.find()) {
+            final String label = matcher.group(1);
+            final byte[] der = Base64.getMimeDecoder().decode(matcher.group(2));
+            if ("CERTIFICATE".equals(label)) {
+                certificates.add(certificateFactory.generateCertificate(new ByteArrayInputStream(der)));
+            } else if ("PRIVATE KEY".equals(label) || "ENCRYPTED PRIVATE KEY".equals(label)) {
+                if (encodedKey != null) {
+                    throw new ConfigurationException("More than one private key in " + file);
+                }
+                encodedKey = der;
+                encrypted = "ENCRYPTED PRIVATE KEY".equals(label);
+            } else if (label.endsWith("PRIVATE KEY")) {
+                throw new ConfigurationException(label + " in " + file
+                        + " is not supported, convert it to PKCS#8 with 'openssl pkcs8 -topk8'");
+            }
+        }
+
+        final KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        keyStore.load(null, null);
+        if (encodedKey == null) {
+            for (int i = 0; i < certificates.size(); i++) {
+                keyStore.setCertificateEntry("certificate-" + i, certificates.get(i));
+            }
+            return keyStore;
+        }
+
+        if (certificates.isEmpty()) {
+            throw new ConfigurationException("No certificate for the private key in " + file);
+        }
+        final PKCS8EncodedKeySpec keySpec = encrypted ? decrypt(file, encodedKey, password) : new PKCS8EncodedKeySpec(encodedKey);
+        final String algorithm = certificates.get(0).getPublicKey().getAlgorithm();
+        final PrivateKey key = KeyFactory.getInstance(algorithm).generatePrivate(keySpec);
+        keyStore.setKeyEntry("key", key, keyPassword(password), certificates.toArray(new Certificate[0]));
+        return keyStore;
+    }
+
+    private static PKCS8EncodedKeySpec decrypt(final String file, final byte[] encodedKey, final char[] password)
+            throws IOException, GeneralSecurityException {
+        if (password == null) {
+            throw new ConfigurationException("The private key in " + file + " is encrypted, but there is no password");
+        }
+
+        final EncryptedPrivateKeyInfo info = new EncryptedPrivateKeyInfo(encodedKey);
+        // for PBES2 the parameters name the actual scheme, e.g. PBEWithHmacSHA256AndAES_256
+        final String algorithm = PBES2.contains(info.getAlgName()) ? info.getAlgParameters().toString() : info.getAlgName();
+        final Cipher cipher = Cipher.getInstance(algorithm);
+        cipher.init(Cipher.DECRYPT_MODE, SecretKeyFactory.getInstance(algorithm).generateSecret(new PBEKeySpec(password)),
+                info.getAlgParameters());
+        return info.getKeySpec(cipher);
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.sammyvimes.hazelcast.ssl;
+
+import com.github.sammyvimes.hazelcast.ssl.tcp.SSLBufferSizing;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Peer certificate chains that recently passed validation, so that the trust managers of an
+ * {@link SSLContextFactoryImpl} don't build and validate the same PKIX path for every handshake of the same few
+ * client or member certificates. Read from the {@code SSLConfig} properties:
+ * <ul>
+ * <li>{@code trustCacheSize} - chains to remember, defaults to 0, which disables the cache</li>
+ * <li>{@code trustCacheTtlSeconds} - how long a validation is reused, defaults to 300</li>
+ * </ul>
+ * The cache is opt-in: a hit skips the trust managers entirely, including the algorithm and identification
+ * constraints of the engine that asks, so it suits endpoints whose engines are all configured alike.
+ * Only successful validations are cached, and never beyond the expiry of the chain. A revoked certificate, when
+ * revocation checking is enabled, is accepted until its entry expires. When the cache is full, expired entries
+ * are dropped first and then arbitrary ones, not the least recently used. The cache is cleared whenever the key
+ * material is reloaded.
+ */
+public class PeerCertificateCache {
+    private static final int DEFAULT_SIZE = 0;
+    private static final int DEFAULT_TTL_SECONDS = 300;
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    // chain key -> expiry in epoch millis
+    private final Map<String, Long> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger generation = new AtomicInteger();
+
+    @Probe(name = "hits")
+    private final MwCounter hits = newMwCounter();
+    @Probe(name = "misses")
+    private final MwCounter misses = newMwCounter();
+    @Probe(name = "evictions")
+    private final MwCounter evictions = newMwCounter();
+    @Probe(name = "invalidations")
+    private final MwCounter invalidations = newMwCounter();
+
+    PeerCertificateCache(final int maxEntries, final long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @return the cache, or {@code null} if it is disabled
+     */
+    static PeerCertificateCache fromProperties(final Properties properties) {
+        final int size = SSLBufferSizing.getInt(properties, SSLContextFactoryImpl.Props.TRUST_CACHE_SIZE, DEFAULT_SIZE);
+        final int ttlSeconds = SSLBufferSizing.getInt(properties, SSLContextFactoryImpl.Props.TRUST_CACHE_TTL_SECONDS, DEFAULT_TTL_SECONDS);
+        if (size <= 0 || ttlSeconds <= 0) {
+            return null;
+        }
+        return new PeerCertificateCache(size, TimeUnit.SECONDS.toMillis(ttlSeconds));
+    }
+
+    /**
+     * @return {@code true} if the chain passed validation and its entry has not expired at {@code nowMillis}
+     */
+    boolean isTrusted(final String key, final long nowMillis) {
+        final Long expiry = this.entries.get(key);
+        if (expiry != null && expiry > nowMillis) {
+            this.hits.inc();
+            return true;
+        }
+
+        this.misses.inc();
+        return false;
+    }
+
+    /**
+     * Remembers a chain that just passed validation.
+     *
+     * @param notAfterMillis when the first of the chain's certificates expires
+     */
+    void onValidated(final String key, final long nowMillis, final long notAfterMillis) {
+        if (this.entries.size() >= this.maxEntries) {
+            this.evict(nowMillis);
+        }
+        this.entries.put(key, Math.min(nowMillis + this.ttlMillis, notAfterMillis));
+    }
+
+    private void evict(final long nowMillis) {
+        this.entries.values().removeIf(expiry -> expiry <= nowMillis);
+        final Iterator<String> iterator = this.entries.keySet().iterator();
+        while (this.entries.size() >= this.maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            this.evictions.inc();
+        }
+    }
+
+    /**
+     * Forgets every chain. Keys include the generation, so trust managers of an earlier generation that are still
+     * validating can't make their results visible to the current ones.
+     *
+     * @return the new generation
+     */
+    int invalidate() {
+        final int generation = this.generation.incrementAndGet();
+        this.entries.clear();
+        this.invalidations.inc();
+        return generation;
+    }
+
+    int generation() {
+        return this.generation.get();
+    }
+
+    @Probe(name = "size")
+    public int size() {
+        return this.entries.size();
+    }
+
+    public long hits() {
+        return this.hits.get();
+    }
+
+    public long misses() {
+        return this.misses.get();
+    }
+
+    /**
+     * @return the share of validations answered from the cache, 0 before the first one
+     */
+    @Probe(name = "hitRate")
+    public double hitRate() {
+        final long hits = this.hits.get();
+        final long lookups = hits + this.misses.get();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
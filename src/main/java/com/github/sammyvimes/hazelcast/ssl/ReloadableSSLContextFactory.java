@@ -0,0 +1,19 @@
+package com.github.sammyvimes.hazelcast.ssl;
+
+import com.hazelcast.nio.ssl.SSLContextFactory;
+
+/**
+ * An {@link SSLContextFactory} that can replace its {@code SSLContext} at runtime, e.g. after the
+ * keystore or truststore was rotated. Engines created before the reload keep their context, so
+ * established connections are not affected.
+ */
+public interface ReloadableSSLContextFactory extends SSLContextFactory {
+
+    /**
+     * Creates a new {@code SSLContext} from the properties passed to {@link #init}.
+     *
+     * @param force {@code false} to only reload when the key material changed since the last load
+     * @return {@code true} if a new context was created
+     */
+    boolean reload(boolean force) throws Exception;
+}
@@ -1,19 +1,11 @@
 package com.github.sammyvimes.hazelcast.ssl;
 
-import com.hazelcast.nio.ssl.SSLContextFactory;
-
 import javax.net.ssl.*;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.security.KeyStore;
-import java.security.NoSuchAlgorithmException;
-import java.security.cert.CertificateException;
+import java.io.File;
+import java.security.Provider;
 import java.util.Properties;
 
-import static com.hazelcast.nio.IOUtil.closeResource;
-
-public class SSLContextFactoryImpl implements SSLContextFactory {
+public class SSLContextFactoryImpl implements ReloadableSSLContextFactory {
 
     private static final String JAVA_NET_SSL_PREFIX = "javax.net.ssl.";
 
@@ -29,17 +21,54 @@ public class SSLContextFactoryImpl implements SSLContextFactory {
         public static final String PROTOCOL = "protocol";
         public static final String MUTUAL_AUTHENTICATION = "mutualAuthentication";
         public static final String CIPHERSUITES = "ciphersuites";
+        public static final String CIPHERSUITE_ORDER = "cipherSuiteOrder";
+        public static final String CIPHERSUITE_CALIBRATION_MILLIS = "cipherSuiteCalibrationMillis";
+        public static final String ADAPTIVE_BUFFER_SIZING = "adaptiveBufferSizing";
+        public static final String MIN_BUFFER_SIZE = "minBufferSize";
+        public static final String MAX_BUFFER_SIZE = "maxBufferSize";
+        public static final String BUFFER_GROW_THRESHOLD = "bufferGrowThreshold";
+        public static final String BUFFER_SHRINK_THRESHOLD = "bufferShrinkThreshold";
+        public static final String SESSION_CACHE_SIZE = "sessionCacheSize";
+        public static final String SESSION_TIMEOUT_SECONDS = "sessionTimeoutSeconds";
+        public static final String RECORD_COALESCING_MICROS = "recordCoalescingMicros";
+        public static final String RECORD_COALESCING_BYTES = "recordCoalescingBytes";
+        public static final String HANDSHAKE_TIMEOUT_MILLIS = "handshakeTimeoutMillis";
+        public static final String HANDSHAKE_TASK_INLINING = "handshakeTaskInlining";
+        public static final String INLINE_TASK_THRESHOLD_MICROS = "inlineTaskThresholdMicros";
+        public static final String DYNAMIC_RECORD_SIZING = "dynamicRecordSizing";
+        public static final String MIN_RECORD_SIZE = "minRecordSize";
+        public static final String RECORD_SIZE_RAMP_RECORDS = "recordSizeRampRecords";
+        public static final String RECORD_SIZE_IDLE_MILLIS = "recordSizeIdleMillis";
+        public static final String COMPRESSION = "compression";
+        public static final String COMPRESSION_LEVEL = "compressionLevel";
+        public static final String PLAINTEXT_PROTOCOLS = "plaintextProtocols";
+        public static final String TRUST_CACHE_SIZE = "trustCacheSize";
+        public static final String TRUST_CACHE_TTL_SECONDS = "trustCacheTtlSeconds";
+    }
+
+    private final Provider provider;
+    private volatile SSLContext sslContext;
+    private Properties properties;
+    private String keyStoreFile;
+    private String trustStoreFile;
+    private String keyMaterialStamp;
+    private PeerCertificateCache peerCertificateCache;
+
+    public SSLContextFactoryImpl() {
+        this(null);
     }
 
-    private KeyManagerFactory kmf;
-    private TrustManagerFactory tmf;
-    private String protocol;
-    private SSLContext sslContext;
+    /**
+     * @param provider the JSSE provider to create the {@link SSLContext} with, {@code null} for the default one
+     */
+    public SSLContextFactoryImpl(final Provider provider) {
+        this.provider = provider;
+    }
 
     public static TrustManagerFactory loadTrustManagerFactory(final String trustStorePassword,
                                                               final String trustStore,
                                                               final String trustManagerAlgorithm) throws Exception {
-        return loadTrustManagerFactory(trustStorePassword, trustStore, trustManagerAlgorithm, "JKS");
+        return loadTrustManagerFactory(trustStorePassword, trustStore, trustManagerAlgorithm, null);
     }
 
     private static TrustManagerFactory loadTrustManagerFactory(final String trustStorePassword,
@@ -52,16 +81,14 @@ public class SSLContextFactoryImpl implements SSLContextFactory {
 
         final TrustManagerFactory tmf = TrustManagerFactory.getInstance(trustManagerAlgorithm);
         final char[] passPhrase = trustStorePassword == null ? null : trustStorePassword.toCharArray();
-        final KeyStore ts = KeyStore.getInstance(trustStoreType);
-        loadKeyStore(ts, passPhrase, trustStore);
-        tmf.init(ts);
+        tmf.init(KeyStores.load(trustStore, trustStoreType, passPhrase));
         return tmf;
     }
 
     public static KeyManagerFactory loadKeyManagerFactory(final String keyStorePassword,
                                                           final String keyStore,
                                                           final String keyManagerAlgorithm) throws Exception {
-        return loadKeyManagerFactory(keyStorePassword, keyStore, keyManagerAlgorithm, "JKS");
+        return loadKeyManagerFactory(keyStorePassword, keyStore, keyManagerAlgorithm, null);
     }
 
     private static KeyManagerFactory loadKeyManagerFactory(final String keyStorePassword,
@@ -74,22 +101,10 @@ public class SSLContextFactoryImpl implements SSLContextFactory {
 
         final KeyManagerFactory kmf = KeyManagerFactory.getInstance(keyManagerAlgorithm);
         final char[] passPhrase = keyStorePassword == null ? null : keyStorePassword.toCharArray();
-        final KeyStore ks = KeyStore.getInstance(keyStoreType);
-        loadKeyStore(ks, passPhrase, keyStore);
-        kmf.init(ks, passPhrase);
+        kmf.init(KeyStores.load(keyStore, keyStoreType, passPhrase), KeyStores.keyPassword(passPhrase));
         return kmf;
     }
 
-    private static void loadKeyStore(final KeyStore ks, final char[] passPhrase, final String keyStoreFile)
-            throws IOException, NoSuchAlgorithmException, CertificateException {
-        final InputStream in = new FileInputStream(keyStoreFile);
-        try {
-            ks.load(in, passPhrase);
-        } finally {
-            closeResource(in);
-        }
-    }
-
     public static String getProperty(final Properties properties, final String property) {
         String value = properties.getProperty(property);
         if (value == null) {
@@ -107,13 +122,89 @@ public class SSLContextFactoryImpl implements SSLContextFactory {
     }
 
     @Override
-    public void init(final Properties properties) throws Exception {
-        load(properties);
-        final KeyManager[] keyManagers = kmf == null ? null : kmf.getKeyManagers();
-        final TrustManager[] trustManagers = tmf == null ? null : tmf.getTrustManagers();
+    public synchronized void init(final Properties properties) throws Exception {
+        this.properties = properties;
+        this.peerCertificateCache = PeerCertificateCache.fromProperties(properties);
+        this.createSSLContext();
+    }
+
+    /**
+     * Replaces the {@link SSLContext} if the key material files changed, or always if {@code force}. The new context
+     * starts with an empty session cache, so every connection handshakes in full once after a reload.
+     */
+    @Override
+    public synchronized boolean reload(final boolean force) throws Exception {
+        if (!force && keyMaterialStamp(this.keyStoreFile, this.trustStoreFile).equals(this.keyMaterialStamp)) {
+            return false;
+        }
 
-        sslContext = SSLContext.getInstance(protocol);
-        sslContext.init(keyManagers, trustManagers, null);
+        this.createSSLContext();
+        return true;
+    }
+
+    /**
+     * Builds the context from the current files and publishes it with the state it was built from, or leaves
+     * everything as it was if loading fails.
+     */
+    private void createSSLContext() throws Exception {
+        final String keyStoreFile = getProperty(this.properties, Props.KEY_STORE);
+        final String trustStoreFile = getProperty(this.properties, Props.TRUST_STORE, keyStoreFile);
+        // taken before loading, so a file replaced while it is being read is picked up by the next check
+        final String stamp = keyMaterialStamp(keyStoreFile, trustStoreFile);
+        final boolean reload = this.sslContext != null;
+        final SSLContext context = this.load(this.properties);
+
+        this.keyStoreFile = keyStoreFile;
+        this.trustStoreFile = trustStoreFile;
+        this.keyMaterialStamp = stamp;
+        this.sslContext = context;
+        if (reload && this.peerCertificateCache != null) {
+            // moves the cache to the generation the new trust managers were created with
+            this.peerCertificateCache.invalidate();
+        }
+    }
+
+    /**
+     * Puts the {@link PeerCertificateCache} in front of the loaded trust managers; on a reload, chains validated by
+     * the trust managers of the previous key material are forgotten once the new context is in place.
+     */
+    private TrustManager[] cachingTrustManagers(final TrustManager[] trustManagers) {
+        if (this.peerCertificateCache == null) {
+            return trustManagers;
+        }
+
+        // a reload only invalidates after it succeeded, until then the cache keeps serving the current trust managers
+        final int generation = this.sslContext == null
+                ? this.peerCertificateCache.generation()
+                : this.peerCertificateCache.generation() + 1;
+        final TrustManager[] cachingTrustManagers = trustManagers.clone();
+        for (int i = 0; i < cachingTrustManagers.length; i++) {
+            if (cachingTrustManagers[i] instanceof X509ExtendedTrustManager) {
+                cachingTrustManagers[i] = new CachingTrustManager((X509ExtendedTrustManager) cachingTrustManagers[i],
+                        this.peerCertificateCache, generation);
+            }
+        }
+        return cachingTrustManagers;
+    }
+
+    /**
+     * @return the cache of validated peer chains, {@code null} if {@code trustCacheSize} disables it
+     */
+    public PeerCertificateCache getPeerCertificateCache() {
+        return this.peerCertificateCache;
+    }
+
+    private static String keyMaterialStamp(final String keyStoreFile, final String trustStoreFile) {
+        return fileStamp(keyStoreFile) + "/" + fileStamp(trustStoreFile);
+    }
+
+    private static String fileStamp(final String fileNames) {
+        final StringBuilder stamp = new StringBuilder();
+        for (final String fileName : KeyStores.fileNames(fileNames)) {
+            final File file = new File(fileName);
+            stamp.append(file.lastModified()).append(':').append(file.length()).append(',');
+        }
+        return stamp.toString();
     }
 
     @Override
@@ -121,21 +212,29 @@ public class SSLContextFactoryImpl implements SSLContextFactory {
         return sslContext;
     }
 
-    private void load(final Properties properties) throws Exception {
+    private SSLContext load(final Properties properties) throws Exception {
         final String keyStorePassword = getProperty(properties, Props.KEY_STORE_PASSWORD);
         final String keyStore = getProperty(properties, Props.KEY_STORE);
         final String keyManagerAlgorithm = getProperty(properties, Props.KEY_MANAGER_ALGORITHM, KeyManagerFactory.getDefaultAlgorithm());
-        final String keyStoreType = getProperty(properties, Props.KEY_STORE_TYPE, "JKS");
+        final String keyStoreType = getProperty(properties, Props.KEY_STORE_TYPE);
 
         final String trustStore = getProperty(properties, Props.TRUST_STORE, keyStore);
         final String trustStorePassword = getProperty(properties, Props.TRUST_STORE_PASSWORD, keyStorePassword);
         final String trustManagerAlgorithm
                 = getProperty(properties, Props.TRUST_MANAGER_ALGORITHM, TrustManagerFactory.getDefaultAlgorithm());
-        final String trustStoreType = getProperty(properties, Props.TRUST_STORE_TYPE, "JKS");
+        final String trustStoreType = getProperty(properties, Props.TRUST_STORE_TYPE);
+
+        final String protocol = getProperty(properties, Props.PROTOCOL, "TLS");
+        final KeyManagerFactory kmf = loadKeyManagerFactory(keyStorePassword, keyStore, keyManagerAlgorithm, keyStoreType);
+        final TrustManagerFactory tmf = loadTrustManagerFactory(trustStorePassword, trustStore, trustManagerAlgorithm, trustStoreType);
+        final KeyManager[] keyManagers = kmf == null ? null : kmf.getKeyManagers();
+        final TrustManager[] trustManagers = tmf == null ? null : this.cachingTrustManagers(tmf.getTrustManagers());
 
-        this.protocol = getProperty(properties, Props.PROTOCOL, "TLS");
-        this.kmf = loadKeyManagerFactory(keyStorePassword, keyStore, keyManagerAlgorithm, keyStoreType);
-        this.tmf = loadTrustManagerFactory(trustStorePassword, trustStore, trustManagerAlgorithm, trustStoreType);
+        final SSLContext context = this.provider == null
+                ? SSLContext.getInstance(protocol)
+                : SSLContext.getInstance(protocol, this.provider);
+        context.init(keyManagers, trustManagers, null);
+        return context;
     }
     
     
@@ -0,0 +1,71 @@
+package com.github.sammyvimes.hazelcast.ssl;
+
+import com.hazelcast.spi.properties.HazelcastProperty;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node wide TLS settings, configured like any other Hazelcast property
+ * ({@code Config.setProperty} or {@code -D} system properties). Clients using
+ * {@link com.github.sammyvimes.hazelcast.ssl.client.SSLClientExtension} read the handshake and buffer pool
+ * settings from their {@code ClientConfig} properties the same way.
+ */
+public final class SSLProperties {
+
+    public static final HazelcastProperty BUFFER_POOL_ENABLED
+            = new HazelcastProperty("hazelcast.ssl.buffer.pool.enabled", true);
+
+    public static final HazelcastProperty BUFFER_POOL_MAX_BYTES
+            = new HazelcastProperty("hazelcast.ssl.buffer.pool.max.bytes", 64 * 1024 * 1024);
+
+    public static final HazelcastProperty BUFFER_IDLE_RELEASE_MILLIS
+            = new HazelcastProperty("hazelcast.ssl.buffer.idle.release.millis", 30000, TimeUnit.MILLISECONDS);
+
+    /**
+     * Threads running delegated handshake tasks, -1 for one per available processor.
+     */
+    public static final HazelcastProperty HANDSHAKE_THREADS
+            = new HazelcastProperty("hazelcast.ssl.handshake.threads", -1);
+
+    /**
+     * Handshakes allowed to run at the same time, 0 for no limit.
+     */
+    public static final HazelcastProperty HANDSHAKE_MAX_CONCURRENT
+            = new HazelcastProperty("hazelcast.ssl.handshake.max.concurrent", 0);
+
+    /**
+     * Handshakes allowed to wait for admission; connections beyond that are closed.
+     */
+    public static final HazelcastProperty HANDSHAKE_MAX_WAITING
+            = new HazelcastProperty("hazelcast.ssl.handshake.max.waiting", 10000);
+
+    /**
+     * Delegated handshake tasks allowed to wait for a handshake thread, 0 for no limit; the handshake of a
+     * connection whose tasks don't fit fails and the connection is closed.
+     */
+    public static final HazelcastProperty HANDSHAKE_MAX_QUEUED_TASKS
+            = new HazelcastProperty("hazelcast.ssl.handshake.max.queued.tasks", 10000);
+
+    /**
+     * How often the keystore and truststore files are checked for changes, 0 (default) to not watch them.
+     * Key material can always be reloaded through {@code SSLNodeExtension.reloadKeyMaterial}.
+     */
+    public static final HazelcastProperty KEY_MATERIAL_WATCH_INTERVAL_SECONDS
+            = new HazelcastProperty("hazelcast.ssl.keymaterial.watch.interval.seconds", 0, TimeUnit.SECONDS);
+
+    /**
+     * In-memory handshakes each TLS endpoint runs before the member accepts connections, so that cluster join
+     * and the first client connections don't run the crypto in the interpreter. 0 (default) to skip the warm-up.
+     */
+    public static final HazelcastProperty WARM_UP_HANDSHAKES
+            = new HazelcastProperty("hazelcast.ssl.warmup.handshakes", 0);
+
+    /**
+     * 16 KiB records encrypted and decrypted after each warm-up handshake.
+     */
+    public static final HazelcastProperty WARM_UP_RECORDS
+            = new HazelcastProperty("hazelcast.ssl.warmup.records", 64);
+
+    private SSLProperties() {
+    }
+}
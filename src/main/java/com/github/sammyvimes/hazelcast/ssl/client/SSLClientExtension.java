@@ -0,0 +1,120 @@
+package com.github.sammyvimes.hazelcast.ssl.client;
+
+import com.github.sammyvimes.hazelcast.ssl.SSLProperties;
+import com.github.sammyvimes.hazelcast.ssl.tcp.SSLBufferPool;
+import com.github.sammyvimes.hazelcast.ssl.tcp.SSLClientSideChannelInitializer;
+import com.github.sammyvimes.hazelcast.ssl.tcp.SSLEngineFactoryCache;
+import com.github.sammyvimes.hazelcast.ssl.tcp.SSLHandshakeExecutor;
+import com.hazelcast.client.config.SocketOptions;
+import com.hazelcast.client.impl.clientside.DefaultClientExtension;
+import com.hazelcast.client.impl.clientside.HazelcastClientInstanceImpl;
+import com.hazelcast.config.SSLConfig;
+import com.hazelcast.core.LifecycleEvent;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.internal.networking.ChannelInitializer;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.util.ThreadUtil;
+import com.hazelcast.util.executor.PoolExecutorThreadFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets {@code HazelcastClient} connect over TLS with the same handlers the members use. Registered as a
+ * {@code com.hazelcast.client.ClientExtension} service, so clients pick it up as soon as this library and
+ * {@code hazelcast-client} are on the class path; a client without an enabled {@code ClientNetworkConfig} SSL config
+ * connects in plaintext as before.
+ * <p>
+ * The handshake pool, its limits and the buffer pool are configured with the {@link SSLProperties} client properties,
+ * the TLS settings with the properties of the client's {@link SSLConfig}, as on the members. Metrics are registered
+ * under {@code tls.client}.
+ */
+public class SSLClientExtension extends DefaultClientExtension {
+    private final ILogger logger = Logger.getLogger(SSLClientExtension.class);
+    private final SSLEngineFactoryCache engineFactories = new SSLEngineFactoryCache();
+    // the client asks for an initializer per connection
+    private final Map<SSLConfig, ChannelInitializer> initializers = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor handshakePool;
+    private SSLHandshakeExecutor handshakeExecutor;
+    private SSLBufferPool bufferPool;
+
+    @Override
+    public void afterStart(final HazelcastClientInstanceImpl client) {
+        super.afterStart(client);
+        client.getLifecycleService().addLifecycleListener(event -> {
+            if (event.getState() == LifecycleEvent.LifecycleState.SHUTDOWN) {
+                this.shutdown();
+            }
+        });
+    }
+
+    @Override
+    public ChannelInitializer createChannelInitializer(final SSLConfig sslConfig, final SocketOptions socketOptions) {
+        if (sslConfig == null || !sslConfig.isEnabled()) {
+            return super.createChannelInitializer(sslConfig, socketOptions);
+        }
+        return this.initializers.computeIfAbsent(sslConfig, config -> this.createTlsChannelInitializer(config, socketOptions));
+    }
+
+    private synchronized ChannelInitializer createTlsChannelInitializer(final SSLConfig sslConfig, final SocketOptions socketOptions) {
+        final HazelcastProperties properties = this.client.getProperties();
+        final MetricsRegistry metricsRegistry = this.client.getMetricsRegistry();
+        if (this.handshakeExecutor == null) {
+            this.handshakePool = this.createHandshakePool(properties);
+            this.handshakeExecutor = new SSLHandshakeExecutor(this.handshakePool,
+                    properties.getInteger(SSLProperties.HANDSHAKE_MAX_CONCURRENT), properties.getInteger(SSLProperties.HANDSHAKE_MAX_WAITING),
+                    properties.getInteger(SSLProperties.HANDSHAKE_MAX_QUEUED_TASKS));
+            this.bufferPool = this.createBufferPool(properties);
+            metricsRegistry.scanAndRegister(this.handshakeExecutor, "tls.handshake");
+            metricsRegistry.scanAndRegister(this.bufferPool, "tls.bufferPool");
+        }
+
+        final SSLClientSideChannelInitializer initializer = new SSLClientSideChannelInitializer(sslConfig, this.engineFactories,
+                this.handshakeExecutor, this.bufferPool, this.client.getClientExecutionService(), socketOptions,
+                properties.getBoolean(GroupProperty.SOCKET_CLIENT_BUFFER_DIRECT));
+        metricsRegistry.scanAndRegister(initializer.getSessionStats(), "tls.client.session");
+        initializer.getHandshakeMetrics().register(metricsRegistry, "tls.client.handshake");
+        initializer.getTrafficMetrics().register(metricsRegistry, "tls.client.traffic");
+        if (initializer.getPeerCertificateCache() != null) {
+            metricsRegistry.scanAndRegister(initializer.getPeerCertificateCache(), "tls.client.trustCache");
+        }
+        this.logger.info("TLS is enabled for the connections of client " + this.client.getName());
+        return initializer;
+    }
+
+    private ThreadPoolExecutor createHandshakePool(final HazelcastProperties properties) {
+        final int configuredThreads = properties.getInteger(SSLProperties.HANDSHAKE_THREADS);
+        final int threads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+        final String threadNamePrefix = ThreadUtil.createThreadPoolName(this.client.getName(), "tls.handshake");
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                SSLHandshakeExecutor.newPoolQueue(properties.getInteger(SSLProperties.HANDSHAKE_MAX_QUEUED_TASKS)),
+                new PoolExecutorThreadFactory(threadNamePrefix, this.client.getClientConfig().getClassLoader()));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private SSLBufferPool createBufferPool(final HazelcastProperties properties) {
+        final boolean enabled = properties.getBoolean(SSLProperties.BUFFER_POOL_ENABLED);
+        final long maxPooledBytes = enabled ? properties.getLong(SSLProperties.BUFFER_POOL_MAX_BYTES) : 0;
+        final long idleReleaseMillis = enabled ? properties.getMillis(SSLProperties.BUFFER_IDLE_RELEASE_MILLIS) : 0;
+        final SSLBufferPool pool = new SSLBufferPool(maxPooledBytes, idleReleaseMillis);
+        if (idleReleaseMillis > 0) {
+            final long period = Math.max(idleReleaseMillis / 2, 1000);
+            this.client.getClientExecutionService()
+                    .scheduleWithRepetition(pool::releaseIdleBuffers, period, period, TimeUnit.MILLISECONDS);
+        }
+        return pool;
+    }
+
+    private synchronized void shutdown() {
+        if (this.handshakePool != null) {
+            this.handshakePool.shutdownNow();
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.github.sammyvimes.hazelcast.ssl.node;
 
+import com.github.sammyvimes.hazelcast.ssl.SSLProperties;
 import com.github.sammyvimes.hazelcast.ssl.tcp.*;
 import com.hazelcast.config.*;
 import com.hazelcast.instance.EndpointQualifier;
 import com.hazelcast.instance.Node;
+import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.internal.networking.ChannelInitializer;
 import com.hazelcast.internal.networking.ChannelInitializerProvider;
 import com.hazelcast.logging.ILogger;
@@ -13,10 +15,18 @@ import com.hazelcast.nio.tcp.InternalChannelInitializerProvider;
 import com.hazelcast.nio.tcp.UnifiedChannelInitializer;
 import com.hazelcast.nio.tcp.UnifiedProtocolDecoder;
 import com.hazelcast.nio.tcp.UnifiedProtocolEncoder;
+import com.hazelcast.spi.TaskScheduler;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.util.ThreadUtil;
+import com.hazelcast.util.executor.PoolExecutorThreadFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class SSLChannelInitializerProvider implements ChannelInitializerProvider {
 
@@ -28,7 +38,11 @@ public class SSLChannelInitializerProvider implements ChannelInitializerProvider
     private final ILogger logger;
     private final Node node;
     private final boolean unifiedSslEnabled;
-    private final Executor sslExecutor;
+    private final ThreadPoolExecutor handshakePool;
+    private final SSLHandshakeExecutor handshakeExecutor;
+    private final SSLBufferPool bufferPool;
+    private final TaskScheduler scheduler;
+    private final SSLEngineFactoryCache engineFactories = new SSLEngineFactoryCache();
 
 
     public SSLChannelInitializerProvider(final IOService ioService, final Node node) {
@@ -39,8 +53,12 @@ public class SSLChannelInitializerProvider implements ChannelInitializerProvider
         this.logger = ioService.getLoggingService()
                 .getLogger(SSLChannelInitializerProvider.class);
         this.unifiedSslEnabled = this.unifiedSslEnabled();
-        this.sslExecutor = node.nodeEngine.getExecutionService().getGlobalTaskScheduler();
+        this.scheduler = node.nodeEngine.getExecutionService().getGlobalTaskScheduler();
+        this.handshakePool = this.createHandshakePool();
+        this.handshakeExecutor = this.createHandshakeExecutor();
+        this.bufferPool = this.createBufferPool();
         this.tlsChannelInitializer = this.createUnifiedTlsChannelInitializer();
+        this.watchKeyMaterial();
     }
 
     @Override
@@ -49,12 +67,18 @@ public class SSLChannelInitializerProvider implements ChannelInitializerProvider
     }
 
     public void init() {
+        this.initEndpoints();
+        this.warmUp();
+    }
+
+    private void initEndpoints() {
         final AdvancedNetworkConfig advancedNetworkConfig = config.getAdvancedNetworkConfig();
         if (!advancedNetworkConfig.isEnabled()
                 || advancedNetworkConfig.getEndpointConfigs().isEmpty()) {
             return;
         }
 
+        this.loadEngineFactories(advancedNetworkConfig.getEndpointConfigs().values());
         for (final EndpointConfig endpointConfig : advancedNetworkConfig.getEndpointConfigs().values()) {
 
             switch (endpointConfig.getProtocolType()) {
@@ -71,7 +95,7 @@ public class SSLChannelInitializerProvider implements ChannelInitializerProvider
                     initializerMap.put(EndpointQualifier.MEMCACHE, provideTextChannelInitializer(endpointConfig, false));
                     break;
                 case WAN:
-                    initializerMap.put(endpointConfig.getQualifier(), provideMemberChannelInitializer(endpointConfig));
+                    initializerMap.put(endpointConfig.getQualifier(), provideWanChannelInitializer(endpointConfig));
                     break;
                 default:
                     throw new IllegalStateException("Cannot build channel initializer for protocol type "
@@ -81,9 +105,31 @@ public class SSLChannelInitializerProvider implements ChannelInitializerProvider
     }
 
 
+    /**
+     * Loads the keystores of all TLS endpoints up front: endpoints with equal {@link SSLConfig}s share one
+     * factory, distinct ones are loaded in parallel on the (still idle) handshake pool.
+     */
+    private void loadEngineFactories(final Collection<EndpointConfig> endpointConfigs) {
+        final List<SSLConfig> sslConfigs = new ArrayList<>();
+        for (final EndpointConfig endpointConfig : endpointConfigs) {
+            if (this.endpointSslEnabled(endpointConfig)) {
+                sslConfigs.add(endpointConfig.getSSLConfig());
+            }
+        }
+        if (sslConfigs.isEmpty()) {
+            return;
+        }
+
+        final long start = System.nanoTime();
+        this.engineFactories.preload(sslConfigs, false, this.handshakePool);
+        this.logger.info("Loaded " + this.engineFactories.size() + " distinct TLS configuration(s) for " + sslConfigs.size()
+                + " endpoint(s) in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
     private ChannelInitializer provideMemberChannelInitializer(final EndpointConfig endpointConfig) {
         if (this.endpointSslEnabled(endpointConfig)) {
-            return new SSLMemberChannelInitializer(endpointConfig, this.sslExecutor, this.ioService);
+            return this.withMetrics(new SSLMemberChannelInitializer(endpointConfig, this.engineFactories, this.handshakeExecutor, this.bufferPool, this.scheduler, this.ioService),
+                    endpointConfig.getQualifier());
         } else {
             return InternalChannelInitializerProvider.provideMemberChannelInitializer(ioService, endpointConfig);
         }
@@ -91,7 +137,8 @@ public class SSLChannelInitializerProvider implements ChannelInitializerProvider
 
     private ChannelInitializer provideClientChannelInitializer(final EndpointConfig endpointConfig) {
         if (this.endpointSslEnabled(endpointConfig)) {
-            return new SSLClientChannelInitializer(endpointConfig, this.sslExecutor, this.ioService);
+            return this.withMetrics(new SSLClientChannelInitializer(endpointConfig, this.engineFactories, this.handshakeExecutor, this.bufferPool, this.scheduler, this.ioService),
+                    endpointConfig.getQualifier());
         } else {
             return InternalChannelInitializerProvider.provideClientChannelInitializer(ioService, endpointConfig);
         }
@@ -99,7 +146,8 @@ public class SSLChannelInitializerProvider implements ChannelInitializerProvider
 
     private ChannelInitializer provideTextChannelInitializer(final EndpointConfig endpointConfig, final boolean rest) {
         if (this.endpointSslEnabled(endpointConfig)) {
-            return new SSLTextChannelInitializer(endpointConfig, this.sslExecutor, this.ioService, rest);
+            return this.withMetrics(new SSLTextChannelInitializer(endpointConfig, this.engineFactories, this.handshakeExecutor, this.bufferPool, this.scheduler, this.ioService, rest),
+                    endpointConfig.getQualifier());
         } else {
             return new TextChannelInitializer(ioService, endpointConfig, rest);
         }
@@ -107,9 +155,15 @@ public class SSLChannelInitializerProvider implements ChannelInitializerProvider
 
     protected ChannelInitializer provideWanChannelInitializer(final EndpointConfig endpointConfig) {
         if (this.endpointSslEnabled(endpointConfig)) {
-            return this.tlsChannelInitializer;
+            final SSLWanChannelInitializer initializer = new SSLWanChannelInitializer(endpointConfig, this.engineFactories, this.handshakeExecutor, this.bufferPool, this.scheduler, this.ioService);
+            if (initializer.isCompressionEnabled()) {
+                this.logger.info("WAN endpoint " + endpointConfig.getQualifier() + " compresses with " + initializer.getCompressionCodecs());
+                this.node.nodeEngine.getMetricsRegistry().scanAndRegister(initializer.getCompressionMetrics(),
+                        "tls." + endpointConfig.getQualifier().toMetricsPrefixString() + ".compression");
+            }
+            return this.withMetrics(initializer, endpointConfig.getQualifier());
         } else {
-            throw new UnsupportedOperationException("TODO");
+            return InternalChannelInitializerProvider.provideMemberChannelInitializer(ioService, endpointConfig);
         }
     }
 
@@ -127,17 +181,115 @@ public class SSLChannelInitializerProvider implements ChannelInitializerProvider
             } else {
                 this.logger.info("SSL is enabled");
 
-                return new SSLUnifiedChannelInitializer(sslConfig, this.node.getProperties(), this.sslExecutor, (channel) -> {
+                final SSLUnifiedChannelInitializer initializer = new SSLUnifiedChannelInitializer(sslConfig, this.node.getProperties(), this.engineFactories, this.handshakeExecutor, this.bufferPool, this.scheduler, (channel) -> {
                     final UnifiedProtocolEncoder encoder = new UnifiedProtocolEncoder(this.ioService);
                     final UnifiedProtocolDecoder decoder = new UnifiedProtocolDecoder(this.ioService, encoder);
                     return new Handlers<>(decoder, encoder);
                 });
+                if (!"none".equals(initializer.getPlaintextProtocols())) {
+                    this.logger.warning("Unified port accepts plaintext " + initializer.getPlaintextProtocols() + " connections next to TLS");
+                }
+                this.registerMetrics(initializer, "tls.unified");
+                return initializer;
             }
         } else {
             return null;
         }
     }
 
+    private ChannelInitializer withMetrics(final SSLChannelInitializer initializer, final EndpointQualifier qualifier) {
+        this.registerMetrics(initializer, "tls." + qualifier.toMetricsPrefixString());
+        return initializer;
+    }
+
+    private void registerMetrics(final SSLChannelInitializer initializer, final String prefix) {
+        final MetricsRegistry metricsRegistry = this.node.nodeEngine.getMetricsRegistry();
+        metricsRegistry.scanAndRegister(initializer.getSessionStats(), prefix + ".session");
+        initializer.getHandshakeMetrics().register(metricsRegistry, prefix + ".handshake");
+        initializer.getTrafficMetrics().register(metricsRegistry, prefix + ".traffic");
+        if (initializer.getPeerCertificateCache() != null) {
+            metricsRegistry.scanAndRegister(initializer.getPeerCertificateCache(), prefix + ".trustCache");
+        }
+    }
+
+    /**
+     * Runs the configured warm-up handshakes on every TLS configuration; init runs before the member accepts connections.
+     */
+    private void warmUp() {
+        final int handshakes = this.node.getProperties().getInteger(SSLProperties.WARM_UP_HANDSHAKES);
+        if (handshakes <= 0 || this.engineFactories.size() == 0) {
+            return;
+        }
+
+        final int records = this.node.getProperties().getInteger(SSLProperties.WARM_UP_RECORDS);
+        final long start = System.nanoTime();
+        this.engineFactories.warmUp(handshakes, records);
+        this.logger.info("TLS warm-up of " + this.engineFactories.size() + " configuration(s) took "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    /**
+     * Reloads the key material of every TLS configuration.
+     *
+     * @param force {@code false} to only reload configurations whose keystore or truststore changed
+     * @return the number of configurations that were reloaded
+     */
+    public int reloadKeyMaterial(final boolean force) {
+        final int reloaded = this.engineFactories.reload(force);
+        if (reloaded > 0) {
+            this.logger.info("Reloaded TLS key material of " + reloaded + " configuration(s)");
+        }
+        return reloaded;
+    }
+
+    private void watchKeyMaterial() {
+        final long interval = this.node.getProperties().getSeconds(SSLProperties.KEY_MATERIAL_WATCH_INTERVAL_SECONDS);
+        if (interval > 0) {
+            this.node.nodeEngine.getExecutionService()
+                    .scheduleWithRepetition(() -> this.reloadKeyMaterial(false), interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    public void shutdown() {
+        this.handshakePool.shutdownNow();
+    }
+
+    private ThreadPoolExecutor createHandshakePool() {
+        final int configuredThreads = this.node.getProperties().getInteger(SSLProperties.HANDSHAKE_THREADS);
+        final int threads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+        final String threadNamePrefix = ThreadUtil.createThreadPoolName(this.node.hazelcastInstance.getName(), "tls.handshake");
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                SSLHandshakeExecutor.newPoolQueue(this.node.getProperties().getInteger(SSLProperties.HANDSHAKE_MAX_QUEUED_TASKS)),
+                new PoolExecutorThreadFactory(threadNamePrefix, this.node.getConfigClassLoader()));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private SSLHandshakeExecutor createHandshakeExecutor() {
+        final HazelcastProperties properties = this.node.getProperties();
+        final SSLHandshakeExecutor executor = new SSLHandshakeExecutor(this.handshakePool,
+                properties.getInteger(SSLProperties.HANDSHAKE_MAX_CONCURRENT), properties.getInteger(SSLProperties.HANDSHAKE_MAX_WAITING),
+                properties.getInteger(SSLProperties.HANDSHAKE_MAX_QUEUED_TASKS));
+        this.node.nodeEngine.getMetricsRegistry().scanAndRegister(executor, "tls.handshake");
+        return executor;
+    }
+
+    private SSLBufferPool createBufferPool() {
+        final HazelcastProperties properties = this.node.getProperties();
+        final boolean enabled = properties.getBoolean(SSLProperties.BUFFER_POOL_ENABLED);
+        final long maxPooledBytes = enabled ? properties.getLong(SSLProperties.BUFFER_POOL_MAX_BYTES) : 0;
+        final long idleReleaseMillis = enabled ? properties.getMillis(SSLProperties.BUFFER_IDLE_RELEASE_MILLIS) : 0;
+        final SSLBufferPool pool = new SSLBufferPool(maxPooledBytes, idleReleaseMillis);
+
+        this.node.nodeEngine.getMetricsRegistry().scanAndRegister(pool, "tls.bufferPool");
+        if (idleReleaseMillis > 0) {
+            final long period = Math.max(idleReleaseMillis / 2, 1000);
+            this.node.nodeEngine.getExecutionService()
+                    .scheduleWithRepetition(pool::releaseIdleBuffers, period, period, TimeUnit.MILLISECONDS);
+        }
+        return pool;
+    }
+
     private boolean endpointSslEnabled(final EndpointConfig endpointConfig) {
         return endpointConfig != null && endpointConfig.getSSLConfig() != null && endpointConfig.getSSLConfig()
                 .isEnabled();
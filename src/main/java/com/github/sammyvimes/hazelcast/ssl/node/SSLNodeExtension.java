@@ -1,11 +1,17 @@
 package com.github.sammyvimes.hazelcast.ssl.node;
 
+import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.instance.DefaultNodeExtension;
+import com.hazelcast.instance.HazelcastInstanceImpl;
+import com.hazelcast.instance.HazelcastInstanceProxy;
 import com.hazelcast.instance.Node;
+import com.hazelcast.instance.NodeExtension;
 import com.hazelcast.internal.networking.ChannelInitializerProvider;
 import com.hazelcast.nio.IOService;
 
 public class SSLNodeExtension extends DefaultNodeExtension {
+    private SSLChannelInitializerProvider channelInitializerProvider;
+
     public SSLNodeExtension(final Node node) {
         super(node);
     }
@@ -14,6 +20,39 @@ public class SSLNodeExtension extends DefaultNodeExtension {
     public ChannelInitializerProvider createChannelInitializerProvider(final IOService ioService) {
         final SSLChannelInitializerProvider provider = new SSLChannelInitializerProvider(ioService, node);
         provider.init();
+        this.channelInitializerProvider = provider;
         return provider;
     }
+
+    /**
+     * Reloads the keystore and truststore of every TLS endpoint of this member. New connections use
+     * the new key material, established ones are not affected.
+     *
+     * @return the number of distinct TLS configurations that were reloaded, endpoints sharing one count once
+     */
+    public int reloadKeyMaterial() {
+        return this.channelInitializerProvider == null ? 0 : this.channelInitializerProvider.reloadKeyMaterial(true);
+    }
+
+    /**
+     * Reloads the TLS key material of a member started with {@link SSLNodeContext}.
+     */
+    public static int reloadKeyMaterial(final HazelcastInstance instance) {
+        final HazelcastInstanceImpl instanceImpl = instance instanceof HazelcastInstanceProxy
+                ? ((HazelcastInstanceProxy) instance).getOriginal()
+                : (HazelcastInstanceImpl) instance;
+        final NodeExtension nodeExtension = instanceImpl.node.getNodeExtension();
+        if (!(nodeExtension instanceof SSLNodeExtension)) {
+            throw new IllegalArgumentException(instance + " was not started with " + SSLNodeContext.class.getSimpleName());
+        }
+        return ((SSLNodeExtension) nodeExtension).reloadKeyMaterial();
+    }
+
+    @Override
+    public void shutdown() {
+        if (this.channelInitializerProvider != null) {
+            this.channelInitializerProvider.shutdown();
+        }
+        super.shutdown();
+    }
 }
@@ -0,0 +1,67 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+/**
+ * Tracks how full a handler's network buffer gets and decides when it should be resized.
+ * Starts at the lower bound, doubles after {@code growThreshold} consecutive full buffers and
+ * halves after {@code shrinkThreshold} consecutive rounds that used at most a quarter of it.
+ * Not thread-safe; owned by a single handler.
+ */
+final class AdaptiveBufferSizer {
+    private final int minSize;
+    private final int maxSize;
+    private final int growThreshold;
+    private final int shrinkThreshold;
+
+    private int size;
+    private int fullRounds;
+    private int quietRounds;
+
+    AdaptiveBufferSizer(final int minSize, final int maxSize, final int growThreshold, final int shrinkThreshold) {
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.growThreshold = growThreshold;
+        this.shrinkThreshold = shrinkThreshold;
+        this.size = minSize;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Records a round that ran out of buffer space.
+     *
+     * @return {@code true} if the buffer should be resized to {@link #size()}
+     */
+    boolean onFull() {
+        this.quietRounds = 0;
+        if (this.size >= this.maxSize || ++this.fullRounds < this.growThreshold) {
+            return false;
+        }
+
+        this.fullRounds = 0;
+        this.size = (int) Math.min(this.maxSize, 2L * this.size);
+        return true;
+    }
+
+    /**
+     * Records a round that used {@code bytes} of the buffer without running out of space.
+     *
+     * @return {@code true} if the buffer should be resized to {@link #size()}
+     */
+    boolean onUsed(final int bytes) {
+        this.fullRounds = 0;
+        if (bytes > this.size / 4) {
+            this.quietRounds = 0;
+            return false;
+        }
+
+        if (this.size <= this.minSize || ++this.quietRounds < this.shrinkThreshold) {
+            return false;
+        }
+
+        this.quietRounds = 0;
+        this.size = Math.max(this.minSize, this.size / 2);
+        return true;
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders cipher suites by the wrap/unwrap throughput of their bulk cipher on this machine, for
+ * {@code cipherSuiteOrder=auto}. AES-GCM is fast on CPUs with AES instructions and slow without them,
+ * ChaCha20-Poly1305 is the other way round, so no static order fits a mixed fleet.
+ * <p>
+ * Each bulk cipher is measured over an {@link SSLEngineLoopback} of the node's {@link SSLContext}, with the
+ * first of its suites that completes a handshake with the configured key material. Suites of other
+ * ciphers, and ciphers that could not be measured, keep their relative order after the measured ones.
+ */
+final class CipherSuiteCalibration {
+    static final String[] BULK_CIPHERS = {"AES_128_GCM", "AES_256_GCM", "CHACHA20_POLY1305"};
+
+    private static final int RECORD_SIZE = 16 * 1024;
+    // early rounds mostly measure the JIT, so the rounds are interleaved and the best one of each cipher counts
+    private static final int ROUNDS = 4;
+    // a cipher only moves ahead of one configured before it when it is clearly faster, not by noise
+    private static final double MIN_SPEEDUP = 1.1;
+    private static final double NANOS_PER_MICRO = 1000;
+    private static final ConcurrentMap<String, Map<String, Double>> CALIBRATIONS = new ConcurrentHashMap<>();
+
+    private final ILogger logger = Logger.getLogger(CipherSuiteCalibration.class);
+    private final SSLContext sslContext;
+    private final String[] protocols;
+    private final long nanosPerCipher;
+
+    /**
+     * @param protocols protocols to enable on the loopback engines, {@code null} for the defaults
+     */
+    CipherSuiteCalibration(final SSLContext sslContext, final String[] protocols, final long millisPerCipher) {
+        this.sslContext = sslContext;
+        this.protocols = protocols;
+        this.nanosPerCipher = TimeUnit.MILLISECONDS.toNanos(millisPerCipher);
+    }
+
+    String[] order(final String[] cipherSuites) {
+        // the hardware does not change, so every endpoint and node of this JVM reuses the first calibration
+        final String provider = this.sslContext.getProvider().getName();
+        Map<String, Double> throughput = CALIBRATIONS.get(provider);
+        if (throughput == null) {
+            throughput = this.calibrate(cipherSuites);
+            if (!throughput.isEmpty()) {
+                CALIBRATIONS.putIfAbsent(provider, throughput);
+            }
+        }
+        final String[] ordered = order(cipherSuites, throughput);
+        this.logger.info("TLS cipher suite calibration (MB/s): " + throughput + ", suite order: " + String.join(", ", ordered));
+        return ordered;
+    }
+
+    private Map<String, Double> calibrate(final String[] cipherSuites) {
+        // the supported suites cover the ciphers other endpoints may enable
+        final List<String> candidates = new ArrayList<>(Arrays.asList(cipherSuites));
+        candidates.addAll(Arrays.asList(this.sslContext.createSSLEngine().getSupportedCipherSuites()));
+        final Map<String, Double> throughput = new HashMap<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (final String bulkCipher : BULK_CIPHERS) {
+                final Double megabytesPerSecond = this.measure(bulkCipher, candidates);
+                if (megabytesPerSecond != null) {
+                    throughput.merge(bulkCipher, megabytesPerSecond, Math::max);
+                }
+            }
+        }
+        return throughput;
+    }
+
+    /**
+     * Stable sort of {@code cipherSuites} by the throughput of their bulk cipher, fastest first.
+     */
+    static String[] order(final String[] cipherSuites, final Map<String, Double> throughput) {
+        final Map<String, List<String>> byBulkCipher = new LinkedHashMap<>();
+        for (final String cipherSuite : cipherSuites) {
+            final String bulkCipher = bulkCipher(cipherSuite);
+            byBulkCipher.computeIfAbsent(throughput.containsKey(bulkCipher) ? bulkCipher : null, key -> new ArrayList<>()).add(cipherSuite);
+        }
+
+        final List<String> bulkCiphers = new ArrayList<>(byBulkCipher.keySet());
+        for (int i = 1; i < bulkCiphers.size(); i++) {
+            for (int j = i; j > 0 && isFaster(bulkCiphers.get(j), bulkCiphers.get(j - 1), throughput); j--) {
+                Collections.swap(bulkCiphers, j, j - 1);
+            }
+        }
+
+        final List<String> ordered = new ArrayList<>(cipherSuites.length);
+        for (final String bulkCipher : bulkCiphers) {
+            ordered.addAll(byBulkCipher.get(bulkCipher));
+        }
+        return ordered.toArray(new String[0]);
+    }
+
+    private static boolean isFaster(final String bulkCipher, final String other, final Map<String, Double> throughput) {
+        if (bulkCipher == null) {
+            return false;
+        }
+        return other == null || throughput.get(bulkCipher) > MIN_SPEEDUP * throughput.get(other);
+    }
+
+    static String bulkCipher(final String cipherSuite) {
+        for (final String bulkCipher : BULK_CIPHERS) {
+            if (cipherSuite.contains(bulkCipher)) {
+                return bulkCipher;
+            }
+        }
+        return null;
+    }
+
+    private Double measure(final String bulkCipher, final List<String> cipherSuites) {
+        for (final String cipherSuite : cipherSuites) {
+            if (!bulkCipher.equals(bulkCipher(cipherSuite))) {
+                continue;
+            }
+
+            try {
+                return this.measure(cipherSuite);
+            } catch (final SSLException | RuntimeException exception) {
+                // e.g. an ECDSA suite with an RSA key, try the next suite of the same cipher
+                this.logger.finest("Could not calibrate " + cipherSuite + ": " + exception);
+            }
+        }
+        return null;
+    }
+
+    private double measure(final String cipherSuite) throws SSLException {
+        final SSLEngineLoopback loopback = new SSLEngineLoopback(this.newEngine(true, cipherSuite), this.newEngine(false, cipherSuite));
+        loopback.handshake();
+
+        final ByteBuffer plaintext = ByteBuffer.allocate(RECORD_SIZE);
+        long bytes = 0;
+        final long start = System.nanoTime();
+        final long deadline = start + this.nanosPerCipher;
+        long now;
+        do {
+            plaintext.clear();
+            bytes += loopback.transfer(plaintext);
+            now = System.nanoTime();
+        } while (now < deadline);
+
+        return bytes * NANOS_PER_MICRO / (now - start);
+    }
+
+    private SSLEngine newEngine(final boolean clientMode, final String cipherSuite) {
+        final SSLEngine sslEngine = this.sslContext.createSSLEngine();
+        sslEngine.setUseClientMode(clientMode);
+        sslEngine.setEnabledCipherSuites(new String[]{cipherSuite});
+        if (this.protocols != null) {
+            sslEngine.setEnabledProtocols(this.protocols);
+        }
+        return sslEngine;
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.networking.HandlerStatus;
+import com.hazelcast.internal.networking.OutboundHandler;
+import com.hazelcast.nio.IOUtil;
+
+import java.nio.ByteBuffer;
+
+import static com.github.sammyvimes.hazelcast.ssl.tcp.WanCompression.FRAME_HEADER_SIZE;
+import static com.github.sammyvimes.hazelcast.ssl.tcp.WanCompression.MAX_COMPRESSED_SIZE;
+import static com.github.sammyvimes.hazelcast.ssl.tcp.WanCompression.MAX_FRAME_SIZE;
+
+/**
+ * Sends the hello and then cuts the plaintext of the member protocol into compressed frames, see {@link WanCompression}.
+ * Sits right before the {@link SSLOutboundHandler}.
+ */
+final class CompressingOutboundHandler extends OutboundHandler<ByteBuffer, ByteBuffer> {
+    private final WanCompression compression;
+    private final WanCompressionMetrics metrics;
+    private final byte[] input = new byte[MAX_FRAME_SIZE];
+    private final byte[] frame = new byte[FRAME_HEADER_SIZE + MAX_COMPRESSED_SIZE];
+    // the frame not yet copied to dst, in read mode
+    private final ByteBuffer pending = ByteBuffer.wrap(this.frame);
+
+    // written by the inbound IO thread once the peer's hello arrived
+    private volatile CompressionCodec negotiatedCodec;
+    private CompressionCodec codec = CompressionCodec.NONE;
+    private CompressionCodec.Compressor compressor;
+    private boolean helloSent;
+
+    CompressingOutboundHandler(final WanCompression compression, final WanCompressionMetrics metrics) {
+        this.compression = compression;
+        this.metrics = metrics;
+        this.compressor = CompressionCodec.NONE.newCompressor(compression.level());
+        this.pending.limit(0);
+    }
+
+    @Override
+    public void handlerAdded() {
+        if (this.dst == null) {
+            this.initDstBuffer(FRAME_HEADER_SIZE + MAX_COMPRESSED_SIZE);
+        }
+    }
+
+    void onPeerHello(final int peerCodecs) {
+        this.negotiatedCodec = this.compression.select(peerCodecs);
+    }
+
+    @Override
+    public HandlerStatus onWrite() {
+        IOUtil.compactOrClear(this.dst);
+        try {
+            if (!this.helloSent) {
+                this.dst.put(this.compression.hello());
+                this.helloSent = true;
+            }
+
+            while (true) {
+                if (this.pending.hasRemaining()) {
+                    WanCompression.drain(this.pending, this.dst);
+                    if (this.pending.hasRemaining()) {
+                        return HandlerStatus.DIRTY;
+                    }
+                }
+                if (!this.src.hasRemaining()) {
+                    return HandlerStatus.CLEAN;
+                }
+                this.compressFrame();
+            }
+        } finally {
+            this.dst.flip();
+        }
+    }
+
+    private void compressFrame() {
+        final CompressionCodec negotiatedCodec = this.negotiatedCodec;
+        if (negotiatedCodec != null && negotiatedCodec != this.codec) {
+            this.compressor.close();
+            this.codec = negotiatedCodec;
+            this.compressor = negotiatedCodec.newCompressor(this.compression.level());
+        }
+
+        final int length = Math.min(this.src.remaining(), MAX_FRAME_SIZE);
+        this.src.get(this.input, 0, length);
+        final int compressed = this.compressor.compress(this.input, length, this.frame, FRAME_HEADER_SIZE);
+
+        this.pending.clear();
+        this.pending.put((byte) this.codec.id()).putInt(compressed).putInt(length);
+        this.pending.limit(FRAME_HEADER_SIZE + compressed);
+        this.pending.position(0);
+        this.metrics.onFrameOut(length, FRAME_HEADER_SIZE + compressed);
+    }
+
+    /**
+     * Frees the native memory of the compressor, called when the channel closes.
+     */
+    void close() {
+        this.compressor.close();
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Frame codecs of {@link WanCompression}. The id is sent in every frame header and, as a bit, in the hello.
+ */
+enum CompressionCodec {
+    /**
+     * Frames are sent as they are, used until the peer's hello arrived and when the peers have no codec in common.
+     */
+    NONE(0, "none") {
+        @Override
+        Compressor newCompressor(final int level) {
+            return new Compressor() {
+                @Override
+                public int compress(final byte[] in, final int length, final byte[] out, final int offset) {
+                    System.arraycopy(in, 0, out, offset, length);
+                    return length;
+                }
+            };
+        }
+
+        @Override
+        Decompressor newDecompressor() {
+            return new Decompressor() {
+                @Override
+                public void decompress(final byte[] in, final int length, final byte[] out, final int plainLength) {
+                    if (length != plainLength) {
+                        throw new IllegalStateException("Uncompressed frame of " + length + " bytes claims " + plainLength);
+                    }
+                    System.arraycopy(in, 0, out, 0, length);
+                }
+            };
+        }
+    },
+    /**
+     * One deflate stream per direction, flushed at every frame, so later frames use the earlier ones as dictionary.
+     */
+    DEFLATE(1, "deflate") {
+        @Override
+        Compressor newCompressor(final int level) {
+            return new DeflateCompressor(level);
+        }
+
+        @Override
+        Decompressor newDecompressor() {
+            return new InflateDecompressor();
+        }
+    },
+    /**
+     * LZ4 blocks from lz4-java, much cheaper than deflate at a lower ratio, each frame is compressed on its own.
+     */
+    LZ4(2, "lz4") {
+        @Override
+        boolean isAvailable() {
+            return Lz4Codec.isAvailable();
+        }
+
+        @Override
+        Compressor newCompressor(final int level) {
+            return Lz4Codec.newCompressor();
+        }
+
+        @Override
+        Decompressor newDecompressor() {
+            return Lz4Codec.newDecompressor();
+        }
+    };
+
+    private final int id;
+    private final String name;
+
+    CompressionCodec(final int id, final String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    int id() {
+        return this.id;
+    }
+
+    int bit() {
+        return 1 << this.id;
+    }
+
+    boolean isAvailable() {
+        return true;
+    }
+
+    abstract Compressor newCompressor(int level);
+
+    abstract Decompressor newDecompressor();
+
+    static CompressionCodec byId(final int id) {
+        for (final CompressionCodec codec : values()) {
+            if (codec.id == id) {
+                return codec;
+            }
+        }
+        throw new IllegalStateException("Unknown compression codec " + id);
+    }
+
+    static CompressionCodec byName(final String name) {
+        for (final CompressionCodec codec : values()) {
+            if (codec.name.equalsIgnoreCase(name)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+    interface Compressor {
+        /**
+         * Compresses {@code length} bytes of {@code in} into {@code out} from {@code offset} on, which has room
+         * for {@link WanCompression#MAX_COMPRESSED_SIZE} bytes.
+         *
+         * @return the compressed size
+         */
+        int compress(byte[] in, int length, byte[] out, int offset);
+
+        default void close() {
+        }
+    }
+
+    interface Decompressor {
+        /**
+         * Decompresses the {@code length} bytes of a frame in {@code in} into exactly {@code plainLength} bytes of {@code out}.
+         */
+        void decompress(byte[] in, int length, byte[] out, int plainLength) throws DataFormatException;
+
+        default void close() {
+        }
+    }
+
+    private static final class DeflateCompressor implements Compressor {
+        private final Deflater deflater;
+
+        DeflateCompressor(final int level) {
+            this.deflater = new Deflater(level, true);
+        }
+
+        @Override
+        public int compress(final byte[] in, final int length, final byte[] out, final int offset) {
+            this.deflater.setInput(in, 0, length);
+            final int compressed = this.deflater.deflate(out, offset, WanCompression.MAX_COMPRESSED_SIZE, Deflater.SYNC_FLUSH);
+            // SYNC_FLUSH has consumed and flushed all input only if it left room in the output
+            if (compressed == WanCompression.MAX_COMPRESSED_SIZE) {
+                throw new IllegalStateException("Deflated frame exceeds " + WanCompression.MAX_COMPRESSED_SIZE + " bytes");
+            }
+            return compressed;
+        }
+
+        @Override
+        public void close() {
+            this.deflater.end();
+        }
+    }
+
+    private static final class InflateDecompressor implements Decompressor {
+        private final Inflater inflater = new Inflater(true);
+
+        @Override
+        public void decompress(final byte[] in, final int length, final byte[] out, final int plainLength) throws DataFormatException {
+            this.inflater.setInput(in, 0, length);
+            int inflated = 0;
+            while (inflated < plainLength) {
+                final int count = this.inflater.inflate(out, inflated, plainLength - inflated);
+                if (count == 0 && (this.inflater.needsInput() || this.inflater.finished())) {
+                    break;
+                }
+                inflated += count;
+            }
+            if (inflated != plainLength || this.inflater.getRemaining() > 0) {
+                throw new DataFormatException("Deflated frame inflated to " + inflated + " bytes instead of " + plainLength);
+            }
+        }
+
+        @Override
+        public void close() {
+            this.inflater.end();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.networking.HandlerStatus;
+import com.hazelcast.internal.networking.InboundHandler;
+import com.hazelcast.nio.IOUtil;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+
+import static com.github.sammyvimes.hazelcast.ssl.tcp.WanCompression.FRAME_HEADER_SIZE;
+import static com.github.sammyvimes.hazelcast.ssl.tcp.WanCompression.HELLO_SIZE;
+import static com.github.sammyvimes.hazelcast.ssl.tcp.WanCompression.MAX_COMPRESSED_SIZE;
+import static com.github.sammyvimes.hazelcast.ssl.tcp.WanCompression.MAX_FRAME_SIZE;
+
+/**
+ * Reads the peer's hello, hands it to the {@link CompressingOutboundHandler} of the same channel, and decompresses
+ * the frames that follow, see {@link WanCompression}. Sits right after the {@link SSLInboundHandler}.
+ */
+final class DecompressingInboundHandler extends InboundHandler<ByteBuffer, ByteBuffer> {
+    private final CompressingOutboundHandler outboundHandler;
+    private final WanCompressionMetrics metrics;
+    private final byte[] compressed = new byte[MAX_COMPRESSED_SIZE];
+    private final byte[] plain = new byte[MAX_FRAME_SIZE];
+    // the decompressed frame not yet copied to dst, in read mode
+    private final ByteBuffer pending = ByteBuffer.wrap(this.plain);
+    private final CompressionCodec.Decompressor[] decompressors = new CompressionCodec.Decompressor[CompressionCodec.values().length];
+
+    private boolean helloReceived;
+
+    DecompressingInboundHandler(final CompressingOutboundHandler outboundHandler, final WanCompressionMetrics metrics) {
+        this.outboundHandler = outboundHandler;
+        this.metrics = metrics;
+        this.pending.limit(0);
+    }
+
+    @Override
+    public void handlerAdded() {
+        if (this.src == null) {
+            this.initSrcBuffer(FRAME_HEADER_SIZE + MAX_COMPRESSED_SIZE);
+        }
+    }
+
+    @Override
+    public HandlerStatus onRead() throws Exception {
+        this.src.flip();
+        try {
+            if (!this.helloReceived) {
+                if (this.src.remaining() < HELLO_SIZE) {
+                    return HandlerStatus.CLEAN;
+                }
+                this.outboundHandler.onPeerHello(WanCompression.parseHello(this.src.get(), this.src.get(), this.src.get()));
+                this.helloReceived = true;
+            }
+
+            while (true) {
+                if (this.pending.hasRemaining()) {
+                    WanCompression.drain(this.pending, this.dst);
+                    if (this.pending.hasRemaining()) {
+                        return HandlerStatus.DIRTY;
+                    }
+                }
+                if (!this.decompressFrame()) {
+                    return HandlerStatus.CLEAN;
+                }
+            }
+        } finally {
+            IOUtil.compactOrClear(this.src);
+        }
+    }
+
+    /**
+     * @return {@code false} if src does not hold a whole frame yet
+     */
+    private boolean decompressFrame() throws DataFormatException {
+        if (this.src.remaining() < FRAME_HEADER_SIZE) {
+            return false;
+        }
+
+        final int start = this.src.position();
+        final int compressedLength = this.src.getInt(start + 1);
+        final int plainLength = this.src.getInt(start + 5);
+        if (compressedLength < 0 || compressedLength > MAX_COMPRESSED_SIZE || plainLength < 0 || plainLength > MAX_FRAME_SIZE) {
+            throw new IllegalStateException("Invalid WAN compression frame of " + compressedLength + " bytes for " + plainLength);
+        }
+        if (this.src.remaining() < FRAME_HEADER_SIZE + compressedLength) {
+            return false;
+        }
+
+        final CompressionCodec.Decompressor decompressor = this.decompressor(this.src.get(start));
+        this.src.position(start + FRAME_HEADER_SIZE);
+        this.src.get(this.compressed, 0, compressedLength);
+        decompressor.decompress(this.compressed, compressedLength, this.plain, plainLength);
+
+        this.pending.limit(plainLength);
+        this.pending.position(0);
+        this.metrics.onFrameIn(FRAME_HEADER_SIZE + compressedLength, plainLength);
+        return true;
+    }
+
+    private CompressionCodec.Decompressor decompressor(final int codecId) {
+        final CompressionCodec codec = CompressionCodec.byId(codecId);
+        if (!codec.isAvailable()) {
+            throw new IllegalStateException("Peer sent " + codec + " frames, which are not supported here");
+        }
+        CompressionCodec.Decompressor decompressor = this.decompressors[codec.ordinal()];
+        if (decompressor == null) {
+            decompressor = codec.newDecompressor();
+            this.decompressors[codec.ordinal()] = decompressor;
+        }
+        return decompressor;
+    }
+
+    /**
+     * Frees the native memory of the decompressors, called when the channel closes.
+     */
+    void close() {
+        for (final CompressionCodec.Decompressor decompressor : this.decompressors) {
+            if (decompressor != null) {
+                decompressor.close();
+            }
+        }
+    }
+}
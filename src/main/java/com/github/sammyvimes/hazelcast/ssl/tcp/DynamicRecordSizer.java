@@ -0,0 +1,61 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+/**
+ * Decides how much plaintext goes into the next TLS record of a connection. Starts at the minimum, doubles after
+ * {@code rampRecords} consecutive records that were filled up to the current size, up to a full 16 KB record,
+ * and drops back to the minimum when the connection was idle for {@code idleMillis}.
+ * Not thread-safe; owned by a single handler.
+ */
+final class DynamicRecordSizer {
+    private final int minRecordSize;
+    private final int rampRecords;
+    private final long idleMillis;
+
+    private int recordSize;
+    private int fullRecords;
+    private long lastActiveMillis = -1;
+
+    DynamicRecordSizer(final int minRecordSize, final int rampRecords, final long idleMillis) {
+        this.minRecordSize = minRecordSize;
+        this.rampRecords = rampRecords;
+        this.idleMillis = idleMillis;
+        this.recordSize = minRecordSize;
+    }
+
+    int recordSize() {
+        return this.recordSize;
+    }
+
+    /**
+     * Records that plaintext is about to be written.
+     *
+     * @return {@code true} if an idle period reset the record size
+     */
+    boolean onActive(final long nowMillis) {
+        final long lastActiveMillis = this.lastActiveMillis;
+        this.lastActiveMillis = nowMillis;
+        if (lastActiveMillis < 0 || nowMillis - lastActiveMillis < this.idleMillis || this.recordSize == this.minRecordSize) {
+            return false;
+        }
+
+        this.recordSize = this.minRecordSize;
+        this.fullRecords = 0;
+        return true;
+    }
+
+    /**
+     * Records a wrapped record holding {@code plaintextBytes}; records smaller than the current size mean the
+     * burst ran out of data rather than that it is sustained, so they don't count towards the ramp.
+     */
+    void onWrapped(final int plaintextBytes) {
+        if (plaintextBytes < this.recordSize || this.recordSize >= SSLRecordSizing.MAX_RECORD_SIZE) {
+            this.fullRecords = 0;
+            return;
+        }
+
+        if (++this.fullRecords >= this.rampRecords) {
+            this.fullRecords = 0;
+            this.recordSize = Math.min(SSLRecordSizing.MAX_RECORD_SIZE, 2 * this.recordSize);
+        }
+    }
+}
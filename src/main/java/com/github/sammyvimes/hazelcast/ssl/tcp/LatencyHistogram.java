@@ -0,0 +1,89 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.internal.metrics.ProbeLevel;
+import com.hazelcast.internal.util.counters.MwCounter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Lock-free latency histogram with power of two buckets from 128us up to ~67s, plus an overflow bucket.
+ * Registered as {@code <prefix>.count}, {@code .totalMicros}, {@code .maxMicros}, {@code .p50Micros},
+ * {@code .p99Micros} and one {@code .le<bound>us} counter per bucket.
+ */
+final class LatencyHistogram {
+    private static final int MIN_BUCKET_SHIFT = 7;
+    private static final int BUCKETS = 21;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final MwCounter count = newMwCounter();
+    private final MwCounter totalMicros = newMwCounter();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    void recordNanos(final long nanos) {
+        this.record(Math.max(0, nanos / 1000));
+    }
+
+    void record(final long micros) {
+        this.buckets.incrementAndGet(bucket(micros));
+        this.count.inc();
+        this.totalMicros.inc(micros);
+
+        long max = this.maxMicros.get();
+        while (micros > max && !this.maxMicros.compareAndSet(max, micros)) {
+            max = this.maxMicros.get();
+        }
+    }
+
+    long count() {
+        return this.count.get();
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, {@code maxMicros} for the overflow bucket.
+     */
+    long percentile(final double percentile) {
+        final long total = this.count.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = (long) Math.ceil(total * percentile / 100d);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += this.buckets.get(i);
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return this.maxMicros.get();
+    }
+
+    void register(final MetricsRegistry registry, final String prefix) {
+        registry.register(this, prefix + ".count", ProbeLevel.INFO, LatencyHistogram::count);
+        registry.register(this, prefix + ".totalMicros", ProbeLevel.INFO, (LatencyHistogram histogram) -> histogram.totalMicros.get());
+        registry.register(this, prefix + ".maxMicros", ProbeLevel.INFO, (LatencyHistogram histogram) -> histogram.maxMicros.get());
+        registry.register(this, prefix + ".p50Micros", ProbeLevel.INFO, (LatencyHistogram histogram) -> histogram.percentile(50));
+        registry.register(this, prefix + ".p99Micros", ProbeLevel.INFO, (LatencyHistogram histogram) -> histogram.percentile(99));
+        for (int i = 0; i < BUCKETS; i++) {
+            final int bucket = i;
+            final String name = i < BUCKETS - 1 ? "le" + upperBound(i) + "us" : "leInf";
+            registry.register(this, prefix + "." + name, ProbeLevel.DEBUG, (LatencyHistogram histogram) -> histogram.buckets.get(bucket));
+        }
+    }
+
+    static int bucket(final long micros) {
+        if (micros <= 1L << MIN_BUCKET_SHIFT) {
+            return 0;
+        }
+        final int bucket = Long.SIZE - Long.numberOfLeadingZeros(micros - 1) - MIN_BUCKET_SHIFT;
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    static long upperBound(final int bucket) {
+        return 1L << (MIN_BUCKET_SHIFT + bucket);
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.logging.Logger;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import java.util.zip.DataFormatException;
+
+/**
+ * The lz4-java parts of {@link CompressionCodec#LZ4}, kept in their own class so the other codecs work without
+ * {@code org.lz4:lz4-java} on the classpath.
+ */
+final class Lz4Codec {
+    private static final LZ4Factory FACTORY = loadFactory();
+
+    private Lz4Codec() {
+    }
+
+    /**
+     * @return the fastest available LZ4 implementation, or {@code null} if lz4-java is not on the classpath
+     */
+    private static LZ4Factory loadFactory() {
+        try {
+            return LZ4Factory.fastestInstance();
+        } catch (final LinkageError error) {
+            Logger.getLogger(Lz4Codec.class).warning("lz4-java is not available, WAN compression falls back to deflate", error);
+        }
+        return null;
+    }
+
+    static boolean isAvailable() {
+        return FACTORY != null;
+    }
+
+    static CompressionCodec.Compressor newCompressor() {
+        final LZ4Compressor compressor = FACTORY.fastCompressor();
+        return (in, length, out, offset) -> compressor.compress(in, 0, length, out, offset, WanCompression.MAX_COMPRESSED_SIZE);
+    }
+
+    static CompressionCodec.Decompressor newDecompressor() {
+        final LZ4SafeDecompressor decompressor = FACTORY.safeDecompressor();
+        return (in, length, out, plainLength) -> {
+            final int decompressed;
+            try {
+                decompressed = decompressor.decompress(in, 0, length, out, 0, plainLength);
+            } catch (final LZ4Exception exception) {
+                throw (DataFormatException) new DataFormatException("Malformed LZ4 frame").initCause(exception);
+            }
+            if (decompressed != plainLength) {
+                throw new DataFormatException("LZ4 frame decompressed to " + decompressed + " bytes instead of " + plainLength);
+            }
+        };
+    }
+}
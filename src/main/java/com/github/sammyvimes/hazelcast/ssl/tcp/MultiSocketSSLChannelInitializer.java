@@ -4,15 +4,14 @@ import com.hazelcast.config.EndpointConfig;
 import com.hazelcast.internal.networking.Channel;
 import com.hazelcast.nio.IOService;
 import com.hazelcast.nio.IOUtil;
-
-import java.util.concurrent.Executor;
+import com.hazelcast.spi.TaskScheduler;
 
 public abstract class MultiSocketSSLChannelInitializer extends SSLChannelInitializer {
     protected final EndpointConfig config;
     protected final IOService ioService;
 
-    public MultiSocketSSLChannelInitializer(final EndpointConfig endpointConfig, final Executor sslExecutor, final IOService ioService) {
-        super(endpointConfig.getSSLConfig(), sslExecutor);
+    public MultiSocketSSLChannelInitializer(final EndpointConfig endpointConfig, final SSLEngineFactoryCache engineFactories, final SSLHandshakeExecutor sslExecutor, final SSLBufferPool bufferPool, final TaskScheduler scheduler, final IOService ioService) {
+        super(endpointConfig.getSSLConfig(), engineFactories, sslExecutor, bufferPool, scheduler);
         this.config = endpointConfig;
         this.ioService = ioService;
     }
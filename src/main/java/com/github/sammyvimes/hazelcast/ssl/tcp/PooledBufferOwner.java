@@ -0,0 +1,17 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+/**
+ * A handler that leases buffers from the {@link SSLBufferPool}.
+ */
+interface PooledBufferOwner {
+
+    /**
+     * @return the last time the pooled buffers were used, or {@code -1} if nothing is leased.
+     */
+    long lastUsedMillis();
+
+    /**
+     * Schedules the owner on its IO thread so it can give idle buffers back.
+     */
+    void wakeup();
+}
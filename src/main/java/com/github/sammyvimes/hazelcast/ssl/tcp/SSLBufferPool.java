@@ -0,0 +1,172 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.util.Clock;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
+import static com.hazelcast.internal.metrics.ProbeUnit.PERCENT;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Pool of the src/dst/app buffers used by {@link SSLInboundHandler} and {@link SSLOutboundHandler}.
+ * <p>
+ * Buffers are kept in size classes of {@link #SIZE_CLASS_GRANULARITY} bytes, separately for heap and
+ * direct buffers, and the total amount of pooled memory is bounded by {@code maxPooledBytes}. Handlers
+ * register themselves as {@link PooledBufferOwner}s; {@link #releaseIdleBuffers()} wakes up the owners
+ * that did not use their buffers for {@code idleReleaseMillis} so they can return them from their own
+ * IO thread.
+ */
+public class SSLBufferPool {
+    static final int SIZE_CLASS_GRANULARITY = 4 * 1024;
+
+    private final ConcurrentMap<Integer, Queue<ByteBuffer>> heapBuffers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Queue<ByteBuffer>> directBuffers = new ConcurrentHashMap<>();
+    private final Set<PooledBufferOwner> owners = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final long maxPooledBytes;
+    private final long idleReleaseMillis;
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong pooledBuffers = new AtomicLong();
+
+    @Probe(name = "hits")
+    private final MwCounter hits = newMwCounter();
+    @Probe(name = "misses")
+    private final MwCounter misses = newMwCounter();
+    @Probe(name = "releases")
+    private final MwCounter releases = newMwCounter();
+    @Probe(name = "discards")
+    private final MwCounter discards = newMwCounter();
+    @Probe(name = "idleReleases")
+    private final MwCounter idleReleases = newMwCounter();
+
+    public SSLBufferPool(final long maxPooledBytes, final long idleReleaseMillis) {
+        this.maxPooledBytes = maxPooledBytes;
+        this.idleReleaseMillis = idleReleaseMillis;
+    }
+
+    /**
+     * Returns a cleared buffer with a capacity of at least {@code size} bytes.
+     */
+    public ByteBuffer acquire(final int size, final boolean direct) {
+        final int sizeClass = sizeClass(size);
+        final Queue<ByteBuffer> queue = this.buffers(direct).get(sizeClass);
+        final ByteBuffer buffer = queue == null ? null : queue.poll();
+        if (buffer == null) {
+            this.misses.inc();
+            return IOUtil.newByteBuffer(sizeClass, direct);
+        }
+
+        this.hits.inc();
+        this.pooledBytes.addAndGet(-buffer.capacity());
+        this.pooledBuffers.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Hands a buffer back to the pool. The caller must not touch the buffer afterwards.
+     */
+    public void release(final ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() == 0) {
+            return;
+        }
+
+        final int capacity = buffer.capacity();
+        if (capacity % SIZE_CLASS_GRANULARITY != 0) {
+            this.discards.inc();
+            return;
+        }
+
+        if (this.pooledBytes.addAndGet(capacity) > this.maxPooledBytes) {
+            this.pooledBytes.addAndGet(-capacity);
+            this.discards.inc();
+            return;
+        }
+
+        this.releases.inc();
+        this.pooledBuffers.incrementAndGet();
+        this.queue(this.buffers(buffer.isDirect()), capacity).offer(buffer);
+    }
+
+    void track(final PooledBufferOwner owner) {
+        this.owners.add(owner);
+    }
+
+    void untrack(final PooledBufferOwner owner) {
+        this.owners.remove(owner);
+    }
+
+    boolean isIdle(final long lastUsedMillis) {
+        return this.idleReleaseMillis > 0
+                && lastUsedMillis >= 0
+                && Clock.currentTimeMillis() - lastUsedMillis >= this.idleReleaseMillis;
+    }
+
+    /**
+     * Wakes up every owner whose buffers have been idle for longer than the idle release period.
+     */
+    public void releaseIdleBuffers() {
+        for (final PooledBufferOwner owner : this.owners) {
+            if (this.isIdle(owner.lastUsedMillis())) {
+                this.idleReleases.inc();
+                owner.wakeup();
+            }
+        }
+    }
+
+    public long getIdleReleaseMillis() {
+        return this.idleReleaseMillis;
+    }
+
+    @Probe(name = "pooledBytes", unit = BYTES)
+    public long pooledBytes() {
+        return this.pooledBytes.get();
+    }
+
+    @Probe(name = "pooledBuffers")
+    public long pooledBuffers() {
+        return this.pooledBuffers.get();
+    }
+
+    @Probe(name = "owners")
+    int ownerCount() {
+        return this.owners.size();
+    }
+
+    @Probe(name = "hitPercentage", unit = PERCENT)
+    public double hitPercentage() {
+        final long hitCount = this.hits.get();
+        final long total = hitCount + this.misses.get();
+        return total == 0 ? 0 : 100d * hitCount / total;
+    }
+
+    private ConcurrentMap<Integer, Queue<ByteBuffer>> buffers(final boolean direct) {
+        return direct ? this.directBuffers : this.heapBuffers;
+    }
+
+    private Queue<ByteBuffer> queue(final ConcurrentMap<Integer, Queue<ByteBuffer>> buffers, final int sizeClass) {
+        Queue<ByteBuffer> queue = buffers.get(sizeClass);
+        if (queue == null) {
+            final Queue<ByteBuffer> newQueue = new ConcurrentLinkedQueue<>();
+            queue = buffers.putIfAbsent(sizeClass, newQueue);
+            if (queue == null) {
+                queue = newQueue;
+            }
+        }
+        return queue;
+    }
+
+    static int sizeClass(final int size) {
+        return (size + SIZE_CLASS_GRANULARITY - 1) / SIZE_CLASS_GRANULARITY * SIZE_CLASS_GRANULARITY;
+    }
+}
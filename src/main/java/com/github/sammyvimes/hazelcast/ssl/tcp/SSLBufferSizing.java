@@ -0,0 +1,81 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.hazelcast.config.ConfigurationException;
+
+import java.util.Properties;
+
+/**
+ * Bounds for the per-connection {@link AdaptiveBufferSizer}, read from the {@code SSLConfig} properties:
+ * <ul>
+ * <li>{@code adaptiveBufferSizing} - {@code true} (default) to size src/dst buffers by load,
+ * {@code false} for the fixed {@code max(socket buffer, packet size)} buffers</li>
+ * <li>{@code minBufferSize} - lower bound in bytes, never below the TLS packet size (default)</li>
+ * <li>{@code maxBufferSize} - upper bound in bytes, defaults to the socket buffer size</li>
+ * <li>{@code bufferGrowThreshold} - consecutive full buffers before doubling (default 3)</li>
+ * <li>{@code bufferShrinkThreshold} - consecutive reads/writes using at most a quarter of the buffer
+ * before halving (default 64)</li>
+ * </ul>
+ */
+public final class SSLBufferSizing {
+    static final SSLBufferSizing FIXED = new SSLBufferSizing(false, 0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    private static final int DEFAULT_GROW_THRESHOLD = 3;
+    private static final int DEFAULT_SHRINK_THRESHOLD = 64;
+
+    private final boolean enabled;
+    private final int minSize;
+    private final int maxSize;
+    private final int growThreshold;
+    private final int shrinkThreshold;
+
+    SSLBufferSizing(final boolean enabled, final int minSize, final int maxSize, final int growThreshold, final int shrinkThreshold) {
+        this.enabled = enabled;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.growThreshold = growThreshold;
+        this.shrinkThreshold = shrinkThreshold;
+    }
+
+    static SSLBufferSizing fromProperties(final Properties properties) {
+        final String enabled = SSLContextFactoryImpl.getProperty(properties, SSLContextFactoryImpl.Props.ADAPTIVE_BUFFER_SIZING);
+        if (enabled != null && !Boolean.parseBoolean(enabled)) {
+            return FIXED;
+        }
+
+        final int minSize = getInt(properties, SSLContextFactoryImpl.Props.MIN_BUFFER_SIZE, 0);
+        final int maxSize = getInt(properties, SSLContextFactoryImpl.Props.MAX_BUFFER_SIZE, 0);
+        if (maxSize > 0 && maxSize < minSize) {
+            throw new ConfigurationException(SSLContextFactoryImpl.Props.MAX_BUFFER_SIZE + " (" + maxSize + ") is smaller than "
+                    + SSLContextFactoryImpl.Props.MIN_BUFFER_SIZE + " (" + minSize + ")");
+        }
+
+        return new SSLBufferSizing(true, minSize, maxSize,
+                getInt(properties, SSLContextFactoryImpl.Props.BUFFER_GROW_THRESHOLD, DEFAULT_GROW_THRESHOLD),
+                getInt(properties, SSLContextFactoryImpl.Props.BUFFER_SHRINK_THRESHOLD, DEFAULT_SHRINK_THRESHOLD));
+    }
+
+    public static int getInt(final Properties properties, final String property, final int defaultValue) {
+        final String value = SSLContextFactoryImpl.getProperty(properties, property);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (final NumberFormatException exception) {
+            throw new ConfigurationException("Invalid value '" + value + "' for SSL property " + property);
+        }
+    }
+
+    AdaptiveBufferSizer newSizer(final int packetBufferSize, final int socketBufferSize) {
+        final int defaultSize = Math.max(socketBufferSize, packetBufferSize);
+        if (!this.enabled) {
+            return new AdaptiveBufferSizer(defaultSize, defaultSize, this.growThreshold, this.shrinkThreshold);
+        }
+
+        final int min = Math.max(packetBufferSize, this.minSize);
+        final int max = Math.max(min, this.maxSize > 0 ? this.maxSize : defaultSize);
+        return new AdaptiveBufferSizer(min, max, this.growThreshold, this.shrinkThreshold);
+    }
+}
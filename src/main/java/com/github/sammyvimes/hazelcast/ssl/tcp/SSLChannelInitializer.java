@@ -1,77 +1,167 @@
 package com.github.sammyvimes.hazelcast.ssl.tcp;
 
+import com.github.sammyvimes.hazelcast.ssl.PeerCertificateCache;
 import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
-import com.hazelcast.config.ConfigurationException;
 import com.hazelcast.config.SSLConfig;
-import com.hazelcast.core.HazelcastException;
 import com.hazelcast.internal.networking.Channel;
 import com.hazelcast.internal.networking.ChannelInitializer;
-import com.hazelcast.nio.ssl.BasicSSLContextFactory;
-import com.hazelcast.nio.ssl.SSLContextFactory;
+import com.hazelcast.internal.networking.nio.NioPipeline;
+import com.hazelcast.internal.networking.nio.NioThread;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.spi.TaskScheduler;
 
 import javax.net.ssl.SSLEngine;
-import java.io.IOException;
-import java.security.NoSuchAlgorithmException;
-import java.util.concurrent.Executor;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
 
 public abstract class SSLChannelInitializer implements ChannelInitializer {
-    private final SSLConfig sslConfig;
+    // a handshake holds its engine and buffers until it finishes, slow or stalled peers must not hold them forever
+    private static final int DEFAULT_HANDSHAKE_TIMEOUT_MILLIS = 30000;
+
+    private final ILogger logger = Logger.getLogger(SSLChannelInitializer.class);
     private final SSLEngineFactory sslEngineFactory;
     private final String mutualAuthentication;
     private final SSLExecutor sslExecutor;
+    private final SSLBufferPool bufferPool;
+    private final SSLBufferSizing bufferSizing;
+    private final SSLRecordCoalescing recordCoalescing;
+    private final SSLRecordSizing recordSizing;
+    private final TaskScheduler scheduler;
+    private final int handshakeTimeoutMillis;
+    private final SSLSessionStats sessionStats = new SSLSessionStats();
+    private final SSLHandshakeMetrics handshakeMetrics = new SSLHandshakeMetrics();
+    private final SSLTrafficMetrics trafficMetrics = new SSLTrafficMetrics();
 
-    public SSLChannelInitializer(final SSLConfig sslConfig, final Executor sslExecutor) {
-        this.sslConfig = sslConfig;
-        this.sslEngineFactory = this.loadSSLEngineFactory();
-        this.sslExecutor = new SSLExecutor(sslExecutor);
+    public SSLChannelInitializer(final SSLConfig sslConfig, final SSLEngineFactoryCache engineFactories, final SSLHandshakeExecutor sslExecutor,
+                                 final SSLBufferPool bufferPool, final TaskScheduler scheduler) {
+        this.sslEngineFactory = engineFactories.get(sslConfig, this.forClient());
+        this.sslExecutor = new SSLExecutor(sslExecutor, this.handshakePriority(), SSLTaskInlining.fromProperties(sslConfig.getProperties()));
+        this.bufferPool = bufferPool;
+        this.bufferSizing = SSLBufferSizing.fromProperties(sslConfig.getProperties());
+        this.recordCoalescing = SSLRecordCoalescing.fromProperties(sslConfig.getProperties(), scheduler);
+        this.recordSizing = SSLRecordSizing.fromProperties(sslConfig.getProperties());
+        this.scheduler = scheduler;
+        this.handshakeTimeoutMillis = SSLBufferSizing.getInt(sslConfig.getProperties(),
+                SSLContextFactoryImpl.Props.HANDSHAKE_TIMEOUT_MILLIS, DEFAULT_HANDSHAKE_TIMEOUT_MILLIS);
         this.mutualAuthentication = SSLContextFactoryImpl.getProperty(sslConfig.getProperties(), SSLContextFactoryImpl.Props.MUTUAL_AUTHENTICATION);
     }
 
-    private SSLEngineFactory loadSSLEngineFactory() {
-        Object implementation = this.sslConfig.getFactoryImplementation();
-
-        try {
-            final String factoryClassName = this.sslConfig.getFactoryClassName();
-            if (implementation == null && factoryClassName != null) {
-                implementation = Class.forName(factoryClassName).newInstance();
-            }
-
-            if (implementation == null) {
-                implementation = new BasicSSLContextFactory();
-            }
-
-            if (implementation instanceof SSLContextFactory) {
-                implementation = new SSLEngineFactoryAdaptor((SSLContextFactory) implementation);
-            }
+    protected abstract boolean forClient();
 
-            final SSLEngineFactory sslEngineFactory = (SSLEngineFactory) implementation;
-            sslEngineFactory.init(this.sslConfig.getProperties(), this.forClient());
-            return sslEngineFactory;
-        } catch (final HazelcastException exception) {
-            throw exception;
-        } catch (final NoSuchAlgorithmException | IOException exception) {
-            throw new ConfigurationException("Error while loading SSL engine for: " + this.getClass().getSimpleName(), exception);
-        } catch (final Exception exception) {
-            throw new HazelcastException(exception);
-        }
+    /**
+     * Priority of the handshake tasks of incoming connections, see {@link SSLHandshakeExecutor}.
+     */
+    protected int handshakePriority() {
+        return SSLHandshakeExecutor.CLIENT_PRIORITY;
     }
 
-    protected abstract boolean forClient();
-
     @Override
     public final void initChannel(final Channel channel) throws Exception {
         this.configChannel(channel);
-        final SSLEngine sslEngine = this.sslEngineFactory.create(channel.isClientMode());
+        final SSLEngine sslEngine = this.sslEngineFactory.create(channel.isClientMode(), peerAddress(channel));
         if ("REQUIRED".equals(this.mutualAuthentication)) {
             sslEngine.setNeedClientAuth(true);
         } else if ("OPTIONAL".equals(this.mutualAuthentication)) {
             sslEngine.setWantClientAuth(true);
         }
 
+        final SSLHandshakeTracker handshakeTracker = new SSLHandshakeTracker(this.handshakeMetrics, this.sessionStats);
+        final SSLConnectionCounters counters = this.trafficMetrics.onConnectionOpened(channel);
         sslEngine.beginHandshake();
-        channel.inboundPipeline().addLast(new SSLInboundHandler(sslEngine, this.sslExecutor));
+        final SSLInboundHandler inboundHandler = new SSLInboundHandler(sslEngine, this.sslExecutor, this.bufferPool, this.bufferSizing,
+                handshakeTracker, counters);
+        final SSLOutboundHandler outboundHandler = new SSLOutboundHandler(sslEngine, this.sslExecutor, this.bufferPool, this.bufferSizing,
+                handshakeTracker, counters, this.recordCoalescing, this.recordSizing);
+        final SSLPlaintextFallback plaintextFallback = this.plaintextFallback();
+        if (!channel.isClientMode() && plaintextFallback.isEnabled()) {
+            channel.inboundPipeline().addLast(new SSLSniffingInboundHandler(plaintextFallback, inboundHandler, () -> {
+                handshakeTracker.onPlaintext();
+                this.bufferPool.untrack(inboundHandler);
+                this.bufferPool.untrack(outboundHandler);
+                outboundHandler.bypass();
+            }));
+        }
+        channel.inboundPipeline().addLast(inboundHandler);
         this.initPipeline(channel);
-        channel.outboundPipeline().addLast(new SSLOutboundHandler(sslEngine, this.sslExecutor));
+        channel.outboundPipeline().addLast(outboundHandler);
+
+        this.bufferPool.track(inboundHandler);
+        this.bufferPool.track(outboundHandler);
+        channel.addCloseListener(closedChannel -> {
+            this.sslExecutor.onHandshakeFinished(closedChannel);
+            handshakeTracker.onClosed();
+            this.trafficMetrics.onConnectionClosed(counters);
+            this.bufferPool.untrack(inboundHandler);
+            this.bufferPool.untrack(outboundHandler);
+            // close listeners don't run on the IO threads, which may still be inside onRead/onWrite
+            runOnOwner(closedChannel.inboundPipeline(), inboundHandler::releaseBuffers);
+            runOnOwner(closedChannel.outboundPipeline(), outboundHandler::releaseBuffers);
+        });
+        this.scheduleHandshakeDeadline(channel, handshakeTracker);
+    }
+
+    /**
+     * Runs {@code task} on the IO thread that owns {@code pipeline}, following it if the pipeline migrates in the
+     * meantime. Pipelines that aren't driven by an IO thread run it right away.
+     */
+    static void runOnOwner(final Object pipeline, final Runnable task) {
+        final NioThread owner = pipeline instanceof NioPipeline ? ((NioPipeline) pipeline).owner() : null;
+        if (owner == null || owner == Thread.currentThread()) {
+            task.run();
+        } else {
+            owner.addTaskAndWakeup(() -> runOnOwner(pipeline, task));
+        }
+    }
+
+    /**
+     * Plaintext protocols accepted on incoming connections next to TLS, none by default.
+     */
+    protected SSLPlaintextFallback plaintextFallback() {
+        return SSLPlaintextFallback.DISABLED;
+    }
+
+    /**
+     * Closes {@code channel} if its handshake is still running after {@code handshakeTimeoutMillis}, 0 disables the deadline.
+     */
+    private void scheduleHandshakeDeadline(final Channel channel, final SSLHandshakeTracker handshakeTracker) {
+        if (this.handshakeTimeoutMillis <= 0) {
+            return;
+        }
+
+        handshakeTracker.setDeadline(this.scheduler.schedule(() -> {
+            if (handshakeTracker.onDeadlineExpired()) {
+                this.logger.warning("TLS handshake did not finish within " + this.handshakeTimeoutMillis + " ms, closing " + channel);
+                IOUtil.closeResource(channel);
+            }
+        }, this.handshakeTimeoutMillis, TimeUnit.MILLISECONDS));
+    }
+
+    public SSLSessionStats getSessionStats() {
+        return this.sessionStats;
+    }
+
+    public SSLHandshakeMetrics getHandshakeMetrics() {
+        return this.handshakeMetrics;
+    }
+
+    public SSLTrafficMetrics getTrafficMetrics() {
+        return this.trafficMetrics;
+    }
+
+    /**
+     * @return the cache of validated peer certificate chains, shared by all initializers of the same TLS configuration;
+     * {@code null} if it is disabled
+     */
+    public PeerCertificateCache getPeerCertificateCache() {
+        return this.sslEngineFactory.peerCertificateCache();
+    }
+
+    private static InetSocketAddress peerAddress(final Channel channel) {
+        final SocketAddress address = channel.remoteSocketAddress();
+        return address instanceof InetSocketAddress ? (InetSocketAddress) address : null;
     }
 
     protected abstract void initPipeline(Channel channel);
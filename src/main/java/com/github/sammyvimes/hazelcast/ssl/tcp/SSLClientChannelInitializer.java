@@ -8,12 +8,11 @@ import com.hazelcast.internal.networking.Channel;
 import com.hazelcast.nio.IOService;
 import com.hazelcast.nio.tcp.SingleProtocolDecoder;
 import com.hazelcast.nio.tcp.TcpIpConnection;
-
-import java.util.concurrent.Executor;
+import com.hazelcast.spi.TaskScheduler;
 
 public class SSLClientChannelInitializer extends MultiSocketSSLChannelInitializer {
-    public SSLClientChannelInitializer(final EndpointConfig endpointConfig, final Executor tlsExecutor, final IOService ioService) {
-        super(endpointConfig, tlsExecutor, ioService);
+    public SSLClientChannelInitializer(final EndpointConfig endpointConfig, final SSLEngineFactoryCache engineFactories, final SSLHandshakeExecutor tlsExecutor, final SSLBufferPool bufferPool, final TaskScheduler scheduler, final IOService ioService) {
+        super(endpointConfig, engineFactories, tlsExecutor, bufferPool, scheduler, ioService);
     }
 
     protected void initPipeline(final Channel channel) {
@@ -0,0 +1,55 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.client.config.SocketOptions;
+import com.hazelcast.client.connection.nio.ClientConnection;
+import com.hazelcast.client.connection.nio.ClientProtocolEncoder;
+import com.hazelcast.client.impl.protocol.util.ClientMessageDecoder;
+import com.hazelcast.client.impl.protocol.util.ClientMessageEncoder;
+import com.hazelcast.config.SSLConfig;
+import com.hazelcast.internal.networking.Channel;
+import com.hazelcast.internal.networking.ChannelOption;
+import com.hazelcast.spi.TaskScheduler;
+
+/**
+ * The {@code HazelcastClient} half of the client protocol over TLS, the counterpart of the member side
+ * {@link SSLClientChannelInitializer}. Sets up the channel like the client's own plaintext initializer and puts
+ * client mode TLS handlers underneath.
+ */
+public class SSLClientSideChannelInitializer extends SSLChannelInitializer {
+    private final SocketOptions socketOptions;
+    private final boolean directBuffer;
+
+    public SSLClientSideChannelInitializer(final SSLConfig sslConfig, final SSLEngineFactoryCache engineFactories, final SSLHandshakeExecutor sslExecutor,
+                                           final SSLBufferPool bufferPool, final TaskScheduler scheduler,
+                                           final SocketOptions socketOptions, final boolean directBuffer) {
+        super(sslConfig, engineFactories, sslExecutor, bufferPool, scheduler);
+        this.socketOptions = socketOptions;
+        this.directBuffer = directBuffer;
+    }
+
+    @Override
+    protected boolean forClient() {
+        return true;
+    }
+
+    @Override
+    protected void initPipeline(final Channel channel) {
+        final ClientConnection connection = (ClientConnection) channel.attributeMap().get(ClientConnection.class);
+        channel.inboundPipeline().addLast(new ClientMessageDecoder(connection, connection::handleClientMessage));
+        channel.outboundPipeline().addLast(new ClientMessageEncoder());
+        channel.outboundPipeline().addLast(new ClientProtocolEncoder());
+    }
+
+    @Override
+    protected void configChannel(final Channel channel) {
+        channel.options()
+                .setOption(ChannelOption.SO_SNDBUF, this.socketOptions.getBufferSize() * 1024)
+                .setOption(ChannelOption.SO_RCVBUF, this.socketOptions.getBufferSize() * 1024)
+                .setOption(ChannelOption.SO_REUSEADDR, this.socketOptions.isReuseAddress())
+                .setOption(ChannelOption.SO_KEEPALIVE, this.socketOptions.isKeepAlive())
+                .setOption(ChannelOption.SO_LINGER, this.socketOptions.getLingerSeconds())
+                .setOption(ChannelOption.SO_TIMEOUT, 0)
+                .setOption(ChannelOption.TCP_NODELAY, this.socketOptions.isTcpNoDelay())
+                .setOption(ChannelOption.DIRECT_BUF, this.directBuffer);
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.SwCounter;
+
+import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+
+/**
+ * Data plane counters of a single TLS connection. The inbound counters are only written by the
+ * inbound IO thread and the outbound ones by the outbound IO thread.
+ */
+final class SSLConnectionCounters {
+    @Probe(name = "plaintextBytesIn", unit = BYTES)
+    final SwCounter plaintextBytesIn = newSwCounter();
+    @Probe(name = "ciphertextBytesIn", unit = BYTES)
+    final SwCounter ciphertextBytesIn = newSwCounter();
+    @Probe(name = "recordsUnwrapped")
+    final SwCounter recordsUnwrapped = newSwCounter();
+    @Probe(name = "recordsUnwrappedIntoDst")
+    final SwCounter recordsUnwrappedIntoDst = newSwCounter();
+    @Probe(name = "inboundBufferOverflows")
+    final SwCounter inboundBufferOverflows = newSwCounter();
+    @Probe(name = "inboundBufferUnderflows")
+    final SwCounter inboundBufferUnderflows = newSwCounter();
+    @Probe(name = "inboundDirty")
+    final SwCounter inboundDirty = newSwCounter();
+    @Probe(name = "postHandshakeUnwraps")
+    final SwCounter postHandshakeUnwraps = newSwCounter();
+
+    @Probe(name = "plaintextBytesOut", unit = BYTES)
+    final SwCounter plaintextBytesOut = newSwCounter();
+    @Probe(name = "ciphertextBytesOut", unit = BYTES)
+    final SwCounter ciphertextBytesOut = newSwCounter();
+    @Probe(name = "recordsWrapped")
+    final SwCounter recordsWrapped = newSwCounter();
+    @Probe(name = "outboundBufferOverflows")
+    final SwCounter outboundBufferOverflows = newSwCounter();
+    @Probe(name = "outboundDirty")
+    final SwCounter outboundDirty = newSwCounter();
+    @Probe(name = "outboundDeferred")
+    final SwCounter outboundDeferred = newSwCounter();
+    @Probe(name = "postHandshakeWraps")
+    final SwCounter postHandshakeWraps = newSwCounter();
+    @Probe(name = "recordsLe1024")
+    final SwCounter recordsLe1024 = newSwCounter();
+    @Probe(name = "recordsLe2048")
+    final SwCounter recordsLe2048 = newSwCounter();
+    @Probe(name = "recordsLe4096")
+    final SwCounter recordsLe4096 = newSwCounter();
+    @Probe(name = "recordsLe8192")
+    final SwCounter recordsLe8192 = newSwCounter();
+    @Probe(name = "recordsLe16384")
+    final SwCounter recordsLe16384 = newSwCounter();
+    @Probe(name = "recordSizeResets")
+    final SwCounter recordSizeResets = newSwCounter();
+
+    /**
+     * Counts an outbound record by the plaintext it holds.
+     */
+    void onRecordWrapped(final int plaintextBytes) {
+        if (plaintextBytes <= 1024) {
+            this.recordsLe1024.inc();
+        } else if (plaintextBytes <= 2048) {
+            this.recordsLe2048.inc();
+        } else if (plaintextBytes <= 4096) {
+            this.recordsLe4096.inc();
+        } else if (plaintextBytes <= 8192) {
+            this.recordsLe8192.inc();
+        } else {
+            this.recordsLe16384.inc();
+        }
+    }
+
+    void addTo(final SSLConnectionCounters totals) {
+        totals.plaintextBytesIn.inc(this.plaintextBytesIn.get());
+        totals.ciphertextBytesIn.inc(this.ciphertextBytesIn.get());
+        totals.recordsUnwrapped.inc(this.recordsUnwrapped.get());
+        totals.recordsUnwrappedIntoDst.inc(this.recordsUnwrappedIntoDst.get());
+        totals.inboundBufferOverflows.inc(this.inboundBufferOverflows.get());
+        totals.inboundBufferUnderflows.inc(this.inboundBufferUnderflows.get());
+        totals.inboundDirty.inc(this.inboundDirty.get());
+        totals.postHandshakeUnwraps.inc(this.postHandshakeUnwraps.get());
+        totals.plaintextBytesOut.inc(this.plaintextBytesOut.get());
+        totals.ciphertextBytesOut.inc(this.ciphertextBytesOut.get());
+        totals.recordsWrapped.inc(this.recordsWrapped.get());
+        totals.outboundBufferOverflows.inc(this.outboundBufferOverflows.get());
+        totals.outboundDirty.inc(this.outboundDirty.get());
+        totals.outboundDeferred.inc(this.outboundDeferred.get());
+        totals.postHandshakeWraps.inc(this.postHandshakeWraps.get());
+        totals.recordsLe1024.inc(this.recordsLe1024.get());
+        totals.recordsLe2048.inc(this.recordsLe2048.get());
+        totals.recordsLe4096.inc(this.recordsLe4096.get());
+        totals.recordsLe8192.inc(this.recordsLe8192.get());
+        totals.recordsLe16384.inc(this.recordsLe16384.get());
+        totals.recordSizeResets.inc(this.recordSizeResets.get());
+    }
+}
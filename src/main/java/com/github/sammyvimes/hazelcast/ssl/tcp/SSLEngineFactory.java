@@ -1,10 +1,38 @@
 package com.github.sammyvimes.hazelcast.ssl.tcp;
 
+import com.github.sammyvimes.hazelcast.ssl.PeerCertificateCache;
+
 import javax.net.ssl.SSLEngine;
+import java.net.InetSocketAddress;
 import java.util.Properties;
 
 public interface SSLEngineFactory {
     void init(Properties properties, boolean forClient) throws Exception;
 
     SSLEngine create(boolean clientMode);
+
+    /**
+     * Creates an engine for a connection to {@code peerAddress}. JSSE only resumes client sessions for
+     * engines created with the peer host and port, so factories should override this when they can.
+     */
+    default SSLEngine create(final boolean clientMode, final InetSocketAddress peerAddress) {
+        return this.create(clientMode);
+    }
+
+    /**
+     * Reloads the key material for engines created from now on.
+     *
+     * @param force {@code false} to only reload when the key material changed
+     * @return {@code true} if it was reloaded
+     */
+    default boolean reload(final boolean force) throws Exception {
+        return false;
+    }
+
+    /**
+     * @return the cache of validated peer certificate chains of the engines, {@code null} if there is none
+     */
+    default PeerCertificateCache peerCertificateCache() {
+        return null;
+    }
 }
@@ -1,5 +1,7 @@
 package com.github.sammyvimes.hazelcast.ssl.tcp;
 
+import com.github.sammyvimes.hazelcast.ssl.PeerCertificateCache;
+import com.github.sammyvimes.hazelcast.ssl.ReloadableSSLContextFactory;
 import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
 import com.hazelcast.config.ConfigurationException;
 import com.hazelcast.internal.util.JavaVersion;
@@ -10,6 +12,9 @@ import com.hazelcast.util.StringUtil;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSessionContext;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -17,48 +22,130 @@ import java.util.Properties;
 
 public class SSLEngineFactoryAdaptor implements SSLEngineFactory {
     private static final Object LOCK = new Object();
+    private static final int DEFAULT_CALIBRATION_MILLIS = 100;
     private final ILogger logger = Logger.getLogger(SSLEngineFactoryAdaptor.class);
     private final SSLContextFactory sslContextFactory;
-    private volatile String[] cipherSuites;
-    private volatile String protocol;
+    private Properties properties;
+    // the context of the factory, published only once its session cache is configured
+    private volatile SSLContext sslContext;
+    // built once in init and never modified, setSSLParameters copies them into each engine
+    private volatile SSLParameters clientParameters;
+    private volatile SSLParameters serverParameters;
 
     public SSLEngineFactoryAdaptor(final SSLContextFactory sslContextFactory) {
         this.sslContextFactory = sslContextFactory;
     }
 
     public SSLEngine create(final boolean clientMode) {
-        final SSLEngine sslEngine = this.createSSLEngine();
+        return this.create(clientMode, null);
+    }
+
+    @Override
+    public SSLEngine create(final boolean clientMode, final InetSocketAddress peerAddress) {
+        final SSLEngine sslEngine = peerAddress == null
+                ? this.createSSLEngine()
+                : this.createSSLEngine(peerAddress.getHostString(), peerAddress.getPort());
         sslEngine.setUseClientMode(clientMode);
         sslEngine.setEnableSessionCreation(true);
-        if (this.cipherSuites != null) {
-            sslEngine.setEnabledCipherSuites(this.cipherSuites);
-        }
-
-        if (this.protocol != null) {
-            final String[] enabledProtocols = this.findEnabledProtocols(this.protocol, sslEngine.getSupportedProtocols());
-            if (enabledProtocols.length > 0) {
-                sslEngine.setEnabledProtocols(enabledProtocols);
-            } else {
-                this.logger.warning("Enabling SSL protocol failed. Check if configured value contains a supported value" + Arrays.toString(sslEngine.getSupportedProtocols()));
-            }
-        }
-
+        sslEngine.setSSLParameters(clientMode ? this.clientParameters : this.serverParameters);
         return sslEngine;
     }
 
     public void init(final Properties properties, final boolean forClient) throws Exception {
+        this.properties = properties;
         this.sslContextFactory.init(properties);
+        this.sslContext = this.configureSessionCache(properties, this.sslContextFactory.getSSLContext());
+        final SSLEngine sslEngine = this.createSSLEngine();
+        String[] cipherSuites = null;
         final String[] configuredCipherSuites = StringUtil.splitByComma(SSLContextFactoryImpl.getProperty(properties, SSLContextFactoryImpl.Props.CIPHERSUITES), false);
         if (configuredCipherSuites != null) {
-            final SSLEngine sslEngine = this.createSSLEngine();
             final String[] supportedCipherSuites = sslEngine.getSupportedCipherSuites();
-            this.cipherSuites = StringUtil.intersection(configuredCipherSuites, supportedCipherSuites);
-            if (this.cipherSuites.length < 1) {
+            cipherSuites = StringUtil.intersection(configuredCipherSuites, supportedCipherSuites);
+            if (cipherSuites.length < 1) {
                 throw new ConfigurationException("No configured SSL cipher suite name is valid. Check if configured values " + Arrays.toString(configuredCipherSuites) + " contain supported values: " + Arrays.toString(supportedCipherSuites));
             }
         }
 
-        this.protocol = SSLContextFactoryImpl.getProperty(properties, SSLContextFactoryImpl.Props.PROTOCOL);
+        String[] protocols = null;
+        final String protocol = SSLContextFactoryImpl.getProperty(properties, SSLContextFactoryImpl.Props.PROTOCOL);
+        if (protocol != null) {
+            protocols = this.findEnabledProtocols(protocol, sslEngine.getSupportedProtocols());
+            if (protocols.length == 0) {
+                this.logger.warning("Enabling SSL protocol failed. Check if configured value contains a supported value" + Arrays.toString(sslEngine.getSupportedProtocols()));
+                protocols = null;
+            }
+        }
+
+        sslEngine.setUseClientMode(false);
+        boolean useCipherSuitesOrder = sslEngine.getSSLParameters().getUseCipherSuitesOrder();
+        if ("auto".equalsIgnoreCase(SSLContextFactoryImpl.getProperty(properties, SSLContextFactoryImpl.Props.CIPHERSUITE_ORDER))) {
+            cipherSuites = this.calibrateCipherSuites(properties, cipherSuites != null ? cipherSuites : sslEngine.getEnabledCipherSuites(), protocols);
+            // make servers pick by the calibrated order instead of the client's
+            useCipherSuitesOrder = true;
+        }
+
+        this.clientParameters = newSSLParameters(cipherSuites, protocols, false);
+        this.serverParameters = newSSLParameters(cipherSuites, protocols, useCipherSuitesOrder);
+    }
+
+    /**
+     * Only sets what is configured; a fresh {@link SSLParameters} leaves everything else, e.g. the SNI host name
+     * of client engines, as the provider initialized it.
+     */
+    private static SSLParameters newSSLParameters(final String[] cipherSuites, final String[] protocols, final boolean useCipherSuitesOrder) {
+        final SSLParameters sslParameters = new SSLParameters();
+        sslParameters.setCipherSuites(cipherSuites);
+        sslParameters.setProtocols(protocols);
+        sslParameters.setUseCipherSuitesOrder(useCipherSuitesOrder);
+        return sslParameters;
+    }
+
+    /**
+     * Orders the enabled cipher suites by measured throughput.
+     */
+    private String[] calibrateCipherSuites(final Properties properties, final String[] cipherSuites, final String[] protocols) {
+        final int millisPerCipher = SSLBufferSizing.getInt(properties, SSLContextFactoryImpl.Props.CIPHERSUITE_CALIBRATION_MILLIS,
+                DEFAULT_CALIBRATION_MILLIS);
+        return new CipherSuiteCalibration(this.sslContext, protocols, millisPerCipher).order(cipherSuites);
+    }
+
+    /**
+     * Engines created after a reload use the new context, whose session cache is empty: every resumable session
+     * of the old context is dropped, and each peer handshakes in full once more.
+     */
+    @Override
+    public synchronized boolean reload(final boolean force) throws Exception {
+        if (!(this.sslContextFactory instanceof ReloadableSSLContextFactory)
+                || !((ReloadableSSLContextFactory) this.sslContextFactory).reload(force)) {
+            return false;
+        }
+
+        this.sslContext = this.configureSessionCache(this.properties, this.sslContextFactory.getSSLContext());
+        return true;
+    }
+
+    @Override
+    public PeerCertificateCache peerCertificateCache() {
+        return this.sslContextFactory instanceof SSLContextFactoryImpl
+                ? ((SSLContextFactoryImpl) this.sslContextFactory).getPeerCertificateCache()
+                : null;
+    }
+
+    private SSLContext configureSessionCache(final Properties properties, final SSLContext sslContext) {
+        final int cacheSize = SSLBufferSizing.getInt(properties, SSLContextFactoryImpl.Props.SESSION_CACHE_SIZE, -1);
+        final int timeoutSeconds = SSLBufferSizing.getInt(properties, SSLContextFactoryImpl.Props.SESSION_TIMEOUT_SECONDS, -1);
+        for (final SSLSessionContext sessionContext : new SSLSessionContext[]{sslContext.getClientSessionContext(), sslContext.getServerSessionContext()}) {
+            if (sessionContext == null) {
+                continue;
+            }
+            if (cacheSize >= 0) {
+                sessionContext.setSessionCacheSize(cacheSize);
+            }
+            if (timeoutSeconds >= 0) {
+                sessionContext.setSessionTimeout(timeoutSeconds);
+            }
+        }
+        return sslContext;
     }
 
     private String[] findEnabledProtocols(final String configuredName, final String[] supportedProtocols) {
@@ -76,7 +163,7 @@ public class SSLEngineFactoryAdaptor implements SSLEngineFactory {
     }
 
     private SSLEngine createSSLEngine() {
-        final SSLContext sslContext = this.sslContextFactory.getSSLContext();
+        final SSLContext sslContext = this.sslContext;
         if (JavaVersion.isAtMost(JavaVersion.JAVA_1_6)) {
             synchronized (LOCK) {
                 return sslContext.createSSLEngine();
@@ -85,4 +172,15 @@ public class SSLEngineFactoryAdaptor implements SSLEngineFactory {
             return sslContext.createSSLEngine();
         }
     }
+
+    private SSLEngine createSSLEngine(final String peerHost, final int peerPort) {
+        final SSLContext sslContext = this.sslContext;
+        if (JavaVersion.isAtMost(JavaVersion.JAVA_1_6)) {
+            synchronized (LOCK) {
+                return sslContext.createSSLEngine(peerHost, peerPort);
+            }
+        } else {
+            return sslContext.createSSLEngine(peerHost, peerPort);
+        }
+    }
 }
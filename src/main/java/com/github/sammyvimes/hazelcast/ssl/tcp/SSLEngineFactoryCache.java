@@ -0,0 +1,165 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.config.ConfigurationException;
+import com.hazelcast.config.SSLConfig;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.nio.ssl.BasicSSLContextFactory;
+import com.hazelcast.nio.ssl.SSLContextFactory;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads one {@link SSLEngineFactory} per distinct {@link SSLConfig}, so endpoints with equal TLS settings
+ * load the keystore once and share one {@code SSLContext}, and with it the session cache. Reloading and
+ * warming up also run once per distinct factory.
+ */
+public class SSLEngineFactoryCache {
+    private static final int WARM_UP_RECORD_SIZE = 16 * 1024;
+
+    private final ILogger logger = Logger.getLogger(SSLEngineFactoryCache.class);
+    private final ConcurrentMap<Key, SSLEngineFactory> factories = new ConcurrentHashMap<>();
+
+    public SSLEngineFactory get(final SSLConfig sslConfig, final boolean forClient) {
+        return this.factories.computeIfAbsent(new Key(sslConfig, forClient), key -> load(sslConfig, forClient));
+    }
+
+    /**
+     * Loads the factories of {@code sslConfigs} up front, distinct ones in parallel on {@code executor}.
+     */
+    public void preload(final Collection<SSLConfig> sslConfigs, final boolean forClient, final Executor executor) {
+        final List<CompletableFuture<?>> loads = new ArrayList<>();
+        for (final SSLConfig sslConfig : new LinkedHashSet<>(sslConfigs)) {
+            loads.add(CompletableFuture.runAsync(() -> this.get(sslConfig, forClient), executor));
+        }
+
+        for (final CompletableFuture<?> load : loads) {
+            try {
+                load.join();
+            } catch (final CompletionException exception) {
+                if (exception.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) exception.getCause();
+                }
+                throw new HazelcastException(exception.getCause());
+            }
+        }
+    }
+
+    public int size() {
+        return this.factories.size();
+    }
+
+    /**
+     * Reloads the keystore and truststore for new connections, established ones keep their sessions.
+     * A failed reload is logged and the current key material stays in use.
+     *
+     * @param force {@code false} to only reload factories whose key material files changed
+     * @return the number of factories that were reloaded
+     */
+    public int reload(final boolean force) {
+        int reloaded = 0;
+        for (final SSLEngineFactory factory : this.factories.values()) {
+            try {
+                if (factory.reload(force)) {
+                    reloaded++;
+                }
+            } catch (final Exception exception) {
+                this.logger.warning("Failed to reload TLS key material, keeping the current one", exception);
+            }
+        }
+        return reloaded;
+    }
+
+    /**
+     * Runs {@code handshakes} in-memory handshakes, each followed by {@code records} full-size records, through
+     * engines of every factory, so the JIT has compiled the crypto before the first real connection arrives.
+     * A factory whose key material can't complete a handshake, e.g. without a keystore, is skipped with a log message.
+     */
+    public void warmUp(final int handshakes, final int records) {
+        final ByteBuffer plaintext = ByteBuffer.allocate(WARM_UP_RECORD_SIZE);
+        for (final SSLEngineFactory factory : this.factories.values()) {
+            try {
+                for (int i = 0; i < handshakes; i++) {
+                    final SSLEngineLoopback loopback = new SSLEngineLoopback(factory.create(true), factory.create(false));
+                    loopback.handshake();
+                    for (int j = 0; j < records; j++) {
+                        plaintext.clear();
+                        loopback.transfer(plaintext);
+                    }
+                }
+            } catch (final SSLException | RuntimeException exception) {
+                this.logger.info("TLS warm-up stopped: " + exception);
+            }
+        }
+    }
+
+    private static SSLEngineFactory load(final SSLConfig sslConfig, final boolean forClient) {
+        Object implementation = sslConfig.getFactoryImplementation();
+
+        try {
+            final String factoryClassName = sslConfig.getFactoryClassName();
+            if (implementation == null && factoryClassName != null) {
+                implementation = Class.forName(factoryClassName).newInstance();
+            }
+
+            if (implementation == null) {
+                implementation = new BasicSSLContextFactory();
+            }
+
+            if (implementation instanceof SSLContextFactory) {
+                implementation = new SSLEngineFactoryAdaptor((SSLContextFactory) implementation);
+            }
+
+            final SSLEngineFactory sslEngineFactory = (SSLEngineFactory) implementation;
+            sslEngineFactory.init(sslConfig.getProperties(), forClient);
+            return sslEngineFactory;
+        } catch (final HazelcastException exception) {
+            throw exception;
+        } catch (final NoSuchAlgorithmException | IOException exception) {
+            throw new ConfigurationException("Error while loading SSL engine factory", exception);
+        } catch (final Exception exception) {
+            throw new HazelcastException(exception);
+        }
+    }
+
+    private static final class Key {
+        // a copy, later changes to the endpoint's config must not change the key
+        final SSLConfig sslConfig;
+        final boolean forClient;
+
+        Key(final SSLConfig sslConfig, final boolean forClient) {
+            this.sslConfig = new SSLConfig(sslConfig);
+            this.forClient = forClient;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return this.forClient == key.forClient && this.sslConfig.equals(key.sslConfig);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.sslConfig.hashCode() + (this.forClient ? 1 : 0);
+        }
+    }
+}
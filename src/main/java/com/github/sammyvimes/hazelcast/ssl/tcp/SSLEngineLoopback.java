@@ -0,0 +1,82 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import java.nio.ByteBuffer;
+
+/**
+ * Drives a client and a server {@link SSLEngine} against each other in memory, running delegated tasks
+ * on the calling thread. Used to measure and warm up the crypto of a node without any socket.
+ */
+final class SSLEngineLoopback {
+    private static final int NETWORK_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HANDSHAKE_ROUNDS = 100;
+
+    private final SSLEngine client;
+    private final SSLEngine server;
+    private final ByteBuffer clientToServer = ByteBuffer.allocate(NETWORK_BUFFER_SIZE);
+    private final ByteBuffer serverToClient = ByteBuffer.allocate(NETWORK_BUFFER_SIZE);
+    private final ByteBuffer received = ByteBuffer.allocate(NETWORK_BUFFER_SIZE);
+    private final ByteBuffer empty = ByteBuffer.allocate(0);
+
+    SSLEngineLoopback(final SSLEngine client, final SSLEngine server) {
+        this.client = client;
+        this.server = server;
+    }
+
+    void handshake() throws SSLException {
+        this.client.beginHandshake();
+        this.server.beginHandshake();
+        for (int round = 0; round < MAX_HANDSHAKE_ROUNDS; round++) {
+            if (isFinished(this.client) && isFinished(this.server)) {
+                return;
+            }
+            this.step(this.client, this.serverToClient, this.clientToServer);
+            this.step(this.server, this.clientToServer, this.serverToClient);
+        }
+        throw new SSLException("Loopback handshake did not finish in " + MAX_HANDSHAKE_ROUNDS + " rounds");
+    }
+
+    /**
+     * Encrypts at most one record of {@code plaintext} on the client and decrypts it on the server.
+     *
+     * @return the number of plaintext bytes that arrived
+     */
+    int transfer(final ByteBuffer plaintext) throws SSLException {
+        this.clientToServer.clear();
+        checkOk(this.client.wrap(plaintext, this.clientToServer));
+        this.clientToServer.flip();
+        this.received.clear();
+        checkOk(this.server.unwrap(this.clientToServer, this.received));
+        return this.received.position();
+    }
+
+    private void step(final SSLEngine sslEngine, final ByteBuffer in, final ByteBuffer out) throws SSLException {
+        runDelegatedTasks(sslEngine);
+        sslEngine.wrap(this.empty, out);
+        runDelegatedTasks(sslEngine);
+        in.flip();
+        sslEngine.unwrap(in, this.received);
+        in.compact();
+        this.received.clear();
+    }
+
+    private static boolean isFinished(final SSLEngine sslEngine) {
+        return sslEngine.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING;
+    }
+
+    private static void runDelegatedTasks(final SSLEngine sslEngine) {
+        Runnable task;
+        while ((task = sslEngine.getDelegatedTask()) != null) {
+            task.run();
+        }
+    }
+
+    private static void checkOk(final SSLEngineResult result) throws SSLException {
+        if (result.getStatus() != SSLEngineResult.Status.OK) {
+            throw new SSLException("Unexpected " + result);
+        }
+    }
+}
@@ -3,67 +3,161 @@ package com.github.sammyvimes.hazelcast.ssl.tcp;
 import com.hazelcast.internal.networking.Channel;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.Logger;
+import com.hazelcast.nio.IOUtil;
 import com.hazelcast.util.Preconditions;
 
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLEngineResult.HandshakeStatus;
-import java.util.LinkedList;
+import javax.net.ssl.SSLHandshakeException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 class SSLExecutor {
-    private final Executor executor;
+    private final SSLHandshakeExecutor executor;
+    private final int priority;
+    private final SSLTaskInlining inlining;
 
-    SSLExecutor(final Executor executor) {
+    SSLExecutor(final SSLHandshakeExecutor executor, final int priority, final SSLTaskInlining inlining) {
         this.executor = Preconditions.checkNotNull(executor, "executor can't be null");
+        this.priority = priority;
+        this.inlining = Preconditions.checkNotNull(inlining, "inlining can't be null");
     }
 
-    void executeHandshakeTasks(final SSLEngine sslEngine, final Channel channel) {
-        final List<Runnable> tasks = this.collectTasks(sslEngine);
-        final AtomicInteger remaining = new AtomicInteger(tasks.size());
-
-        for (final Runnable task : tasks) {
-            this.executor.execute(new HandshakeTask(task, remaining, sslEngine, channel));
+    /**
+     * Runs the delegated tasks of {@code sslEngine}, the cheap ones inline, see {@link SSLTaskInlining}.
+     *
+     * @return {@code true} if all tasks ran inline and the caller can carry on with the handshake, {@code false} if
+     * they were handed to the handshake pool or the other pipeline took them; whoever runs them wakes the pipeline
+     * up once they are done
+     * @throws SSLHandshakeException if a task ran inline and failed
+     */
+    boolean executeHandshakeTasks(final SSLEngine sslEngine, final Channel channel, final SSLHandshakeTracker tracker)
+            throws SSLHandshakeException {
+        Runnable task = sslEngine.getDelegatedTask();
+        if (task == null) {
+            // the engine reports NEED_TASK until the tasks the other pipeline took are done
+            tracker.onTasksTakenElsewhere();
+            // they may have finished before the other pipeline could see this one waiting
+            return sslEngine.getHandshakeStatus() != HandshakeStatus.NEED_TASK;
         }
 
+        final boolean clientMode = channel.isClientMode();
+        final int step = tracker.nextTaskStep();
+        do {
+            if (!this.inlining.shouldInline(clientMode, step)) {
+                this.executor.execute(channel, this.priority(channel), this.newHandshakeTasks(task, sslEngine, channel, tracker, false, step),
+                        tracker);
+                return false;
+            }
+
+            final long startNanos = System.nanoTime();
+            try {
+                task.run();
+            } catch (final Exception exception) {
+                // the caller reports the handshake as failed and closes the channel
+                throw newTaskFailure(exception);
+            } finally {
+                final long runNanos = System.nanoTime() - startNanos;
+                this.inlining.onExecuted(clientMode, step, runNanos);
+                tracker.onTaskInlined(runNanos);
+            }
+        } while ((task = sslEngine.getDelegatedTask()) != null);
+
+        wakeupTaskWaiter(channel, tracker);
+        return true;
+    }
+
+    private static void wakeupTaskWaiter(final Channel channel, final SSLHandshakeTracker tracker) {
+        if (tracker.takeTaskWaiter()) {
+            // which pipeline is waiting isn't known, a spurious wakeup of the other one is harmless
+            channel.outboundPipeline().wakeup();
+            channel.inboundPipeline().wakeup();
+        }
     }
 
-    void execute(final Runnable task) {
-        this.executor.execute(task);
+    /**
+     * Runs the tasks of a handshake message that arrived after the initial handshake, e.g. a TLS 1.2
+     * renegotiation. The connection is established already, so the tasks skip the admission limit.
+     */
+    void executePostHandshakeTasks(final SSLEngine sslEngine, final Channel channel, final SSLHandshakeTracker tracker) {
+        final List<Runnable> tasks = this.newHandshakeTasks(sslEngine.getDelegatedTask(), sslEngine, channel, tracker, true, 0);
+        if (tasks.isEmpty()) {
+            // the other pipeline took them, it wakes both up once they are done
+            return;
+        }
+        this.executor.submit(channel, this.priority(channel), tasks, tracker);
     }
 
-    private List<Runnable> collectTasks(final SSLEngine sslEngine) {
-        final List<Runnable> tasks = new LinkedList<>();
+    private int priority(final Channel channel) {
+        // outgoing connections are always opened by members
+        return channel.isClientMode() ? SSLHandshakeExecutor.MEMBER_PRIORITY : this.priority;
+    }
 
-        Runnable task;
-        while ((task = sslEngine.getDelegatedTask()) != null) {
+    private List<Runnable> newHandshakeTasks(final Runnable first, final SSLEngine sslEngine, final Channel channel,
+                                             final SSLHandshakeTracker tracker, final boolean postHandshake, final int step) {
+        final List<Runnable> tasks = new ArrayList<>(1);
+        for (Runnable task = first; task != null; task = sslEngine.getDelegatedTask()) {
             tasks.add(task);
         }
 
+        final AtomicInteger remaining = new AtomicInteger(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.set(i, new HandshakeTask(tasks.get(i), remaining, sslEngine, channel, tracker, postHandshake,
+                    postHandshake ? null : this.inlining, step));
+        }
         return tasks;
     }
 
+    private static SSLHandshakeException newTaskFailure(final Exception cause) {
+        final SSLHandshakeException exception = new SSLHandshakeException("Delegated handshake task failed: " + cause);
+        exception.initCause(cause);
+        return exception;
+    }
+
+    void onHandshakeFinished(final Channel channel) {
+        this.executor.release(channel);
+    }
+
     private static class HandshakeTask implements Runnable {
         private final Runnable task;
         private final AtomicInteger remaining;
         private final SSLEngine sslEngine;
         private final Channel channel;
-
-        HandshakeTask(final Runnable task, final AtomicInteger remaining, final SSLEngine sslEngine, final Channel channel) {
+        private final SSLHandshakeTracker tracker;
+        private final boolean postHandshake;
+        private final SSLTaskInlining inlining;
+        private final int step;
+        private final long createdNanos = System.nanoTime();
+
+        HandshakeTask(final Runnable task, final AtomicInteger remaining, final SSLEngine sslEngine, final Channel channel,
+                      final SSLHandshakeTracker tracker, final boolean postHandshake, final SSLTaskInlining inlining,
+                      final int step) {
             this.task = task;
             this.remaining = remaining;
             this.sslEngine = sslEngine;
             this.channel = channel;
+            this.tracker = tracker;
+            this.postHandshake = postHandshake;
+            this.inlining = inlining;
+            this.step = step;
         }
 
         public void run() {
+            final long startNanos = System.nanoTime();
             try {
                 this.task.run();
             } catch (final Exception exception) {
                 final ILogger logger = Logger.getLogger(SSLExecutor.HandshakeTask.class);
                 logger.warning("Failed to execute handshake task for " + this.channel, exception);
+                this.tracker.onFailed(newTaskFailure(exception));
+                IOUtil.closeResource(this.channel);
             } finally {
+                final long runNanos = System.nanoTime() - startNanos;
+                if (this.inlining != null) {
+                    this.inlining.onExecuted(this.channel.isClientMode(), this.step, runNanos);
+                }
+                this.tracker.onTaskExecuted(startNanos - this.createdNanos, runNanos);
                 this.onTaskCompletion();
             }
 
@@ -71,7 +165,12 @@ class SSLExecutor {
 
         private void onTaskCompletion() {
             if (this.remaining.decrementAndGet() == 0) {
-                if (this.sslEngine.getHandshakeStatus() == HandshakeStatus.NEED_WRAP) {
+                wakeupTaskWaiter(this.channel, this.tracker);
+                if (this.postHandshake) {
+                    // the outbound handler may have been blocked as well, holding plaintext back
+                    this.channel.outboundPipeline().wakeup();
+                    this.channel.inboundPipeline().wakeup();
+                } else if (this.sslEngine.getHandshakeStatus() == HandshakeStatus.NEED_WRAP) {
                     this.channel.outboundPipeline().wakeup();
                 } else {
                     this.channel.inboundPipeline().wakeup();
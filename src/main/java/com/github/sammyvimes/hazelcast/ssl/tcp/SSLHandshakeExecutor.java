@@ -0,0 +1,254 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.networking.Channel;
+import com.hazelcast.internal.util.counters.MwCounter;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.util.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Runs the delegated handshake tasks of all TLS channels of a node.
+ * <p>
+ * At most {@code maxConcurrentHandshakes} channels (0 for no limit) are admitted at a time; the tasks of
+ * other channels wait until an admitted handshake finishes or its channel is closed. At most
+ * {@code maxWaitingHandshakes} channels can wait, channels beyond that are closed. At most
+ * {@code maxQueuedTasks} tasks (0 for no limit) can wait for a thread, the handshake of a channel whose tasks
+ * don't fit fails and the channel is closed. Both the admission queue and the task queue are ordered by priority,
+ * so member handshakes are served before client ones.
+ */
+public class SSLHandshakeExecutor {
+    public static final int MEMBER_PRIORITY = 0;
+    public static final int CLIENT_PRIORITY = 1;
+
+    private final ILogger logger = Logger.getLogger(SSLHandshakeExecutor.class);
+    private final Executor executor;
+    private final int maxConcurrentHandshakes;
+    private final int maxWaitingHandshakes;
+    private final int maxQueuedTasks;
+    private final AtomicInteger reservedTasks = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final PriorityBlockingQueue<PrioritizedTask> tasks = new PriorityBlockingQueue<>();
+    private final Set<Channel> admitted = new HashSet<>();
+    private final Queue<WaitingHandshake> waiting = new PriorityQueue<>();
+
+    @Probe(name = "rejectedHandshakes")
+    private final MwCounter rejected = newMwCounter();
+    @Probe(name = "completedTasks")
+    private final MwCounter completedTasks = newMwCounter();
+
+    public SSLHandshakeExecutor(final Executor executor, final int maxConcurrentHandshakes, final int maxWaitingHandshakes,
+                                final int maxQueuedTasks) {
+        this.executor = Preconditions.checkNotNull(executor, "executor can't be null");
+        this.maxConcurrentHandshakes = maxConcurrentHandshakes;
+        this.maxWaitingHandshakes = maxWaitingHandshakes;
+        this.maxQueuedTasks = maxQueuedTasks;
+    }
+
+    /**
+     * @return a queue for the pool behind this executor; it never holds more entries than there are queued tasks
+     */
+    public static BlockingQueue<Runnable> newPoolQueue(final int maxQueuedTasks) {
+        return new LinkedBlockingQueue<>(maxQueuedTasks > 0 ? maxQueuedTasks : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Runs {@code handshakeTasks} of {@code channel} as soon as the channel is admitted.
+     */
+    void execute(final Channel channel, final int priority, final Collection<Runnable> handshakeTasks,
+                 final SSLHandshakeTracker tracker) {
+        synchronized (this.admitted) {
+            if (this.admit(channel)) {
+                this.submit(channel, priority, handshakeTasks, tracker);
+                return;
+            }
+
+            if (this.waiting.size() < this.maxWaitingHandshakes) {
+                this.waiting.add(new WaitingHandshake(channel, priority, this.sequence.incrementAndGet(), handshakeTasks, tracker));
+                return;
+            }
+        }
+
+        this.reject(channel, tracker, "Too many TLS handshakes waiting");
+    }
+
+    /**
+     * Frees the admission slot of {@code channel} once its handshake is over; safe to call more than once.
+     */
+    void release(final Channel channel) {
+        final List<WaitingHandshake> admittedNow = new ArrayList<>();
+        synchronized (this.admitted) {
+            if (!this.admitted.remove(channel)) {
+                this.waiting.removeIf(handshake -> handshake.channel == channel);
+                return;
+            }
+
+            WaitingHandshake next;
+            while (!this.isFull() && (next = this.waiting.poll()) != null) {
+                this.admitted.add(next.channel);
+                admittedNow.add(next);
+            }
+            // also let in any queued batch of a channel that is already admitted
+            final Iterator<WaitingHandshake> iterator = this.waiting.iterator();
+            while (iterator.hasNext()) {
+                final WaitingHandshake handshake = iterator.next();
+                if (this.admitted.contains(handshake.channel)) {
+                    iterator.remove();
+                    admittedNow.add(handshake);
+                }
+            }
+        }
+
+        for (final WaitingHandshake handshake : admittedNow) {
+            this.submit(handshake.channel, handshake.priority, handshake.tasks, handshake.tracker);
+        }
+    }
+
+    private boolean admit(final Channel channel) {
+        if (this.admitted.contains(channel)) {
+            return true;
+        }
+        if (this.isFull()) {
+            return false;
+        }
+        this.admitted.add(channel);
+        return true;
+    }
+
+    private boolean isFull() {
+        return this.maxConcurrentHandshakes > 0 && this.admitted.size() >= this.maxConcurrentHandshakes;
+    }
+
+    /**
+     * Runs {@code handshakeTasks} without admission, for channels whose handshake is over already.
+     */
+    void submit(final Channel channel, final int priority, final Collection<Runnable> handshakeTasks,
+                final SSLHandshakeTracker tracker) {
+        if (!this.reserve(handshakeTasks.size())) {
+            this.reject(channel, tracker, "Too many TLS handshake tasks queued");
+            return;
+        }
+        for (final Runnable task : handshakeTasks) {
+            this.tasks.add(new PrioritizedTask(task, priority, this.sequence.incrementAndGet()));
+            // every submission runs exactly one task, the most urgent one at the time it gets a thread
+            this.executor.execute(this::runNext);
+        }
+    }
+
+    /**
+     * Takes queue slots for all tasks of a batch at once, so that a batch is either queued as a whole or not at all.
+     */
+    private boolean reserve(final int count) {
+        if (this.maxQueuedTasks <= 0) {
+            return true;
+        }
+        while (true) {
+            final int reserved = this.reservedTasks.get();
+            if (reserved + count > this.maxQueuedTasks) {
+                return false;
+            }
+            if (this.reservedTasks.compareAndSet(reserved, reserved + count)) {
+                return true;
+            }
+        }
+    }
+
+    private void reject(final Channel channel, final SSLHandshakeTracker tracker, final String reason) {
+        this.rejected.inc();
+        this.logger.warning(reason + ", closing " + channel);
+        tracker.onRejected();
+        IOUtil.closeResource(channel);
+    }
+
+    private void runNext() {
+        final PrioritizedTask task = this.tasks.poll();
+        if (task != null) {
+            if (this.maxQueuedTasks > 0) {
+                this.reservedTasks.decrementAndGet();
+            }
+            try {
+                task.task.run();
+            } finally {
+                this.completedTasks.inc();
+            }
+        }
+    }
+
+    @Probe(name = "queuedTasks")
+    private int queuedTasks() {
+        return this.tasks.size();
+    }
+
+    @Probe(name = "admittedHandshakes")
+    private int admittedHandshakes() {
+        synchronized (this.admitted) {
+            return this.admitted.size();
+        }
+    }
+
+    @Probe(name = "waitingHandshakes")
+    private int waitingHandshakes() {
+        synchronized (this.admitted) {
+            return this.waiting.size();
+        }
+    }
+
+    private abstract static class Prioritized<T extends Prioritized<T>> implements Comparable<T> {
+        final int priority;
+        final long sequence;
+
+        Prioritized(final int priority, final long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(final T other) {
+            if (this.priority != other.priority) {
+                return Integer.compare(this.priority, other.priority);
+            }
+            return Long.compare(this.sequence, other.sequence);
+        }
+    }
+
+    private static final class PrioritizedTask extends Prioritized<PrioritizedTask> {
+        final Runnable task;
+
+        PrioritizedTask(final Runnable task, final int priority, final long sequence) {
+            super(priority, sequence);
+            this.task = task;
+        }
+    }
+
+    private static final class WaitingHandshake extends Prioritized<WaitingHandshake> {
+        final Channel channel;
+        final Collection<Runnable> tasks;
+        final SSLHandshakeTracker tracker;
+
+        WaitingHandshake(final Channel channel, final int priority, final long sequence, final Collection<Runnable> tasks,
+                         final SSLHandshakeTracker tracker) {
+            super(priority, sequence);
+            this.channel = channel;
+            this.tasks = tasks;
+            this.tracker = tracker;
+        }
+    }
+}
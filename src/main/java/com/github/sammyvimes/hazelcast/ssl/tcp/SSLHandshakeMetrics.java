@@ -0,0 +1,147 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+
+import javax.net.ssl.SSLHandshakeException;
+import java.security.cert.CertificateException;
+
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Handshake latencies and outcomes of the channels created by one {@link SSLChannelInitializer}:
+ * total handshake time, time spent in delegated tasks, inline or offloaded, and time the offloaded ones waited for a thread,
+ * started and in-flight handshakes, successful handshakes and failures by cause, and connections that turned out to be
+ * plaintext on an endpoint that accepts both.
+ */
+public class SSLHandshakeMetrics {
+    private final LatencyHistogram handshakeTime = new LatencyHistogram();
+    private final LatencyHistogram taskTime = new LatencyHistogram();
+    private final LatencyHistogram taskQueueWait = new LatencyHistogram();
+
+    @Probe(name = "started")
+    private final MwCounter started = newMwCounter();
+    @Probe(name = "succeeded")
+    private final MwCounter succeeded = newMwCounter();
+    @Probe(name = "certificateFailures")
+    private final MwCounter certificateFailures = newMwCounter();
+    @Probe(name = "protocolFailures")
+    private final MwCounter protocolFailures = newMwCounter();
+    @Probe(name = "closedBeforeCompletion")
+    private final MwCounter closedBeforeCompletion = newMwCounter();
+    @Probe(name = "evicted")
+    private final MwCounter evicted = newMwCounter();
+    @Probe(name = "rejected")
+    private final MwCounter rejected = newMwCounter();
+    @Probe(name = "plaintextConnections")
+    private final MwCounter plaintextConnections = newMwCounter();
+    @Probe(name = "inlinedTasks")
+    private final MwCounter inlinedTasks = newMwCounter();
+    @Probe(name = "offloadedTasks")
+    private final MwCounter offloadedTasks = newMwCounter();
+
+    public void register(final MetricsRegistry registry, final String prefix) {
+        registry.scanAndRegister(this, prefix);
+        this.handshakeTime.register(registry, prefix + ".time");
+        this.taskTime.register(registry, prefix + ".taskTime");
+        this.taskQueueWait.register(registry, prefix + ".taskQueueWait");
+    }
+
+    void onStarted() {
+        this.started.inc();
+    }
+
+    void onSucceeded(final long handshakeNanos) {
+        this.succeeded.inc();
+        this.handshakeTime.recordNanos(handshakeNanos);
+    }
+
+    void onFailed(final Throwable cause) {
+        if (isCertificateFailure(cause)) {
+            this.certificateFailures.inc();
+        } else {
+            this.protocolFailures.inc();
+        }
+    }
+
+    void onClosed() {
+        this.closedBeforeCompletion.inc();
+    }
+
+    void onEvicted() {
+        this.evicted.inc();
+    }
+
+    void onRejected() {
+        this.rejected.inc();
+    }
+
+    void onPlaintext() {
+        this.plaintextConnections.inc();
+    }
+
+    void onTaskExecuted(final long queueWaitNanos, final long runNanos) {
+        this.offloadedTasks.inc();
+        this.taskQueueWait.recordNanos(queueWaitNanos);
+        this.taskTime.recordNanos(runNanos);
+    }
+
+    void onTaskInlined(final long runNanos) {
+        this.inlinedTasks.inc();
+        this.taskTime.recordNanos(runNanos);
+    }
+
+    public long inlinedTasks() {
+        return this.inlinedTasks.get();
+    }
+
+    public long offloadedTasks() {
+        return this.offloadedTasks.get();
+    }
+
+    public long plaintextConnections() {
+        return this.plaintextConnections.get();
+    }
+
+    public long succeeded() {
+        return this.succeeded.get();
+    }
+
+    @Probe(name = "failed")
+    public long failed() {
+        return this.certificateFailures.get() + this.protocolFailures.get() + this.closedBeforeCompletion.get() + this.evicted.get()
+                + this.rejected.get();
+    }
+
+    /**
+     * Handshakes closed because they did not finish before the endpoint's {@code handshakeTimeoutMillis}.
+     */
+    public long evicted() {
+        return this.evicted.get();
+    }
+
+    /**
+     * Handshakes failed because the handshake executor had no room for their tasks.
+     */
+    public long rejected() {
+        return this.rejected.get();
+    }
+
+    @Probe(name = "inFlight")
+    public long inFlight() {
+        // read the outcomes first, so a handshake finishing concurrently is never counted as negative
+        final long completed = this.succeeded.get() + this.plaintextConnections.get() + this.failed();
+        return Math.max(0, this.started.get() - completed);
+    }
+
+    private static boolean isCertificateFailure(final Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CertificateException) {
+                return true;
+            }
+        }
+        // JSSE reports some certificate problems as plain alerts
+        return failure instanceof SSLHandshakeException && String.valueOf(failure.getMessage()).contains("certificate");
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.util.Clock;
+
+import javax.net.ssl.SSLSession;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Follows the handshake of a single channel and reports its outcome exactly once.
+ */
+final class SSLHandshakeTracker {
+    private final SSLHandshakeMetrics metrics;
+    private final SSLSessionStats sessionStats;
+    private final long startMillis = Clock.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private volatile ScheduledFuture<?> deadline;
+    // both pipelines can see NEED_TASK at once, only the one that takes the tasks counts the step
+    private final AtomicInteger taskSteps = new AtomicInteger();
+    // set by a pipeline that saw NEED_TASK after the other one took the tasks
+    private final AtomicBoolean taskWaiter = new AtomicBoolean();
+
+    SSLHandshakeTracker(final SSLHandshakeMetrics metrics, final SSLSessionStats sessionStats) {
+        this.metrics = metrics;
+        this.sessionStats = sessionStats;
+        metrics.onStarted();
+    }
+
+    /**
+     * @param deadline the eviction task of this handshake, cancelled once the outcome is known
+     */
+    void setDeadline(final ScheduledFuture<?> deadline) {
+        this.deadline = deadline;
+        if (this.completed.get()) {
+            deadline.cancel(false);
+        }
+    }
+
+    void onFinished(final SSLSession session) {
+        if (this.completed.compareAndSet(false, true)) {
+            this.sessionStats.onHandshakeFinished(session, this.startMillis);
+            this.metrics.onSucceeded(System.nanoTime() - this.startNanos);
+            this.cancelDeadline();
+        }
+    }
+
+    void onFailed(final Throwable cause) {
+        if (this.completed.compareAndSet(false, true)) {
+            this.metrics.onFailed(cause);
+            this.cancelDeadline();
+        }
+    }
+
+    void onClosed() {
+        if (this.completed.compareAndSet(false, true)) {
+            this.metrics.onClosed();
+            this.cancelDeadline();
+        }
+    }
+
+    /**
+     * The handshake executor had no room for the tasks of this handshake.
+     */
+    void onRejected() {
+        if (this.completed.compareAndSet(false, true)) {
+            this.metrics.onRejected();
+            this.cancelDeadline();
+        }
+    }
+
+    /**
+     * The peer spoke plaintext, the channel continues without TLS.
+     */
+    void onPlaintext() {
+        if (this.completed.compareAndSet(false, true)) {
+            this.metrics.onPlaintext();
+            this.cancelDeadline();
+        }
+    }
+
+    /**
+     * @return {@code true} if the handshake was still running and is now counted as evicted
+     */
+    boolean onDeadlineExpired() {
+        if (this.completed.compareAndSet(false, true)) {
+            this.metrics.onEvicted();
+            return true;
+        }
+        return false;
+    }
+
+    private void cancelDeadline() {
+        final ScheduledFuture<?> deadline = this.deadline;
+        if (deadline != null) {
+            deadline.cancel(false);
+        }
+    }
+
+    void onTaskExecuted(final long queueWaitNanos, final long runNanos) {
+        this.metrics.onTaskExecuted(queueWaitNanos, runNanos);
+    }
+
+    void onTaskInlined(final long runNanos) {
+        this.metrics.onTaskInlined(runNanos);
+    }
+
+    /**
+     * @return the number of earlier batches of delegated tasks of this handshake
+     */
+    int nextTaskStep() {
+        return this.taskSteps.getAndIncrement();
+    }
+
+    /**
+     * A pipeline is waiting for delegated tasks that the other pipeline took.
+     */
+    void onTasksTakenElsewhere() {
+        this.taskWaiter.set(true);
+    }
+
+    /**
+     * @return {@code true} if a pipeline was waiting for the tasks that just finished, it has to be woken up
+     */
+    boolean takeTaskWaiter() {
+        return this.taskWaiter.getAndSet(false);
+    }
+}
@@ -4,6 +4,7 @@ import com.hazelcast.internal.networking.ChannelOption;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.networking.InboundHandler;
 import com.hazelcast.nio.IOUtil;
+import com.hazelcast.util.Clock;
 
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLEngineResult;
@@ -14,18 +15,35 @@ import javax.net.ssl.SSLSession;
 import java.io.EOFException;
 import java.nio.ByteBuffer;
 
-public class SSLInboundHandler extends InboundHandler<ByteBuffer, ByteBuffer> {
+public class SSLInboundHandler extends InboundHandler<ByteBuffer, ByteBuffer> implements PooledBufferOwner {
     private final SSLEngine sslEngine;
     private final SSLExecutor SSLExecutor;
+    private final SSLBufferPool bufferPool;
+    private final SSLBufferSizing bufferSizing;
+    private final SSLHandshakeTracker handshakeTracker;
+    private final SSLConnectionCounters counters;
+    private final ByteBuffer releasedSrc = ByteBuffer.allocate(0);
 
     private ByteBuffer appBuffer;
     private SSLSession sslSession;
+    private AdaptiveBufferSizer srcSizer;
 
     private boolean handshaking = true;
-
-    public SSLInboundHandler(final SSLEngine sslEngine, final SSLExecutor SSLExecutor) {
+    private boolean postHandshake;
+    private boolean srcJustReleased;
+    private boolean srcResizePending;
+    private boolean closed;
+    private volatile long lastUsedMillis = -1;
+
+    public SSLInboundHandler(final SSLEngine sslEngine, final SSLExecutor SSLExecutor, final SSLBufferPool bufferPool,
+                             final SSLBufferSizing bufferSizing, final SSLHandshakeTracker handshakeTracker,
+                             final SSLConnectionCounters counters) {
         this.sslEngine = sslEngine;
         this.SSLExecutor = SSLExecutor;
+        this.bufferPool = bufferPool;
+        this.bufferSizing = bufferSizing;
+        this.handshakeTracker = handshakeTracker;
+        this.counters = counters;
         this.appBuffer = IOUtil.newByteBuffer(sslEngine.getSession().getApplicationBufferSize(), false);
     }
 
@@ -34,7 +52,20 @@ public class SSLInboundHandler extends InboundHandler<ByteBuffer, ByteBuffer> {
     }
 
     public void handlerAdded() {
-        this.initSrcBuffer(this.sslEngine.getSession().getPacketBufferSize());
+        // replace(this, this) calls handlerAdded again; keep the buffer we just installed
+        if (this.src == null) {
+            this.initSrcBuffer(this.sslEngine.getSession().getPacketBufferSize());
+        }
+    }
+
+    @Override
+    public long lastUsedMillis() {
+        return this.lastUsedMillis;
+    }
+
+    @Override
+    public void wakeup() {
+        this.channel.inboundPipeline().wakeup();
     }
 
     public void interceptError(final Throwable t) throws Throwable {
@@ -43,8 +74,44 @@ public class SSLInboundHandler extends InboundHandler<ByteBuffer, ByteBuffer> {
         }
     }
 
+    /**
+     * Hands the leased buffers back to the pool once the handler is out of use, on the IO thread of its pipeline.
+     * The handler does nothing afterwards.
+     */
+    void releaseBuffers() {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        this.bufferPool.release(this.src);
+        this.bufferPool.release(this.appBuffer);
+        this.src = this.releasedSrc;
+        this.appBuffer = null;
+        this.lastUsedMillis = -1;
+    }
+
     public HandlerStatus onRead() throws Exception {
+        if (this.closed) {
+            return HandlerStatus.CLEAN;
+        }
+
+        if (!handshaking) {
+            if (this.src == this.releasedSrc) {
+                return this.onReleasedRead();
+            }
+
+            final int buffered = this.src.position();
+            if (buffered > 0) {
+                this.lastUsedMillis = Clock.currentTimeMillis();
+                this.srcResizePending |= this.src.hasRemaining() ? this.srcSizer.onUsed(buffered) : this.srcSizer.onFull();
+            } else if (this.releaseIdleBuffers()) {
+                return HandlerStatus.CLEAN;
+            }
+        }
+
         if (!handshaking && !this.drainAppBuffer()) {
+            this.counters.inboundDirty.inc();
             return HandlerStatus.DIRTY;
         } else {
             this.src.flip();
@@ -62,9 +129,17 @@ public class SSLInboundHandler extends InboundHandler<ByteBuffer, ByteBuffer> {
                         return status;
                     }
                 }
+            } catch (final SSLException exception) {
+                if (handshaking) {
+                    this.handshakeTracker.onFailed(exception);
+                }
+                throw exception;
             } finally {
                 if (wasHandshaking == handshaking) {
                     IOUtil.compactOrClear(this.src);
+                    if (this.srcResizePending) {
+                        this.resizeSrcBuffer();
+                    }
                 }
             }
         }
@@ -77,7 +152,9 @@ public class SSLInboundHandler extends InboundHandler<ByteBuffer, ByteBuffer> {
             case FINISHED:
                 break;
             case NEED_TASK:
-                this.SSLExecutor.executeHandshakeTasks(this.sslEngine, this.channel);
+                if (this.SSLExecutor.executeHandshakeTasks(this.sslEngine, this.channel, this.handshakeTracker)) {
+                    break;
+                }
                 return HandlerStatus.BLOCKED;
             case NEED_WRAP:
                 this.channel.outboundPipeline().wakeup();
@@ -103,10 +180,6 @@ public class SSLInboundHandler extends InboundHandler<ByteBuffer, ByteBuffer> {
 
                 return HandlerStatus.CLEAN;
             case NOT_HANDSHAKING:
-                if (this.appBuffer.position() != 0) {
-                    throw new IllegalStateException("Unexpected data in the appBuffer, it should be empty " + IOUtil.toDebugString("appBuffer", this.appBuffer));
-                }
-
                 this.onHandshakeFinished();
                 return HandlerStatus.DIRTY;
             default:
@@ -118,46 +191,130 @@ public class SSLInboundHandler extends InboundHandler<ByteBuffer, ByteBuffer> {
     private void onHandshakeFinished() {
         this.handshaking = false;
         this.sslSession = this.sslEngine.getSession();
+        this.handshakeTracker.onFinished(this.sslSession);
+        this.SSLExecutor.onHandshakeFinished(this.channel);
 
-        // create new buffers
+        // swap the handshake buffers for pooled ones, the app buffer is leased on first use
         final int socketReceiveBuffer = this.channel.options().getOption(ChannelOption.SO_RCVBUF);
-        final int packetBufferSize = this.sslEngine.getSession().getPacketBufferSize();
+        this.srcSizer = this.bufferSizing.newSizer(this.sslSession.getPacketBufferSize(), socketReceiveBuffer);
         final ByteBuffer oldSrc = this.src;
-        this.initSrcBuffer(Math.max(socketReceiveBuffer, packetBufferSize));
-        this.appBuffer = IOUtil.newByteBuffer(this.sslSession.getApplicationBufferSize(), this.channel.options().getOption(ChannelOption.DIRECT_BUF));
+        this.src = this.acquireSrcBuffer();
+        // JSSE never produces data with the last handshake record, Conscrypt can; keep it to be drained first
+        if (this.appBuffer.position() == 0) {
+            this.appBuffer = null;
+        }
 
         // hacky way to make pipeline use new buffer
         this.channel.inboundPipeline().replace(this, this);
 
         this.src.put(oldSrc);
+        this.lastUsedMillis = Clock.currentTimeMillis();
 
         this.channel.outboundPipeline().wakeup();
     }
 
+    private HandlerStatus onReleasedRead() {
+        if (this.srcJustReleased) {
+            // the pipeline restarts after replace(); nothing has been read into the empty buffer yet
+            this.srcJustReleased = false;
+            return HandlerStatus.CLEAN;
+        }
+
+        this.src = this.acquireSrcBuffer();
+        this.lastUsedMillis = Clock.currentTimeMillis();
+        this.channel.inboundPipeline().replace(this, this);
+        return HandlerStatus.CLEAN;
+    }
+
+    private boolean releaseIdleBuffers() {
+        if ((this.appBuffer != null && this.appBuffer.position() > 0) || !this.bufferPool.isIdle(this.lastUsedMillis)) {
+            return false;
+        }
+
+        this.bufferPool.release(this.src);
+        this.bufferPool.release(this.appBuffer);
+        this.src = this.releasedSrc;
+        this.appBuffer = null;
+        this.lastUsedMillis = -1;
+        this.srcJustReleased = true;
+        this.channel.inboundPipeline().replace(this, this);
+        return true;
+    }
+
+    private void resizeSrcBuffer() {
+        if (SSLBufferPool.sizeClass(this.srcSizer.size()) == this.src.capacity()) {
+            // the sizer went back to the size we have
+            this.srcResizePending = false;
+            return;
+        }
+        if (this.src.position() > this.srcSizer.size()) {
+            // stays pending until enough of the buffered bytes have been consumed
+            return;
+        }
+
+        this.srcResizePending = false;
+
+        final ByteBuffer oldSrc = this.src;
+        this.src = this.acquireSrcBuffer();
+        oldSrc.flip();
+        this.src.put(oldSrc);
+        this.bufferPool.release(oldSrc);
+        this.channel.inboundPipeline().replace(this, this);
+    }
+
+    private ByteBuffer acquireSrcBuffer() {
+        return this.bufferPool.acquire(this.srcSizer.size(), this.isDirect());
+    }
+
+    private boolean isDirect() {
+        return this.channel.options().getOption(ChannelOption.DIRECT_BUF);
+    }
+
     private HandlerStatus handleRegular() throws SSLException {
+        if ((this.appBuffer == null || this.appBuffer.position() == 0)
+                && this.dst.remaining() >= this.sslSession.getApplicationBufferSize()) {
+            return this.handleRegularIntoDst();
+        }
+        return this.handleRegularIntoAppBuffer();
+    }
 
-        final SSLEngineResult unwrapResult;
-        try {
-            unwrapResult = this.sslEngine.unwrap(this.src, this.appBuffer);
-        } catch (final SSLException exception) {
-            throw new SSLException(IOUtil.toDebugString("src", this.src) + " " + IOUtil.toDebugString("app", this.appBuffer) + " " + IOUtil.toDebugString("dst", this.dst), exception);
+    private HandlerStatus handleRegularIntoAppBuffer() throws SSLException {
+        if (this.appBuffer == null) {
+            this.appBuffer = this.newAppBuffer();
         }
 
+        final SSLEngineResult unwrapResult = this.unwrap(this.appBuffer);
+        this.counters.ciphertextBytesIn.inc(unwrapResult.bytesConsumed());
+        this.counters.plaintextBytesIn.inc(unwrapResult.bytesProduced());
         switch (unwrapResult.getStatus()) {
             case BUFFER_OVERFLOW:
+                this.counters.inboundBufferOverflows.inc();
                 if (this.appBuffer.capacity() >= this.sslSession.getApplicationBufferSize()) {
+                    this.counters.inboundDirty.inc();
                     return HandlerStatus.DIRTY;
                 }
 
+                final ByteBuffer oldAppBuffer = this.appBuffer;
                 this.appBuffer = this.newAppBuffer();
+                oldAppBuffer.flip();
+                this.appBuffer.put(oldAppBuffer);
+                this.bufferPool.release(oldAppBuffer);
                 break;
             case BUFFER_UNDERFLOW:
+                this.counters.inboundBufferUnderflows.inc();
                 return HandlerStatus.CLEAN;
             case OK:
+                this.counters.recordsUnwrapped.inc();
                 if (!this.drainAppBuffer()) {
+                    this.counters.inboundDirty.inc();
                     return HandlerStatus.DIRTY;
                 }
 
+                final HandlerStatus postHandshakeStatus = this.handlePostHandshake(unwrapResult.getHandshakeStatus());
+                if (postHandshakeStatus != null) {
+                    return postHandshakeStatus;
+                }
+
                 if (this.src.remaining() == 0) {
                     return HandlerStatus.CLEAN;
                 }
@@ -170,11 +327,91 @@ public class SSLInboundHandler extends InboundHandler<ByteBuffer, ByteBuffer> {
         return null;
     }
 
+    /**
+     * Unwraps straight into dst while it has room for a whole record, saving the copy through the app buffer.
+     */
+    private HandlerStatus handleRegularIntoDst() throws SSLException {
+        final SSLEngineResult unwrapResult = this.unwrap(this.dst);
+        this.counters.ciphertextBytesIn.inc(unwrapResult.bytesConsumed());
+        this.counters.plaintextBytesIn.inc(unwrapResult.bytesProduced());
+        switch (unwrapResult.getStatus()) {
+            case BUFFER_OVERFLOW:
+                // dst has room for a maximum sized record yet the engine wants more, take the record through the app buffer
+                this.counters.inboundBufferOverflows.inc();
+                return this.handleRegularIntoAppBuffer();
+            case BUFFER_UNDERFLOW:
+                this.counters.inboundBufferUnderflows.inc();
+                return HandlerStatus.CLEAN;
+            case OK:
+                this.counters.recordsUnwrapped.inc();
+                this.counters.recordsUnwrappedIntoDst.inc();
+                final HandlerStatus postHandshakeStatus = this.handlePostHandshake(unwrapResult.getHandshakeStatus());
+                if (postHandshakeStatus != null) {
+                    return postHandshakeStatus;
+                }
+                return this.src.remaining() == 0 ? HandlerStatus.CLEAN : null;
+            case CLOSED:
+                return HandlerStatus.CLEAN;
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Services handshake messages that arrive after the initial handshake: TLS 1.3 KeyUpdate and
+     * NewSessionTicket, or a TLS 1.2 renegotiation. The outbound handler wakes this one up again
+     * once it has wrapped the reply.
+     *
+     * @return {@code null} to carry on unwrapping
+     */
+    private HandlerStatus handlePostHandshake(final HandshakeStatus handshakeStatus) {
+        if (handshakeStatus == HandshakeStatus.NOT_HANDSHAKING) {
+            if (this.postHandshake) {
+                // the outbound handler may hold plaintext back until the exchange is over
+                this.postHandshake = false;
+                this.channel.outboundPipeline().wakeup();
+            }
+            return null;
+        }
+
+        this.postHandshake = true;
+        this.counters.postHandshakeUnwraps.inc();
+        switch (handshakeStatus) {
+            case FINISHED:
+                this.postHandshake = false;
+                this.sslSession = this.sslEngine.getSession();
+                this.channel.outboundPipeline().wakeup();
+                return null;
+            case NEED_TASK:
+                this.SSLExecutor.executePostHandshakeTasks(this.sslEngine, this.channel, this.handshakeTracker);
+                return HandlerStatus.BLOCKED;
+            case NEED_WRAP:
+                this.channel.outboundPipeline().wakeup();
+                return HandlerStatus.BLOCKED;
+            case NEED_UNWRAP:
+                return null;
+            default:
+                throw new IllegalStateException("Unexpected " + handshakeStatus);
+        }
+    }
+
+    private SSLEngineResult unwrap(final ByteBuffer target) throws SSLException {
+        try {
+            return this.sslEngine.unwrap(this.src, target);
+        } catch (final SSLException exception) {
+            throw new SSLException(IOUtil.toDebugString("src", this.src) + " " + IOUtil.toDebugString("app", this.appBuffer) + " " + IOUtil.toDebugString("dst", this.dst), exception);
+        }
+    }
+
     private ByteBuffer newAppBuffer() {
-        return IOUtil.newByteBuffer(this.sslSession.getApplicationBufferSize(), this.channel.options().getOption(ChannelOption.DIRECT_BUF));
+        return this.bufferPool.acquire(this.sslSession.getApplicationBufferSize(), this.isDirect());
     }
 
     private boolean drainAppBuffer() {
+        if (this.appBuffer == null) {
+            return true;
+        }
+
         this.appBuffer.flip();
         final int available = this.appBuffer.remaining();
         if (this.dst.remaining() < available) {
@@ -11,12 +11,16 @@ import com.hazelcast.nio.IOService;
 import com.hazelcast.nio.tcp.MemberProtocolEncoder;
 import com.hazelcast.nio.tcp.SingleProtocolDecoder;
 import com.hazelcast.nio.tcp.TcpIpConnection;
-
-import java.util.concurrent.Executor;
+import com.hazelcast.spi.TaskScheduler;
 
 public class SSLMemberChannelInitializer extends MultiSocketSSLChannelInitializer {
-    public SSLMemberChannelInitializer(final EndpointConfig endpointConfig, final Executor tlsExecutor, final IOService ioService) {
-        super(endpointConfig, tlsExecutor, ioService);
+    public SSLMemberChannelInitializer(final EndpointConfig endpointConfig, final SSLEngineFactoryCache engineFactories, final SSLHandshakeExecutor tlsExecutor, final SSLBufferPool bufferPool, final TaskScheduler scheduler, final IOService ioService) {
+        super(endpointConfig, engineFactories, tlsExecutor, bufferPool, scheduler, ioService);
+    }
+
+    @Override
+    protected int handshakePriority() {
+        return SSLHandshakeExecutor.MEMBER_PRIORITY;
     }
 
     protected void initPipeline(final Channel channel) {
@@ -25,6 +29,14 @@ public class SSLMemberChannelInitializer extends MultiSocketSSLChannelInitialize
         final InboundHandler[] inboundHandlers = this.ioService.createInboundHandlers(EndpointQualifier.MEMBER, connection);
         final MemberProtocolEncoder protocolEncoder = new MemberProtocolEncoder(outboundHandlers);
         final SingleProtocolDecoder protocolDecoder = new SingleProtocolDecoder(ProtocolType.MEMBER, inboundHandlers, protocolEncoder);
+        this.addProtocolHandlers(channel, protocolEncoder, protocolDecoder);
+    }
+
+    /**
+     * Adds the member protocol handlers between the TLS handlers.
+     */
+    protected void addProtocolHandlers(final Channel channel, final MemberProtocolEncoder protocolEncoder,
+                                       final SingleProtocolDecoder protocolDecoder) {
         channel.outboundPipeline().addLast(protocolEncoder);
         channel.inboundPipeline().addLast(protocolDecoder);
     }
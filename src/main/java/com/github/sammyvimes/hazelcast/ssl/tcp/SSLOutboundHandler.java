@@ -4,6 +4,7 @@ import com.hazelcast.internal.networking.ChannelOption;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.networking.OutboundHandler;
 import com.hazelcast.nio.IOUtil;
+import com.hazelcast.util.Clock;
 
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLEngineResult;
@@ -13,20 +14,64 @@ import javax.net.ssl.SSLException;
 import java.io.EOFException;
 import java.nio.ByteBuffer;
 
-public class SSLOutboundHandler extends OutboundHandler<ByteBuffer, ByteBuffer> {
+public class SSLOutboundHandler extends OutboundHandler<ByteBuffer, ByteBuffer> implements PooledBufferOwner {
     private final SSLEngine sslEngine;
     private final ByteBuffer emptyBuffer = ByteBuffer.allocate(0);
     private final SSLExecutor sslExecutor;
+    private final SSLBufferPool bufferPool;
+    private final SSLBufferSizing bufferSizing;
+    private final SSLHandshakeTracker handshakeTracker;
+    private final SSLConnectionCounters counters;
+    private final SSLRecordCoalescing coalescing;
+    private final DynamicRecordSizer recordSizer;
 
+    private AdaptiveBufferSizer dstSizer;
     private boolean handshaking = true;
+    private boolean postHandshake;
+    private long coalescingSinceNanos = -1;
+    private boolean dstResizePending;
+    private boolean closed;
+    private volatile long lastUsedMillis = -1;
+    private volatile boolean bypassed;
 
-    SSLOutboundHandler(final SSLEngine sslEngine, final SSLExecutor sslExecutor) {
+    SSLOutboundHandler(final SSLEngine sslEngine, final SSLExecutor sslExecutor, final SSLBufferPool bufferPool,
+                       final SSLBufferSizing bufferSizing, final SSLHandshakeTracker handshakeTracker,
+                       final SSLConnectionCounters counters, final SSLRecordCoalescing coalescing,
+                       final SSLRecordSizing recordSizing) {
         this.sslEngine = sslEngine;
         this.sslExecutor = sslExecutor;
+        this.bufferPool = bufferPool;
+        this.bufferSizing = bufferSizing;
+        this.handshakeTracker = handshakeTracker;
+        this.counters = counters;
+        this.coalescing = coalescing;
+        this.recordSizer = recordSizing.isEnabled() ? recordSizing.newSizer() : null;
     }
 
     public void handlerAdded() {
-        this.initDstBuffer(this.sslEngine.getSession().getPacketBufferSize());
+        // replace(this, this) calls handlerAdded again; keep the buffer we just installed
+        if (this.dst == null) {
+            this.initDstBuffer(this.sslEngine.getSession().getPacketBufferSize());
+        }
+    }
+
+    @Override
+    public long lastUsedMillis() {
+        return this.lastUsedMillis;
+    }
+
+    @Override
+    public void wakeup() {
+        this.channel.outboundPipeline().wakeup();
+    }
+
+    /**
+     * Hands the channel over to plaintext before anything was written: the outbound pipeline drops this handler
+     * on its next run.
+     */
+    void bypass() {
+        this.bypassed = true;
+        this.wakeup();
     }
 
     public void interceptError(final Throwable t) throws Throwable {
@@ -35,7 +80,50 @@ public class SSLOutboundHandler extends OutboundHandler<ByteBuffer, ByteBuffer>
         }
     }
 
+    /**
+     * Hands the leased buffer back to the pool once the handler is out of use, on the IO thread of its pipeline.
+     * The handler does nothing afterwards.
+     */
+    void releaseBuffers() {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        this.bufferPool.release(this.dst);
+        this.dst = this.emptyBuffer;
+        this.lastUsedMillis = -1;
+    }
+
     public HandlerStatus onWrite() throws Exception {
+        if (this.closed) {
+            return HandlerStatus.CLEAN;
+        }
+
+        if (this.bypassed) {
+            this.channel.outboundPipeline().remove(this);
+            this.releaseBuffers();
+            return HandlerStatus.CLEAN;
+        }
+
+        if (!handshaking) {
+            if (this.dst == this.emptyBuffer) {
+                return this.onReleasedWrite();
+            }
+
+            if (this.src.hasRemaining()) {
+                this.lastUsedMillis = Clock.currentTimeMillis();
+                if (this.recordSizer != null && this.recordSizer.onActive(this.lastUsedMillis)) {
+                    this.counters.recordSizeResets.inc();
+                }
+                if (this.coalescing.isEnabled() && this.deferWrap()) {
+                    return HandlerStatus.CLEAN;
+                }
+            } else if (this.releaseIdleBuffers()) {
+                return HandlerStatus.CLEAN;
+            }
+        }
+
         IOUtil.compactOrClear(this.dst);
 
         try {
@@ -46,8 +134,16 @@ public class SSLOutboundHandler extends OutboundHandler<ByteBuffer, ByteBuffer>
                 handlerStatus = handleRegular();
             }
             return handlerStatus;
+        } catch (final SSLException exception) {
+            if (handshaking) {
+                this.handshakeTracker.onFailed(exception);
+            }
+            throw exception;
         } finally {
             this.dst.flip();
+            if (this.dstResizePending) {
+                this.resizeDstBuffer();
+            }
         }
     }
 
@@ -58,7 +154,9 @@ public class SSLOutboundHandler extends OutboundHandler<ByteBuffer, ByteBuffer>
                 case FINISHED:
                     break;
                 case NEED_TASK:
-                    this.sslExecutor.executeHandshakeTasks(this.sslEngine, this.channel);
+                    if (this.sslExecutor.executeHandshakeTasks(this.sslEngine, this.channel, this.handshakeTracker)) {
+                        break;
+                    }
                     return HandlerStatus.BLOCKED;
                 case NEED_WRAP:
                     final SSLEngineResult wrapResult = this.sslEngine.wrap(this.emptyBuffer, this.dst);
@@ -94,34 +192,194 @@ public class SSLOutboundHandler extends OutboundHandler<ByteBuffer, ByteBuffer>
 
     private void onHandshakeFinished() {
         this.handshaking = false;
+        this.sslExecutor.onHandshakeFinished(this.channel);
+        this.handshakeTracker.onFinished(this.sslEngine.getSession());
 
+        // dst is flipped in onWrite's finally block, so it is installed in write mode here
         final int sendBufferSize = this.channel.options().getOption(ChannelOption.SO_SNDBUF);
-        final int packetBufferSize = this.sslEngine.getSession().getPacketBufferSize();
-        this.initDstBuffer(Math.max(sendBufferSize, packetBufferSize));
+        this.dstSizer = this.bufferSizing.newSizer(this.sslEngine.getSession().getPacketBufferSize(), sendBufferSize);
+        this.dst = this.acquireDstBuffer();
+        this.lastUsedMillis = Clock.currentTimeMillis();
 
         this.channel.outboundPipeline().replace(this, this);
 
         this.channel.inboundPipeline().wakeup();
     }
 
+    private HandlerStatus onReleasedWrite() {
+        // the inbound handler wakes us up to reply to a post-handshake message such as a KeyUpdate
+        if (!this.src.hasRemaining() && this.sslEngine.getHandshakeStatus() != HandshakeStatus.NEED_WRAP) {
+            return HandlerStatus.CLEAN;
+        }
+
+        this.dst = this.acquireDstBuffer();
+        this.dst.flip();
+        this.lastUsedMillis = Clock.currentTimeMillis();
+        // the pipeline restarts after replace() and calls onWrite again with the new buffer
+        this.channel.outboundPipeline().replace(this, this);
+        return HandlerStatus.CLEAN;
+    }
+
+    private boolean releaseIdleBuffers() {
+        if (this.dst.hasRemaining() || !this.bufferPool.isIdle(this.lastUsedMillis)
+                || this.sslEngine.getHandshakeStatus() == HandshakeStatus.NEED_WRAP) {
+            return false;
+        }
+
+        this.bufferPool.release(this.dst);
+        this.dst = this.emptyBuffer;
+        this.lastUsedMillis = -1;
+        this.channel.outboundPipeline().replace(this, this);
+        return true;
+    }
+
+    private void resizeDstBuffer() {
+        if (SSLBufferPool.sizeClass(this.dstSizer.size()) == this.dst.capacity()) {
+            // the sizer went back to the size we have
+            this.dstResizePending = false;
+            return;
+        }
+        if (this.dst.remaining() > this.dstSizer.size()) {
+            // stays pending until enough of the buffered records have been written
+            return;
+        }
+
+        this.dstResizePending = false;
+
+        // dst is in read mode here
+        final ByteBuffer oldDst = this.dst;
+        this.dst = this.acquireDstBuffer();
+        this.dst.put(oldDst);
+        this.dst.flip();
+        this.bufferPool.release(oldDst);
+        this.channel.outboundPipeline().replace(this, this);
+    }
+
+    private ByteBuffer acquireDstBuffer() {
+        return this.bufferPool.acquire(this.dstSizer.size(), this.channel.options().getOption(ChannelOption.DIRECT_BUF));
+    }
+
     private HandlerStatus handleRegular() throws SSLException {
-        final SSLEngineResult wrapResult = this.sslEngine.wrap(this.src, this.dst);
-        switch (wrapResult.getStatus()) {
-            case BUFFER_OVERFLOW:
-                return HandlerStatus.DIRTY;
-            case OK:
-                if (this.src.remaining() > 0) {
+        // wrap() produces at most one record per call, keep wrapping until src is drained or dst is full
+        while (true) {
+            final SSLEngineResult wrapResult = this.wrap();
+            this.counters.plaintextBytesOut.inc(wrapResult.bytesConsumed());
+            this.counters.ciphertextBytesOut.inc(wrapResult.bytesProduced());
+            switch (wrapResult.getStatus()) {
+                case BUFFER_OVERFLOW:
+                    this.counters.outboundBufferOverflows.inc();
+                    this.counters.outboundDirty.inc();
+                    this.dstResizePending |= this.dstSizer.onFull();
                     return HandlerStatus.DIRTY;
-                }
+                case OK:
+                    this.counters.recordsWrapped.inc();
+                    if (wrapResult.bytesConsumed() > 0) {
+                        this.counters.onRecordWrapped(wrapResult.bytesConsumed());
+                        if (this.recordSizer != null) {
+                            this.recordSizer.onWrapped(wrapResult.bytesConsumed());
+                        }
+                    }
+                    if (this.postHandshake || wrapResult.getHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING
+                            || (wrapResult.bytesConsumed() == 0 && wrapResult.bytesProduced() > 0)) {
+                        final HandlerStatus postHandshakeStatus = this.handlePostHandshake(wrapResult);
+                        if (postHandshakeStatus != null) {
+                            return postHandshakeStatus;
+                        }
+                        if (wrapResult.getHandshakeStatus() == HandshakeStatus.NEED_WRAP) {
+                            continue;
+                        }
+                    }
 
-                return HandlerStatus.CLEAN;
-            case CLOSED:
-                return HandlerStatus.CLEAN;
+                    if (this.src.remaining() > 0) {
+                        continue;
+                    }
+
+                    this.dstResizePending |= this.dstSizer.onUsed(this.dst.position());
+                    return HandlerStatus.CLEAN;
+                case CLOSED:
+                    return HandlerStatus.CLEAN;
+                default:
+                    throw new IllegalStateException("Unexpected " + wrapResult);
+            }
+        }
+    }
+
+    /**
+     * Wraps the next record, cut down to the size the {@link DynamicRecordSizer} allows.
+     */
+    private SSLEngineResult wrap() throws SSLException {
+        if (this.recordSizer == null || this.src.remaining() <= this.recordSizer.recordSize()) {
+            return this.sslEngine.wrap(this.src, this.dst);
+        }
+
+        final int limit = this.src.limit();
+        this.src.limit(this.src.position() + this.recordSizer.recordSize());
+        try {
+            return this.sslEngine.wrap(this.src, this.dst);
+        } finally {
+            this.src.limit(limit);
+        }
+    }
+
+    /**
+     * Services handshake messages that are sent after the initial handshake: the reply to a TLS 1.3
+     * KeyUpdate, a NewSessionTicket, or a TLS 1.2 renegotiation. A wrap that produced a record without
+     * consuming plaintext wrote such a message, so the inbound handler, which may be waiting for it,
+     * is woken up.
+     *
+     * @return {@code null} to carry on wrapping
+     */
+    private HandlerStatus handlePostHandshake(final SSLEngineResult wrapResult) {
+        if (wrapResult.bytesConsumed() == 0 && wrapResult.bytesProduced() > 0) {
+            this.counters.postHandshakeWraps.inc();
+        }
+
+        switch (wrapResult.getHandshakeStatus()) {
+            case NOT_HANDSHAKING:
+            case FINISHED:
+                this.postHandshake = false;
+                this.channel.inboundPipeline().wakeup();
+                return null;
+            case NEED_TASK:
+                this.postHandshake = true;
+                this.sslExecutor.executePostHandshakeTasks(this.sslEngine, this.channel, this.handshakeTracker);
+                return HandlerStatus.BLOCKED;
+            case NEED_WRAP:
+                this.postHandshake = true;
+                return wrapResult.bytesProduced() > 0 ? null : HandlerStatus.DIRTY;
+            case NEED_UNWRAP:
+                this.postHandshake = true;
+                this.channel.inboundPipeline().wakeup();
+                // the engine holds plaintext back until the peer's reply is unwrapped, which wakes us up
+                return wrapResult.bytesConsumed() == 0 && wrapResult.bytesProduced() == 0 ? HandlerStatus.BLOCKED : null;
             default:
                 throw new IllegalStateException("Unexpected " + wrapResult);
         }
     }
 
+    /**
+     * Decides whether src should wait for more plaintext; a flush is scheduled for the deadline when
+     * a new wait starts, subsequent writes either top src up or find the deadline expired.
+     */
+    private boolean deferWrap() {
+        if (this.src.remaining() >= this.coalescing.flushBytes()) {
+            this.coalescingSinceNanos = -1;
+            return false;
+        }
+
+        final long now = System.nanoTime();
+        if (this.coalescingSinceNanos < 0) {
+            this.coalescingSinceNanos = now;
+            this.coalescing.scheduleFlush(this.channel);
+        } else if (now - this.coalescingSinceNanos >= this.coalescing.deadlineNanos()) {
+            this.coalescingSinceNanos = -1;
+            return false;
+        }
+
+        this.counters.outboundDeferred.inc();
+        return true;
+    }
+
     private boolean isTlsHandshakeBufferDrained() {
         return this.dst.position() == 0;
     }
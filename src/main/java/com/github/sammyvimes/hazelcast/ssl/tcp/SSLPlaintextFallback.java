@@ -0,0 +1,92 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.hazelcast.config.ConfigurationException;
+import com.hazelcast.nio.Protocols;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Plaintext connections accepted next to TLS on the unified port, read from the {@code SSLConfig} property
+ * {@code plaintextProtocols}: a list of {@code member}, {@code client} and {@code text} (REST and memcache).
+ * Not set (default) or {@code none} accepts TLS only.
+ * <p>
+ * Incoming connections that start with a TLS handshake record go through TLS as before, whatever the list says;
+ * the others are served in plaintext if their protocol is listed and closed otherwise. Connections this member
+ * opens itself always use TLS.
+ */
+final class SSLPlaintextFallback {
+    static final SSLPlaintextFallback DISABLED = new SSLPlaintextFallback(false, false, false);
+
+    private final boolean member;
+    private final boolean client;
+    private final boolean text;
+
+    SSLPlaintextFallback(final boolean member, final boolean client, final boolean text) {
+        this.member = member;
+        this.client = client;
+        this.text = text;
+    }
+
+    static SSLPlaintextFallback fromProperties(final Properties properties) {
+        final String names = SSLContextFactoryImpl.getProperty(properties, SSLContextFactoryImpl.Props.PLAINTEXT_PROTOCOLS);
+        if (names == null || names.trim().isEmpty() || "none".equalsIgnoreCase(names.trim())) {
+            return DISABLED;
+        }
+
+        boolean member = false;
+        boolean client = false;
+        boolean text = false;
+        for (final String name : names.split(",")) {
+            switch (name.trim().toLowerCase()) {
+                case "member":
+                    member = true;
+                    break;
+                case "client":
+                    client = true;
+                    break;
+                case "text":
+                    text = true;
+                    break;
+                default:
+                    throw new ConfigurationException("Invalid value '" + names + "' for SSL property "
+                            + SSLContextFactoryImpl.Props.PLAINTEXT_PROTOCOLS + ", expected a list of member, client and text");
+            }
+        }
+        return new SSLPlaintextFallback(member, client, text);
+    }
+
+    boolean isEnabled() {
+        return this.member || this.client || this.text;
+    }
+
+    /**
+     * @param protocol the first {@link Protocols#PROTOCOL_LENGTH} bytes of a plaintext connection
+     */
+    boolean allows(final String protocol) {
+        if (Protocols.CLUSTER.equals(protocol)) {
+            return this.member;
+        }
+        if (Protocols.CLIENT_BINARY_NEW.equals(protocol)) {
+            return this.client;
+        }
+        return this.text;
+    }
+
+    @Override
+    public String toString() {
+        final List<String> names = new ArrayList<>();
+        if (this.member) {
+            names.add("member");
+        }
+        if (this.client) {
+            names.add("client");
+        }
+        if (this.text) {
+            names.add("text");
+        }
+        return names.isEmpty() ? "none" : names.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.hazelcast.internal.networking.Channel;
+import com.hazelcast.spi.TaskScheduler;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound record coalescing, read from the {@code SSLConfig} properties:
+ * <ul>
+ * <li>{@code recordCoalescingMicros} - how long plaintext may wait for more data before it is wrapped,
+ * 0 (default) wraps immediately</li>
+ * <li>{@code recordCoalescingBytes} - plaintext that is wrapped right away, defaults to a full TLS record
+ * (16384)</li>
+ * </ul>
+ * The plaintext waits in the src buffer, which the upstream encoders keep filling, so a single wrap
+ * call can produce full records instead of one small record per packet.
+ */
+final class SSLRecordCoalescing {
+    static final SSLRecordCoalescing DISABLED = new SSLRecordCoalescing(0, 0, null);
+
+    private static final int MAX_RECORD_PLAINTEXT = 16384;
+
+    private final long deadlineNanos;
+    private final int flushBytes;
+    private final TaskScheduler scheduler;
+
+    private SSLRecordCoalescing(final long deadlineNanos, final int flushBytes, final TaskScheduler scheduler) {
+        this.deadlineNanos = deadlineNanos;
+        this.flushBytes = flushBytes;
+        this.scheduler = scheduler;
+    }
+
+    static SSLRecordCoalescing fromProperties(final Properties properties, final TaskScheduler scheduler) {
+        final int deadlineMicros = SSLBufferSizing.getInt(properties, SSLContextFactoryImpl.Props.RECORD_COALESCING_MICROS, 0);
+        if (deadlineMicros <= 0) {
+            return DISABLED;
+        }
+
+        final int flushBytes = SSLBufferSizing.getInt(properties, SSLContextFactoryImpl.Props.RECORD_COALESCING_BYTES, MAX_RECORD_PLAINTEXT);
+        return new SSLRecordCoalescing(TimeUnit.MICROSECONDS.toNanos(deadlineMicros), flushBytes, scheduler);
+    }
+
+    boolean isEnabled() {
+        return this.deadlineNanos > 0;
+    }
+
+    int flushBytes() {
+        return this.flushBytes;
+    }
+
+    long deadlineNanos() {
+        return this.deadlineNanos;
+    }
+
+    void scheduleFlush(final Channel channel) {
+        this.scheduler.schedule(() -> channel.outboundPipeline().wakeup(), this.deadlineNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.hazelcast.config.ConfigurationException;
+
+import java.util.Properties;
+
+/**
+ * Bounds for the per-connection {@link DynamicRecordSizer}, read from the {@code SSLConfig} properties:
+ * <ul>
+ * <li>{@code dynamicRecordSizing} - {@code true} to start bursts with small records,
+ * {@code false} (default) to let every record fill up to 16 KB</li>
+ * <li>{@code minRecordSize} - plaintext bytes per record at the start of a burst, defaults to 1369, which with
+ * the TLS overhead fits into one TCP segment of a 1500 byte MTU</li>
+ * <li>{@code recordSizeRampRecords} - consecutive full records before the record size doubles (default 4)</li>
+ * <li>{@code recordSizeIdleMillis} - idle time after which the next burst starts small again (default 1000)</li>
+ * </ul>
+ * The peer can only decrypt a record once all of it arrived, so a packet that shares a 16 KB record with bulk data
+ * waits for a dozen TCP segments, and after an idle period for the congestion window to allow them. Small records
+ * let the first packets of a burst be decrypted segment by segment; sustained transfers ramp up to full records,
+ * which keeps the per-record overhead out of the bulk throughput.
+ */
+final class SSLRecordSizing {
+    static final int MAX_RECORD_SIZE = 16384;
+    static final SSLRecordSizing DISABLED = new SSLRecordSizing(false, MAX_RECORD_SIZE, 0, 0);
+
+    private static final int DEFAULT_MIN_RECORD_SIZE = 1369;
+    private static final int DEFAULT_RAMP_RECORDS = 4;
+    private static final int DEFAULT_IDLE_MILLIS = 1000;
+
+    private final boolean enabled;
+    private final int minRecordSize;
+    private final int rampRecords;
+    private final long idleMillis;
+
+    SSLRecordSizing(final boolean enabled, final int minRecordSize, final int rampRecords, final long idleMillis) {
+        this.enabled = enabled;
+        this.minRecordSize = minRecordSize;
+        this.rampRecords = rampRecords;
+        this.idleMillis = idleMillis;
+    }
+
+    static SSLRecordSizing fromProperties(final Properties properties) {
+        final String enabled = SSLContextFactoryImpl.getProperty(properties, SSLContextFactoryImpl.Props.DYNAMIC_RECORD_SIZING);
+        if (!Boolean.parseBoolean(enabled)) {
+            return DISABLED;
+        }
+
+        final int minRecordSize = SSLBufferSizing.getInt(properties, SSLContextFactoryImpl.Props.MIN_RECORD_SIZE, DEFAULT_MIN_RECORD_SIZE);
+        if (minRecordSize <= 0 || minRecordSize > MAX_RECORD_SIZE) {
+            throw new ConfigurationException("Invalid value '" + minRecordSize + "' for SSL property "
+                    + SSLContextFactoryImpl.Props.MIN_RECORD_SIZE + ", expected 1 to " + MAX_RECORD_SIZE);
+        }
+
+        return new SSLRecordSizing(true, minRecordSize,
+                SSLBufferSizing.getInt(properties, SSLContextFactoryImpl.Props.RECORD_SIZE_RAMP_RECORDS, DEFAULT_RAMP_RECORDS),
+                SSLBufferSizing.getInt(properties, SSLContextFactoryImpl.Props.RECORD_SIZE_IDLE_MILLIS, DEFAULT_IDLE_MILLIS));
+    }
+
+    boolean isEnabled() {
+        return this.enabled;
+    }
+
+    DynamicRecordSizer newSizer() {
+        return new DynamicRecordSizer(this.minRecordSize, this.rampRecords, this.idleMillis);
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+
+import javax.net.ssl.SSLSession;
+
+import static com.hazelcast.internal.metrics.ProbeUnit.PERCENT;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Counts full and abbreviated (resumed) handshakes of the channels created by one {@link SSLChannelInitializer}.
+ */
+public class SSLSessionStats {
+
+    @Probe(name = "fullHandshakes")
+    private final MwCounter fullHandshakes = newMwCounter();
+    @Probe(name = "resumedHandshakes")
+    private final MwCounter resumedHandshakes = newMwCounter();
+
+    /**
+     * Records a finished handshake. A session created before the handshake started was taken from
+     * the session cache, so the handshake was an abbreviated one.
+     */
+    void onHandshakeFinished(final SSLSession session, final long handshakeStartMillis) {
+        if (session.getCreationTime() < handshakeStartMillis) {
+            this.resumedHandshakes.inc();
+        } else {
+            this.fullHandshakes.inc();
+        }
+    }
+
+    public long fullHandshakes() {
+        return this.fullHandshakes.get();
+    }
+
+    public long resumedHandshakes() {
+        return this.resumedHandshakes.get();
+    }
+
+    @Probe(name = "resumptionPercentage", unit = PERCENT)
+    public double resumptionPercentage() {
+        final long resumed = this.resumedHandshakes.get();
+        final long total = resumed + this.fullHandshakes.get();
+        return total == 0 ? 0 : 100d * resumed / total;
+    }
+}
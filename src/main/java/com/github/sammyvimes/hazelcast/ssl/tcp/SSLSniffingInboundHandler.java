@@ -0,0 +1,80 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.networking.HandlerStatus;
+import com.hazelcast.internal.networking.InboundHandler;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.Protocols;
+import com.hazelcast.util.StringUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * First inbound handler of an incoming connection on an endpoint that accepts plaintext next to TLS, see
+ * {@link SSLPlaintextFallback}. Reads the protocol header, which is as far as the protocol decoder would read,
+ * and leaves the TLS handlers in place if it starts a TLS handshake record. Otherwise it takes the TLS handlers out
+ * of both pipelines, so the header goes straight to the protocol decoder. Either way it then removes itself.
+ */
+final class SSLSniffingInboundHandler extends InboundHandler<ByteBuffer, ByteBuffer> {
+    private static final byte HANDSHAKE_RECORD = 0x16;
+    private static final byte TLS_MAJOR_VERSION = 0x03;
+
+    private final SSLPlaintextFallback fallback;
+    private final SSLInboundHandler tlsInboundHandler;
+    private final Runnable onPlaintext;
+
+    /**
+     * @param onPlaintext takes the outbound TLS handler out of its pipeline and settles the handshake bookkeeping
+     */
+    SSLSniffingInboundHandler(final SSLPlaintextFallback fallback, final SSLInboundHandler tlsInboundHandler,
+                              final Runnable onPlaintext) {
+        this.fallback = fallback;
+        this.tlsInboundHandler = tlsInboundHandler;
+        this.onPlaintext = onPlaintext;
+    }
+
+    @Override
+    public void handlerAdded() {
+        this.initSrcBuffer(Protocols.PROTOCOL_LENGTH);
+    }
+
+    @Override
+    public HandlerStatus onRead() {
+        this.src.flip();
+        try {
+            if (this.src.remaining() < Protocols.PROTOCOL_LENGTH) {
+                return HandlerStatus.CLEAN;
+            }
+
+            if (!isTlsRecord(this.src)) {
+                final String protocol = StringUtil.bytesToString(this.header());
+                if (!this.fallback.allows(protocol)) {
+                    throw new IllegalStateException("Plaintext connection with protocol '" + protocol
+                            + "' rejected, only " + this.fallback + " may skip TLS");
+                }
+                this.onPlaintext.run();
+                this.channel.inboundPipeline().remove(this.tlsInboundHandler);
+                this.tlsInboundHandler.releaseBuffers();
+            }
+
+            // dst is the src of whichever handler comes next now, both are empty and at least as large as the header
+            this.dst.put(this.src);
+            this.channel.inboundPipeline().remove(this);
+            return HandlerStatus.CLEAN;
+        } finally {
+            IOUtil.compactOrClear(this.src);
+        }
+    }
+
+    private byte[] header() {
+        final byte[] header = new byte[Protocols.PROTOCOL_LENGTH];
+        this.src.duplicate().get(header);
+        return header;
+    }
+
+    /**
+     * @param buffer at least the first two bytes of a connection, in read mode
+     */
+    static boolean isTlsRecord(final ByteBuffer buffer) {
+        return buffer.get(buffer.position()) == HANDSHAKE_RECORD && buffer.get(buffer.position() + 1) == TLS_MAJOR_VERSION;
+    }
+}
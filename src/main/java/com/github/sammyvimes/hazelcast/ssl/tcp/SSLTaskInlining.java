@@ -0,0 +1,89 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.hazelcast.config.ConfigurationException;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Decides which delegated handshake tasks run inline on the IO thread, read from the {@code SSLConfig} properties:
+ * <ul>
+ * <li>{@code handshakeTaskInlining} - {@code adaptive} (default) runs a task inline while tasks at the same step
+ * of earlier handshakes cost less than the threshold on average, {@code never} hands all tasks to the
+ * handshake pool</li>
+ * <li>{@code inlineTaskThresholdMicros} - the threshold in microseconds (default 200)</li>
+ * </ul>
+ * Resumed sessions skip the certificate and key exchange work, so their tasks are cheap and saving the thread
+ * hop and the pipeline wakeup makes up most of their handshake time. Costs are kept per client/server mode and
+ * per step, the n-th batch of tasks of a handshake, since the steps of a handshake differ a lot in cost. A step
+ * starts out offloaded until it has been measured.
+ * <p>
+ * Full and resumed handshakes can't be told apart while their tasks run, so they share the costs of a step. Cheap
+ * resumptions pull the average down slowly, but a single task over the threshold raises it to that task's cost at
+ * once, so the full handshakes that follow are offloaded again.
+ */
+final class SSLTaskInlining {
+    static final SSLTaskInlining NEVER = new SSLTaskInlining(0);
+
+    private static final int DEFAULT_THRESHOLD_MICROS = 200;
+    private static final int MAX_STEPS = 4;
+    private static final long UNMEASURED = -1;
+    // each cheap measurement moves the average by 1/8 of its distance, so inlining resumes only after a run of them
+    private static final int SMOOTHING_SHIFT = 3;
+
+    private final long thresholdNanos;
+    private final AtomicLongArray averageNanos = new AtomicLongArray(2 * MAX_STEPS);
+
+    private SSLTaskInlining(final long thresholdNanos) {
+        this.thresholdNanos = thresholdNanos;
+        for (int i = 0; i < this.averageNanos.length(); i++) {
+            this.averageNanos.set(i, UNMEASURED);
+        }
+    }
+
+    static SSLTaskInlining fromProperties(final Properties properties) {
+        final String mode = SSLContextFactoryImpl.getProperty(properties, SSLContextFactoryImpl.Props.HANDSHAKE_TASK_INLINING);
+        if ("never".equalsIgnoreCase(mode)) {
+            return NEVER;
+        }
+        if (mode != null && !"adaptive".equalsIgnoreCase(mode)) {
+            throw new ConfigurationException("Invalid value '" + mode + "' for SSL property "
+                    + SSLContextFactoryImpl.Props.HANDSHAKE_TASK_INLINING + ", expected adaptive or never");
+        }
+
+        final int thresholdMicros = SSLBufferSizing.getInt(properties, SSLContextFactoryImpl.Props.INLINE_TASK_THRESHOLD_MICROS,
+                DEFAULT_THRESHOLD_MICROS);
+        return thresholdMicros > 0 ? new SSLTaskInlining(TimeUnit.MICROSECONDS.toNanos(thresholdMicros)) : NEVER;
+    }
+
+    boolean shouldInline(final boolean clientMode, final int step) {
+        if (this.thresholdNanos == 0) {
+            return false;
+        }
+        final long average = this.averageNanos.get(slot(clientMode, step));
+        return average != UNMEASURED && average < this.thresholdNanos;
+    }
+
+    /**
+     * Records the run time of a task, whether it ran inline or on the handshake pool.
+     */
+    void onExecuted(final boolean clientMode, final int step, final long runNanos) {
+        if (this.thresholdNanos == 0) {
+            return;
+        }
+        // racing updates may lose a sample, which only delays the adaptation
+        final int slot = slot(clientMode, step);
+        final long average = this.averageNanos.get(slot);
+        if (average == UNMEASURED || (runNanos >= this.thresholdNanos && runNanos > average)) {
+            this.averageNanos.set(slot, runNanos);
+        } else {
+            this.averageNanos.set(slot, average + ((runNanos - average) >> SMOOTHING_SHIFT));
+        }
+    }
+
+    private static int slot(final boolean clientMode, final int step) {
+        return (clientMode ? MAX_STEPS : 0) + Math.min(step, MAX_STEPS - 1);
+    }
+}
@@ -10,14 +10,13 @@ import com.hazelcast.nio.ascii.TextDecoder;
 import com.hazelcast.nio.ascii.TextEncoder;
 import com.hazelcast.nio.tcp.TcpIpConnection;
 import com.hazelcast.nio.tcp.TextHandshakeDecoder;
-
-import java.util.concurrent.Executor;
+import com.hazelcast.spi.TaskScheduler;
 
 public class SSLTextChannelInitializer extends MultiSocketSSLChannelInitializer {
     private final boolean rest;
 
-    public SSLTextChannelInitializer(final EndpointConfig endpointConfig, final Executor tlsExecutor, final IOService ioService, final boolean rest) {
-        super(endpointConfig, tlsExecutor, ioService);
+    public SSLTextChannelInitializer(final EndpointConfig endpointConfig, final SSLEngineFactoryCache engineFactories, final SSLHandshakeExecutor tlsExecutor, final SSLBufferPool bufferPool, final TaskScheduler scheduler, final IOService ioService, final boolean rest) {
+        super(endpointConfig, engineFactories, tlsExecutor, bufferPool, scheduler, ioService);
         this.rest = rest;
     }
 
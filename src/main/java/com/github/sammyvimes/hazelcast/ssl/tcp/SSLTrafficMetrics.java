@@ -0,0 +1,186 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.networking.Channel;
+import com.hazelcast.internal.util.counters.Counter;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
+
+/**
+ * Sums the {@link SSLConnectionCounters} of the open and closed connections of one {@link SSLChannelInitializer}.
+ * Once registered, the counters of each open connection are exposed as well, under
+ * {@code <prefix>.connection[<remote address>#<id>]}.
+ */
+public class SSLTrafficMetrics {
+    private final Set<SSLConnectionCounters> connections = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    // guards moving the counters of a closed connection into the totals, so that a sum sees them exactly once
+    private final SSLConnectionCounters closedConnections = new SSLConnectionCounters();
+    private final AtomicLong connectionIds = new AtomicLong();
+    private volatile MetricsRegistry registry;
+    private volatile String prefix;
+
+    public void register(final MetricsRegistry registry, final String prefix) {
+        this.prefix = prefix;
+        this.registry = registry;
+        registry.scanAndRegister(this, prefix);
+    }
+
+    SSLConnectionCounters onConnectionOpened(final Channel channel) {
+        final SSLConnectionCounters counters = new SSLConnectionCounters();
+        this.connections.add(counters);
+        final MetricsRegistry registry = this.registry;
+        if (registry != null) {
+            registry.scanAndRegister(counters, this.prefix + ".connection[" + this.connectionName(channel) + "]");
+        }
+        return counters;
+    }
+
+    void onConnectionClosed(final SSLConnectionCounters counters) {
+        synchronized (this.closedConnections) {
+            if (this.connections.remove(counters)) {
+                counters.addTo(this.closedConnections);
+            }
+        }
+        final MetricsRegistry registry = this.registry;
+        if (registry != null) {
+            registry.deregister(counters);
+        }
+    }
+
+    private String connectionName(final Channel channel) {
+        final SocketAddress address = channel.remoteSocketAddress();
+        final String peer = address instanceof InetSocketAddress
+                ? ((InetSocketAddress) address).getHostString() + ":" + ((InetSocketAddress) address).getPort()
+                : "unconnected";
+        return peer + "#" + this.connectionIds.incrementAndGet();
+    }
+
+    @Probe(name = "connections")
+    public int connections() {
+        return this.connections.size();
+    }
+
+    @Probe(name = "plaintextBytesIn", unit = BYTES)
+    public long plaintextBytesIn() {
+        return this.sum(counters -> counters.plaintextBytesIn);
+    }
+
+    @Probe(name = "ciphertextBytesIn", unit = BYTES)
+    public long ciphertextBytesIn() {
+        return this.sum(counters -> counters.ciphertextBytesIn);
+    }
+
+    @Probe(name = "recordsUnwrapped")
+    public long recordsUnwrapped() {
+        return this.sum(counters -> counters.recordsUnwrapped);
+    }
+
+    @Probe(name = "recordsUnwrappedIntoDst")
+    public long recordsUnwrappedIntoDst() {
+        return this.sum(counters -> counters.recordsUnwrappedIntoDst);
+    }
+
+    @Probe(name = "inboundBufferOverflows")
+    public long inboundBufferOverflows() {
+        return this.sum(counters -> counters.inboundBufferOverflows);
+    }
+
+    @Probe(name = "inboundBufferUnderflows")
+    public long inboundBufferUnderflows() {
+        return this.sum(counters -> counters.inboundBufferUnderflows);
+    }
+
+    @Probe(name = "inboundDirty")
+    public long inboundDirty() {
+        return this.sum(counters -> counters.inboundDirty);
+    }
+
+    @Probe(name = "postHandshakeUnwraps")
+    public long postHandshakeUnwraps() {
+        return this.sum(counters -> counters.postHandshakeUnwraps);
+    }
+
+    @Probe(name = "plaintextBytesOut", unit = BYTES)
+    public long plaintextBytesOut() {
+        return this.sum(counters -> counters.plaintextBytesOut);
+    }
+
+    @Probe(name = "ciphertextBytesOut", unit = BYTES)
+    public long ciphertextBytesOut() {
+        return this.sum(counters -> counters.ciphertextBytesOut);
+    }
+
+    @Probe(name = "recordsWrapped")
+    public long recordsWrapped() {
+        return this.sum(counters -> counters.recordsWrapped);
+    }
+
+    @Probe(name = "outboundBufferOverflows")
+    public long outboundBufferOverflows() {
+        return this.sum(counters -> counters.outboundBufferOverflows);
+    }
+
+    @Probe(name = "outboundDirty")
+    public long outboundDirty() {
+        return this.sum(counters -> counters.outboundDirty);
+    }
+
+    @Probe(name = "outboundDeferred")
+    public long outboundDeferred() {
+        return this.sum(counters -> counters.outboundDeferred);
+    }
+
+    @Probe(name = "postHandshakeWraps")
+    public long postHandshakeWraps() {
+        return this.sum(counters -> counters.postHandshakeWraps);
+    }
+
+    @Probe(name = "recordsLe1024")
+    public long recordsLe1024() {
+        return this.sum(counters -> counters.recordsLe1024);
+    }
+
+    @Probe(name = "recordsLe2048")
+    public long recordsLe2048() {
+        return this.sum(counters -> counters.recordsLe2048);
+    }
+
+    @Probe(name = "recordsLe4096")
+    public long recordsLe4096() {
+        return this.sum(counters -> counters.recordsLe4096);
+    }
+
+    @Probe(name = "recordsLe8192")
+    public long recordsLe8192() {
+        return this.sum(counters -> counters.recordsLe8192);
+    }
+
+    @Probe(name = "recordsLe16384")
+    public long recordsLe16384() {
+        return this.sum(counters -> counters.recordsLe16384);
+    }
+
+    @Probe(name = "recordSizeResets")
+    public long recordSizeResets() {
+        return this.sum(counters -> counters.recordSizeResets);
+    }
+
+    private long sum(final Function<SSLConnectionCounters, Counter> counter) {
+        synchronized (this.closedConnections) {
+            long sum = counter.apply(this.closedConnections).get();
+            for (final SSLConnectionCounters connection : this.connections) {
+                sum += counter.apply(connection).get();
+            }
+            return sum;
+        }
+    }
+}
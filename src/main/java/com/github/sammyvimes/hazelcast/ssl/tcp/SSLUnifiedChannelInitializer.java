@@ -7,24 +7,29 @@ import com.hazelcast.internal.networking.ChannelOption;
 import com.hazelcast.nio.tcp.UnifiedProtocolDecoder;
 import com.hazelcast.nio.tcp.UnifiedProtocolEncoder;
 import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.spi.TaskScheduler;
 import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.util.function.Function;
 
-import java.util.concurrent.Executor;
-
 public class SSLUnifiedChannelInitializer extends SSLChannelInitializer {
 
     private final Function<Channel, Handlers<UnifiedProtocolDecoder, UnifiedProtocolEncoder>> handlerProvider;
 
     private final HazelcastProperties props;
 
+    private final SSLPlaintextFallback plaintextFallback;
+
     public SSLUnifiedChannelInitializer(final SSLConfig sslConfig,
                                         final HazelcastProperties props,
-                                        final Executor executor,
+                                        final SSLEngineFactoryCache engineFactories,
+                                        final SSLHandshakeExecutor executor,
+                                        final SSLBufferPool bufferPool,
+                                        final TaskScheduler scheduler,
                                         final Function<Channel, Handlers<UnifiedProtocolDecoder, UnifiedProtocolEncoder>> handlerProvider) {
-        super(sslConfig, executor);
+        super(sslConfig, engineFactories, executor, bufferPool, scheduler);
         this.handlerProvider = handlerProvider;
         this.props = props;
+        this.plaintextFallback = SSLPlaintextFallback.fromProperties(sslConfig.getProperties());
     }
 
     @Override
@@ -32,6 +37,18 @@ public class SSLUnifiedChannelInitializer extends SSLChannelInitializer {
         return false;
     }
 
+    @Override
+    protected SSLPlaintextFallback plaintextFallback() {
+        return this.plaintextFallback;
+    }
+
+    /**
+     * @return the protocols accepted without TLS, {@code none} if every incoming connection must use TLS
+     */
+    public String getPlaintextProtocols() {
+        return this.plaintextFallback.toString();
+    }
+
     @Override
     protected void initPipeline(final Channel channel) {
         final Handlers<UnifiedProtocolDecoder, UnifiedProtocolEncoder> pair = this.handlerProvider.apply(channel);
@@ -0,0 +1,57 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.config.EndpointConfig;
+import com.hazelcast.internal.networking.Channel;
+import com.hazelcast.nio.IOService;
+import com.hazelcast.nio.tcp.MemberProtocolEncoder;
+import com.hazelcast.nio.tcp.SingleProtocolDecoder;
+import com.hazelcast.spi.TaskScheduler;
+
+/**
+ * Member protocol over TLS for WAN endpoints, optionally compressing the plaintext before it is encrypted,
+ * see {@link WanCompression}.
+ */
+public class SSLWanChannelInitializer extends SSLMemberChannelInitializer {
+    private final WanCompression compression;
+    private final WanCompressionMetrics compressionMetrics = new WanCompressionMetrics();
+
+    public SSLWanChannelInitializer(final EndpointConfig endpointConfig, final SSLEngineFactoryCache engineFactories, final SSLHandshakeExecutor tlsExecutor, final SSLBufferPool bufferPool, final TaskScheduler scheduler, final IOService ioService) {
+        super(endpointConfig, engineFactories, tlsExecutor, bufferPool, scheduler, ioService);
+        this.compression = WanCompression.fromProperties(endpointConfig.getSSLConfig().getProperties());
+    }
+
+    @Override
+    protected void addProtocolHandlers(final Channel channel, final MemberProtocolEncoder protocolEncoder,
+                                       final SingleProtocolDecoder protocolDecoder) {
+        if (!this.compression.isEnabled()) {
+            super.addProtocolHandlers(channel, protocolEncoder, protocolDecoder);
+            return;
+        }
+
+        final CompressingOutboundHandler compressor = new CompressingOutboundHandler(this.compression, this.compressionMetrics);
+        final DecompressingInboundHandler decompressor = new DecompressingInboundHandler(compressor, this.compressionMetrics);
+        channel.outboundPipeline().addLast(protocolEncoder);
+        channel.outboundPipeline().addLast(compressor);
+        channel.inboundPipeline().addLast(decompressor);
+        channel.inboundPipeline().addLast(protocolDecoder);
+        channel.addCloseListener(closedChannel -> {
+            compressor.close();
+            decompressor.close();
+        });
+    }
+
+    public boolean isCompressionEnabled() {
+        return this.compression.isEnabled();
+    }
+
+    /**
+     * @return the configured codecs in order of preference, {@code none} if compression is disabled
+     */
+    public String getCompressionCodecs() {
+        return this.compression.toString();
+    }
+
+    public WanCompressionMetrics getCompressionMetrics() {
+        return this.compressionMetrics;
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.hazelcast.config.ConfigurationException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.Deflater;
+
+/**
+ * Compression of WAN replication traffic ahead of TLS, read from the {@code SSLConfig} properties of the WAN endpoint:
+ * <ul>
+ * <li>{@code compression} - codecs in order of preference, e.g. {@code lz4,deflate}; not set (default) or
+ * {@code none} disables compression</li>
+ * <li>{@code compressionLevel} - deflate level from 1 to 9, defaults to zlib's default of 6</li>
+ * </ul>
+ * Encrypted data does not compress, so this is the last chance to shrink what crosses the WAN link. Both ends of a
+ * WAN connection must enable it, since it adds a framing layer to the stream. Each side opens with a hello listing
+ * the codecs it supports and sends its frames with its most preferred codec the peer supports as well; frames
+ * written before the peer's hello arrived go out uncompressed, so the negotiation never holds up the first packets.
+ * <p>
+ * Wire format: a hello of {@code 'Z'}, the format version and a bit set of codec ids, then frames of the codec id,
+ * the compressed length and the uncompressed length (at most {@link #MAX_FRAME_SIZE}) followed by the compressed bytes.
+ */
+final class WanCompression {
+    static final WanCompression DISABLED = new WanCompression(Collections.emptyList(), Deflater.DEFAULT_COMPRESSION);
+
+    static final int MAX_FRAME_SIZE = 32 * 1024;
+    // deflate adds 5 bytes per stored block and the sync flush marker, lz4 about 0.4%
+    static final int MAX_COMPRESSED_SIZE = MAX_FRAME_SIZE + MAX_FRAME_SIZE / 8 + 64;
+    static final int FRAME_HEADER_SIZE = 9;
+    static final int HELLO_SIZE = 3;
+
+    private static final byte HELLO_MAGIC = 'Z';
+    private static final byte VERSION = 1;
+
+    private final List<CompressionCodec> codecs;
+    private final int level;
+
+    WanCompression(final List<CompressionCodec> codecs, final int level) {
+        this.codecs = codecs;
+        this.level = level;
+    }
+
+    static WanCompression fromProperties(final Properties properties) {
+        final String names = SSLContextFactoryImpl.getProperty(properties, SSLContextFactoryImpl.Props.COMPRESSION);
+        if (names == null || names.trim().isEmpty() || "none".equalsIgnoreCase(names.trim())) {
+            return DISABLED;
+        }
+
+        final List<CompressionCodec> codecs = new ArrayList<>();
+        for (final String name : names.split(",")) {
+            final CompressionCodec codec = CompressionCodec.byName(name.trim());
+            if (codec == null || codec == CompressionCodec.NONE) {
+                throw new ConfigurationException("Invalid value '" + names + "' for SSL property "
+                        + SSLContextFactoryImpl.Props.COMPRESSION + ", expected a list of lz4 and deflate");
+            }
+            if (codec.isAvailable()) {
+                codecs.add(codec);
+            }
+        }
+        if (codecs.isEmpty()) {
+            codecs.add(CompressionCodec.DEFLATE);
+        }
+
+        final int level = SSLBufferSizing.getInt(properties, SSLContextFactoryImpl.Props.COMPRESSION_LEVEL, Deflater.DEFAULT_COMPRESSION);
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new ConfigurationException("Invalid value '" + level + "' for SSL property "
+                    + SSLContextFactoryImpl.Props.COMPRESSION_LEVEL + ", expected 1 to 9");
+        }
+        return new WanCompression(codecs, level);
+    }
+
+    boolean isEnabled() {
+        return !this.codecs.isEmpty();
+    }
+
+    int level() {
+        return this.level;
+    }
+
+    /**
+     * @return our most preferred codec the peer supports as well, {@link CompressionCodec#NONE} if there is none
+     */
+    CompressionCodec select(final int peerCodecs) {
+        for (final CompressionCodec codec : this.codecs) {
+            if ((peerCodecs & codec.bit()) != 0) {
+                return codec;
+            }
+        }
+        return CompressionCodec.NONE;
+    }
+
+    byte[] hello() {
+        return new byte[]{HELLO_MAGIC, VERSION, (byte) this.helloBits()};
+    }
+
+    int helloBits() {
+        int codecBits = CompressionCodec.NONE.bit();
+        for (final CompressionCodec codec : this.codecs) {
+            codecBits |= codec.bit();
+        }
+        return codecBits;
+    }
+
+    /**
+     * @return the codec bits of the peer's hello
+     */
+    static int parseHello(final byte magic, final byte version, final byte codecBits) {
+        if (magic != HELLO_MAGIC) {
+            throw new IllegalStateException("Peer does not compress WAN traffic, enable compression on both ends");
+        }
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported WAN compression version " + version);
+        }
+        return codecBits & 0xFF;
+    }
+
+    @Override
+    public String toString() {
+        return this.isEnabled() ? this.codecs.toString() : "none";
+    }
+
+    /**
+     * Copies as much of {@code from} as fits into {@code to}.
+     */
+    static void drain(final ByteBuffer from, final ByteBuffer to) {
+        if (to.remaining() >= from.remaining()) {
+            to.put(from);
+            return;
+        }
+
+        final int oldLimit = from.limit();
+        from.limit(from.position() + to.remaining());
+        to.put(from);
+        from.limit(oldLimit);
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+
+import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Bytes before and after compression of the channels created by one {@link SSLWanChannelInitializer}, with the
+ * resulting ratios; a ratio of 4 means the link carried a quarter of the data.
+ */
+public class WanCompressionMetrics {
+    @Probe(name = "uncompressedBytesOut", unit = BYTES)
+    private final MwCounter uncompressedBytesOut = newMwCounter();
+    @Probe(name = "compressedBytesOut", unit = BYTES)
+    private final MwCounter compressedBytesOut = newMwCounter();
+    @Probe(name = "framesOut")
+    private final MwCounter framesOut = newMwCounter();
+    @Probe(name = "compressedBytesIn", unit = BYTES)
+    private final MwCounter compressedBytesIn = newMwCounter();
+    @Probe(name = "uncompressedBytesIn", unit = BYTES)
+    private final MwCounter uncompressedBytesIn = newMwCounter();
+    @Probe(name = "framesIn")
+    private final MwCounter framesIn = newMwCounter();
+
+    void onFrameOut(final int uncompressed, final int compressed) {
+        this.framesOut.inc();
+        this.uncompressedBytesOut.inc(uncompressed);
+        this.compressedBytesOut.inc(compressed);
+    }
+
+    void onFrameIn(final int compressed, final int uncompressed) {
+        this.framesIn.inc();
+        this.compressedBytesIn.inc(compressed);
+        this.uncompressedBytesIn.inc(uncompressed);
+    }
+
+    @Probe(name = "ratioOut")
+    public double ratioOut() {
+        return ratio(this.uncompressedBytesOut.get(), this.compressedBytesOut.get());
+    }
+
+    @Probe(name = "ratioIn")
+    public double ratioIn() {
+        return ratio(this.uncompressedBytesIn.get(), this.compressedBytesIn.get());
+    }
+
+    private static double ratio(final long uncompressed, final long compressed) {
+        return compressed == 0 ? 1 : (double) uncompressed / compressed;
+    }
+}
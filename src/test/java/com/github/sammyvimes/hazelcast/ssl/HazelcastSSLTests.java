@@ -2,6 +2,8 @@ package com.github.sammyvimes.hazelcast.ssl;
 
 
 import com.github.sammyvimes.hazelcast.ssl.node.SSLNodeContext;
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.config.*;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
@@ -62,6 +64,39 @@ public class HazelcastSSLTests {
         });
     }
 
+    @Test
+    public void clientConnectsOverTls() throws Exception {
+        final String file = TestKeyMaterial.createKeyStore("RSA", 2048).getPath();
+        final Config config = new Config();
+        final NetworkConfig networkConfig = config.getNetworkConfig();
+        networkConfig.setPort(5101).setPortAutoIncrement(false);
+        networkConfig.getJoin().getMulticastConfig().setEnabled(false);
+        networkConfig.setSSLConfig(createSSLConfig(file));
+        final HazelcastInstance member = HazelcastInstanceFactory.newHazelcastInstance(config, config.getInstanceName(), new SSLNodeContext());
+
+        final ClientConfig clientConfig = new ClientConfig();
+        clientConfig.getNetworkConfig().addAddress("127.0.0.1:5101").setSSLConfig(createSSLConfig(file));
+        final HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+        try {
+            client.getMap("some-map").put("testKey", new byte[100000]);
+            Assert.assertEquals(100000, ((byte[]) member.getMap("some-map").get("testKey")).length);
+            Assert.assertEquals(100000, ((byte[]) client.getMap("some-map").get("testKey")).length);
+        } finally {
+            client.shutdown();
+            member.shutdown();
+        }
+    }
+
+    private static SSLConfig createSSLConfig(final String file) {
+        final SSLConfig sslConfig = new SSLConfig();
+        sslConfig.setEnabled(true);
+        sslConfig.setFactoryClassName(SSLContextFactoryImpl.class.getName());
+        sslConfig.setProperty(SSLContextFactoryImpl.Props.KEY_STORE, file);
+        sslConfig.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, TestKeyMaterial.PASSWORD);
+        sslConfig.setProperty(SSLContextFactoryImpl.Props.MUTUAL_AUTHENTICATION, "REQUIRED");
+        return sslConfig;
+    }
+
     private HazelcastInstance getHazelcastInstance(final Config config, final String file) {
         final AdvancedNetworkConfig networkConfig = config.getAdvancedNetworkConfig();
 
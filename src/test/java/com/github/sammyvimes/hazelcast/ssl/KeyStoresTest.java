@@ -0,0 +1,141 @@
+package com.github.sammyvimes.hazelcast.ssl;
+
+import com.hazelcast.config.ConfigurationException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.crypto.Cipher;
+import javax.crypto.EncryptedPrivateKeyInfo;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.PBEParameterSpec;
+import javax.net.ssl.X509KeyManager;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.Base64;
+import java.util.Properties;
+
+@RunWith(JUnit4.class)
+public class KeyStoresTest {
+    private static final char[] PASSWORD = TestKeyMaterial.PASSWORD.toCharArray();
+    // the alias keytool gives the key pair, see TestKeyMaterial
+    private static final String ALIAS = "main";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void detectsTheTypeFromTheContent() throws Exception {
+        final File jks = TestKeyMaterial.createKeyStore(this.folder.getRoot(), "EC", 256, "JKS");
+        final File pkcs12 = TestKeyMaterial.createKeyStore(this.folder.getRoot(), "EC", 256, "PKCS12");
+        Assert.assertEquals("JKS", KeyStores.detectType(Files.readAllBytes(jks.toPath())));
+        Assert.assertEquals("PKCS12", KeyStores.detectType(Files.readAllBytes(pkcs12.toPath())));
+        Assert.assertEquals(KeyStores.PEM, KeyStores.detectType("\n-----BEGIN CERTIFICATE-----".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    public void loadsPemKeysWithTheirChain() throws Exception {
+        final KeyStore source = this.createKeyStore("EC", 256);
+        final Key key = source.getKey(ALIAS, PASSWORD);
+        final Certificate certificate = source.getCertificate(ALIAS);
+        final File plain = this.file("key.pem", pem("PRIVATE KEY", key.getEncoded()) + pem("CERTIFICATE", certificate.getEncoded()));
+        final File encrypted = this.file("encrypted.pem",
+                pem("CERTIFICATE", certificate.getEncoded()) + pem("ENCRYPTED PRIVATE KEY", encrypt(key.getEncoded())));
+
+        for (final File file : new File[]{plain, encrypted}) {
+            final KeyStore keyStore = KeyStores.load(file.getPath(), null, PASSWORD);
+            Assert.assertTrue(keyStore.isKeyEntry("key"));
+            Assert.assertEquals(key, keyStore.getKey("key", PASSWORD));
+            Assert.assertArrayEquals(new Certificate[]{certificate}, keyStore.getCertificateChain("key"));
+        }
+    }
+
+    @Test
+    public void loadsPemCertificatesAsTrusted() throws Exception {
+        final Certificate certificate = this.createKeyStore("EC", 256).getCertificate(ALIAS);
+        final KeyStore keyStore = KeyStores.load(this.file("ca.pem", pem("CERTIFICATE", certificate.getEncoded())).getPath(), null, null);
+        Assert.assertEquals(certificate, keyStore.getCertificate("certificate-0"));
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void rejectsNonPkcs8Keys() throws Exception {
+        KeyStores.load(this.file("rsa.pem", pem("RSA PRIVATE KEY", new byte[16])).getPath(), null, null);
+    }
+
+    @Test
+    public void mergesFilesWithoutAPassword() throws Exception {
+        final KeyStore ec = this.createKeyStore("EC", 256);
+        final KeyStore rsa = this.createKeyStore("RSA", 2048);
+        final File ecPem = this.pemFile("ec.pem", ec);
+        final File rsaPem = this.pemFile("rsa.pem", rsa);
+
+        final KeyStore merged = KeyStores.load(ecPem.getPath() + "," + rsaPem.getPath(), null, null);
+        Assert.assertEquals(ec.getKey(ALIAS, PASSWORD), merged.getKey("0-key", KeyStores.keyPassword(null)));
+        Assert.assertEquals(rsa.getKey(ALIAS, PASSWORD), merged.getKey("1-key", KeyStores.keyPassword(null)));
+    }
+
+    @Test
+    public void offersEveryKeyTypeOfSeveralFiles() throws Exception {
+        final KeyStore ec = this.createKeyStore("EC", 256);
+        final File ecPem = this.pemFile("ec.pem", ec);
+        final File rsa = TestKeyMaterial.createKeyStore(this.folder.getRoot(), "RSA", 2048, "PKCS12");
+
+        final Properties properties = new Properties();
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE, ecPem.getPath() + "," + rsa.getPath());
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, TestKeyMaterial.PASSWORD);
+        final X509KeyManager keyManager = (X509KeyManager) SSLContextFactoryImpl.loadKeyManagerFactory(TestKeyMaterial.PASSWORD,
+                properties.getProperty(SSLContextFactoryImpl.Props.KEY_STORE), "SunX509").getKeyManagers()[0];
+        Assert.assertEquals(ec.getKey(ALIAS, PASSWORD), keyManager.getPrivateKey(keyManager.chooseServerAlias("EC", null, null)));
+        Assert.assertEquals(load(rsa).getKey(ALIAS, PASSWORD), keyManager.getPrivateKey(keyManager.chooseServerAlias("RSA", null, null)));
+
+        final SSLContextFactoryImpl factory = new SSLContextFactoryImpl();
+        factory.init(properties);
+        Assert.assertNotNull(factory.getSSLContext());
+    }
+
+    private KeyStore createKeyStore(final String keyAlgorithm, final int keySize) throws Exception {
+        final File directory = this.folder.newFolder();
+        return load(TestKeyMaterial.createKeyStore(directory, keyAlgorithm, keySize, "PKCS12"));
+    }
+
+    private static KeyStore load(final File file) throws Exception {
+        final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = new FileInputStream(file)) {
+            keyStore.load(in, PASSWORD);
+        }
+        return keyStore;
+    }
+
+    private File pemFile(final String name, final KeyStore keyStore) throws Exception {
+        return this.file(name, pem("PRIVATE KEY", keyStore.getKey(ALIAS, PASSWORD).getEncoded())
+                + pem("CERTIFICATE", keyStore.getCertificate(ALIAS).getEncoded()));
+    }
+
+    private File file(final String name, final String content) throws Exception {
+        final File file = this.folder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    private static String pem(final String label, final byte[] der) {
+        return "-----BEGIN " + label + "-----\n" + Base64.getMimeEncoder().encodeToString(der) + "\n-----END " + label + "-----\n";
+    }
+
+    private static byte[] encrypt(final byte[] encodedKey) throws Exception {
+        final String algorithm = "PBEWithSHA1AndDESede";
+        final Cipher cipher = Cipher.getInstance(algorithm);
+        cipher.init(Cipher.ENCRYPT_MODE, SecretKeyFactory.getInstance(algorithm).generateSecret(new PBEKeySpec(PASSWORD)),
+                new PBEParameterSpec(new byte[8], 1024));
+        return new EncryptedPrivateKeyInfo(cipher.getParameters(), cipher.doFinal(encodedKey)).getEncoded();
+    }
+}
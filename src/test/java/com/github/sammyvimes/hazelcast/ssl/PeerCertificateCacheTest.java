@@ -0,0 +1,78 @@
+package com.github.sammyvimes.hazelcast.ssl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Properties;
+
+@RunWith(JUnit4.class)
+public class PeerCertificateCacheTest {
+    private static final long NEVER = Long.MAX_VALUE;
+
+    @Test
+    public void reusesValidatedChains() {
+        final PeerCertificateCache cache = new PeerCertificateCache(16, 1000);
+        Assert.assertFalse(cache.isTrusted("a", 0));
+        cache.onValidated("a", 0, NEVER);
+        Assert.assertTrue(cache.isTrusted("a", 500));
+        Assert.assertFalse(cache.isTrusted("b", 500));
+        Assert.assertEquals(1, cache.hits());
+        Assert.assertEquals(2, cache.misses());
+        Assert.assertEquals(1.0 / 3, cache.hitRate(), 1e-9);
+    }
+
+    @Test
+    public void expiresAfterTtlOrCertificateExpiry() {
+        final PeerCertificateCache cache = new PeerCertificateCache(16, 1000);
+        cache.onValidated("a", 0, NEVER);
+        cache.onValidated("b", 0, 200);
+        Assert.assertTrue(cache.isTrusted("b", 199));
+        Assert.assertFalse(cache.isTrusted("b", 200));
+        Assert.assertTrue(cache.isTrusted("a", 999));
+        Assert.assertFalse(cache.isTrusted("a", 1000));
+    }
+
+    @Test
+    public void staysWithinItsSize() {
+        final PeerCertificateCache cache = new PeerCertificateCache(2, 1000);
+        cache.onValidated("a", 0, 100);
+        cache.onValidated("b", 0, NEVER);
+        // "a" has expired, so it makes room without evicting a live entry
+        cache.onValidated("c", 100, NEVER);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertTrue(cache.isTrusted("b", 100));
+        Assert.assertTrue(cache.isTrusted("c", 100));
+
+        cache.onValidated("d", 100, NEVER);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertTrue(cache.isTrusted("d", 100));
+    }
+
+    @Test
+    public void invalidationForgetsEverything() {
+        final PeerCertificateCache cache = new PeerCertificateCache(16, 1000);
+        cache.onValidated("a", 0, NEVER);
+        final int generation = cache.generation();
+        Assert.assertEquals(generation + 1, cache.invalidate());
+        Assert.assertEquals(generation + 1, cache.generation());
+        Assert.assertEquals(0, cache.size());
+        Assert.assertFalse(cache.isTrusted("a", 0));
+    }
+
+    @Test
+    public void disabledUnlessSizedWithATtl() {
+        Assert.assertNull(PeerCertificateCache.fromProperties(new Properties()));
+        final Properties properties = properties(SSLContextFactoryImpl.Props.TRUST_CACHE_SIZE, "16");
+        Assert.assertNotNull(PeerCertificateCache.fromProperties(properties));
+        properties.setProperty(SSLContextFactoryImpl.Props.TRUST_CACHE_TTL_SECONDS, "0");
+        Assert.assertNull(PeerCertificateCache.fromProperties(properties));
+    }
+
+    static Properties properties(final String property, final String value) {
+        final Properties properties = new Properties();
+        properties.setProperty(property, value);
+        return properties;
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.sammyvimes.hazelcast.ssl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.net.ssl.SSLContext;
+import java.util.Properties;
+
+@RunWith(JUnit4.class)
+public class SSLContextFactoryImplTest {
+
+    @Test
+    public void failedReloadKeepsTheCurrentContext() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE, TestKeyMaterial.createKeyStore("EC", 256).getPath());
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, TestKeyMaterial.PASSWORD);
+        final SSLContextFactoryImpl factory = new SSLContextFactoryImpl();
+        factory.init(properties);
+        final SSLContext context = factory.getSSLContext();
+
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, "wrong");
+        try {
+            factory.reload(true);
+            Assert.fail();
+        } catch (final Exception expected) {
+            Assert.assertSame(context, factory.getSSLContext());
+        }
+
+        // the files did not change since the context in use was built
+        Assert.assertFalse(factory.reload(false));
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, TestKeyMaterial.PASSWORD);
+        Assert.assertTrue(factory.reload(true));
+        Assert.assertNotSame(context, factory.getSSLContext());
+    }
+
+    @Test
+    public void onlySuccessfulReloadsClearTheTrustCache() throws Exception {
+        final Properties properties = PeerCertificateCacheTest.properties(SSLContextFactoryImpl.Props.TRUST_CACHE_SIZE, "16");
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE, TestKeyMaterial.createKeyStore("EC", 256).getPath());
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, TestKeyMaterial.PASSWORD);
+        final SSLContextFactoryImpl factory = new SSLContextFactoryImpl();
+        factory.init(properties);
+        final PeerCertificateCache cache = factory.getPeerCertificateCache();
+        final int generation = cache.generation();
+        cache.onValidated("chain", 0, Long.MAX_VALUE);
+
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, "wrong");
+        try {
+            factory.reload(true);
+            Assert.fail();
+        } catch (final Exception expected) {
+            Assert.assertEquals(generation, cache.generation());
+            Assert.assertEquals(1, cache.size());
+        }
+
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, TestKeyMaterial.PASSWORD);
+        Assert.assertTrue(factory.reload(true));
+        Assert.assertEquals(generation + 1, cache.generation());
+        Assert.assertEquals(0, cache.size());
+    }
+}
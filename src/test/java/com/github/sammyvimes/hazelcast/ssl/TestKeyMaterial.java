@@ -0,0 +1,64 @@
+package com.github.sammyvimes.hazelcast.ssl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Self-signed keystores for the tests, generated with the JDK keytool so that no internal JDK classes are needed.
+ */
+public final class TestKeyMaterial {
+    public static final String PASSWORD = "password";
+
+    private TestKeyMaterial() {
+    }
+
+    /**
+     * @param storeType {@code JKS} or {@code PKCS12}
+     */
+    public static File createKeyStore(final File directory, final String keyAlgorithm, final int keySize, final String storeType)
+            throws IOException, InterruptedException {
+        final File keyStore = new File(directory, keyAlgorithm.toLowerCase() + "-" + keySize + "." + storeType.toLowerCase());
+        final String keytool = Paths.get(System.getProperty("java.home"), "bin", "keytool").toString();
+        final List<String> command = Arrays.asList(keytool, "-genkeypair",
+                "-alias", "main",
+                "-keyalg", keyAlgorithm,
+                "-keysize", String.valueOf(keySize),
+                "-sigalg", "EC".equals(keyAlgorithm) ? "SHA256withECDSA" : "SHA256withRSA",
+                "-dname", "cn=Unknown",
+                "-validity", "365",
+                "-storetype", storeType,
+                "-keystore", keyStore.getAbsolutePath(),
+                "-storepass", PASSWORD,
+                "-keypass", PASSWORD);
+
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        final byte[] output = readAll(process);
+        if (process.waitFor() != 0) {
+            throw new IOException("keytool failed for " + command + ": " + new String(output));
+        }
+        return keyStore;
+    }
+
+    public static File createKeyStore(final String keyAlgorithm, final int keySize) throws IOException, InterruptedException {
+        final File directory = Files.createTempDirectory("hazelcast-ssl-test").toFile();
+        directory.deleteOnExit();
+        final File keyStore = createKeyStore(directory, keyAlgorithm, keySize, "JKS");
+        keyStore.deleteOnExit();
+        return keyStore;
+    }
+
+    private static byte[] readAll(final Process process) throws IOException {
+        final byte[] buffer = new byte[4096];
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int read;
+        while ((read = process.getInputStream().read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
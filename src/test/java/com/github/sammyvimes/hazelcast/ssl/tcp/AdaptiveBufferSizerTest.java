@@ -0,0 +1,65 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.config.ConfigurationException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Properties;
+
+@RunWith(JUnit4.class)
+public class AdaptiveBufferSizerTest {
+
+    @Test
+    public void growsAfterConsecutiveFullRoundsUpToMax() {
+        final AdaptiveBufferSizer sizer = new AdaptiveBufferSizer(16 * 1024, 48 * 1024, 2, 4);
+
+        Assert.assertFalse(sizer.onFull());
+        Assert.assertTrue(sizer.onFull());
+        Assert.assertEquals(32 * 1024, sizer.size());
+
+        Assert.assertFalse(sizer.onFull());
+        Assert.assertTrue(sizer.onFull());
+        Assert.assertEquals(48 * 1024, sizer.size());
+        Assert.assertFalse(sizer.onFull());
+        Assert.assertFalse(sizer.onFull());
+    }
+
+    @Test
+    public void shrinksAfterQuietRoundsDownToMin() {
+        final AdaptiveBufferSizer sizer = new AdaptiveBufferSizer(16 * 1024, 64 * 1024, 1, 2);
+        sizer.onFull();
+        sizer.onFull();
+        Assert.assertEquals(64 * 1024, sizer.size());
+
+        Assert.assertFalse(sizer.onUsed(1024));
+        Assert.assertFalse(sizer.onUsed(32 * 1024));
+        Assert.assertFalse(sizer.onUsed(1024));
+        Assert.assertTrue(sizer.onUsed(1024));
+        Assert.assertEquals(32 * 1024, sizer.size());
+
+        sizer.onUsed(1024);
+        sizer.onUsed(1024);
+        Assert.assertEquals(16 * 1024, sizer.size());
+        sizer.onUsed(1024);
+        Assert.assertFalse(sizer.onUsed(1024));
+    }
+
+    @Test
+    public void fixedSizingUsesSocketBufferSize() {
+        final AdaptiveBufferSizer sizer = SSLBufferSizing.FIXED.newSizer(16709, 128 * 1024);
+
+        Assert.assertEquals(128 * 1024, sizer.size());
+        Assert.assertFalse(sizer.onFull());
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void maxBelowMinIsRejected() {
+        final Properties properties = new Properties();
+        properties.setProperty("minBufferSize", "65536");
+        properties.setProperty("maxBufferSize", "32768");
+
+        SSLBufferSizing.fromProperties(properties);
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RunWith(JUnit4.class)
+public class CipherSuiteCalibrationTest {
+    private static final String[] SUITES = {
+            "TLS_AES_128_GCM_SHA256",
+            "TLS_AES_256_GCM_SHA384",
+            "TLS_CHACHA20_POLY1305_SHA256",
+            "TLS_ECDHE_RSA_WITH_AES_128_CBC_SHA",
+            "TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256",
+            "TLS_ECDHE_RSA_WITH_CHACHA20_POLY1305_SHA256",
+            "TLS_EMPTY_RENEGOTIATION_INFO_SCSV",
+    };
+
+    @Test
+    public void fastestBulkCipherFirst() {
+        final Map<String, Double> throughput = new HashMap<>();
+        throughput.put("AES_128_GCM", 300.0);
+        throughput.put("AES_256_GCM", 250.0);
+        throughput.put("CHACHA20_POLY1305", 900.0);
+
+        Assert.assertArrayEquals(new String[]{
+                "TLS_CHACHA20_POLY1305_SHA256",
+                "TLS_ECDHE_RSA_WITH_CHACHA20_POLY1305_SHA256",
+                "TLS_AES_128_GCM_SHA256",
+                "TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256",
+                "TLS_AES_256_GCM_SHA384",
+                "TLS_ECDHE_RSA_WITH_AES_128_CBC_SHA",
+                "TLS_EMPTY_RENEGOTIATION_INFO_SCSV",
+        }, CipherSuiteCalibration.order(SUITES, throughput));
+    }
+
+    @Test
+    public void unmeasuredCiphersKeepTheirOrderAtTheEnd() {
+        final Map<String, Double> throughput = new HashMap<>();
+        throughput.put("AES_256_GCM", 250.0);
+
+        Assert.assertArrayEquals(new String[]{
+                "TLS_AES_256_GCM_SHA384",
+                "TLS_AES_128_GCM_SHA256",
+                "TLS_CHACHA20_POLY1305_SHA256",
+                "TLS_ECDHE_RSA_WITH_AES_128_CBC_SHA",
+                "TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256",
+                "TLS_ECDHE_RSA_WITH_CHACHA20_POLY1305_SHA256",
+                "TLS_EMPTY_RENEGOTIATION_INFO_SCSV",
+        }, CipherSuiteCalibration.order(SUITES, throughput));
+    }
+
+    @Test
+    public void similarThroughputKeepsConfiguredOrder() {
+        final Map<String, Double> throughput = new HashMap<>();
+        throughput.put("AES_128_GCM", 300.0);
+        throughput.put("AES_256_GCM", 320.0);
+        throughput.put("CHACHA20_POLY1305", 310.0);
+
+        Assert.assertArrayEquals(new String[]{
+                "TLS_AES_128_GCM_SHA256",
+                "TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256",
+                "TLS_AES_256_GCM_SHA384",
+                "TLS_CHACHA20_POLY1305_SHA256",
+                "TLS_ECDHE_RSA_WITH_CHACHA20_POLY1305_SHA256",
+                "TLS_ECDHE_RSA_WITH_AES_128_CBC_SHA",
+                "TLS_EMPTY_RENEGOTIATION_INFO_SCSV",
+        }, CipherSuiteCalibration.order(SUITES, throughput));
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.hazelcast.config.ConfigurationException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Properties;
+
+@RunWith(JUnit4.class)
+public class DynamicRecordSizerTest {
+
+    @Test
+    public void rampsUpToFullRecordsDuringSustainedTransfer() {
+        final DynamicRecordSizer sizer = new DynamicRecordSizer(2048, 2, 1000);
+        sizer.onActive(0);
+        Assert.assertEquals(2048, sizer.recordSize());
+
+        sizer.onWrapped(2048);
+        Assert.assertEquals(2048, sizer.recordSize());
+        sizer.onWrapped(2048);
+        Assert.assertEquals(4096, sizer.recordSize());
+
+        for (int i = 0; i < 4; i++) {
+            sizer.onWrapped(sizer.recordSize());
+        }
+        Assert.assertEquals(16384, sizer.recordSize());
+        sizer.onWrapped(16384);
+        sizer.onWrapped(16384);
+        Assert.assertEquals(16384, sizer.recordSize());
+    }
+
+    @Test
+    public void partialRecordsDoNotRamp() {
+        final DynamicRecordSizer sizer = new DynamicRecordSizer(2048, 2, 1000);
+
+        sizer.onWrapped(2048);
+        sizer.onWrapped(100);
+        sizer.onWrapped(2048);
+        Assert.assertEquals(2048, sizer.recordSize());
+    }
+
+    @Test
+    public void startsSmallAgainAfterIdlePeriod() {
+        final DynamicRecordSizer sizer = new DynamicRecordSizer(2048, 1, 1000);
+        Assert.assertFalse(sizer.onActive(0));
+        sizer.onWrapped(2048);
+        sizer.onWrapped(4096);
+        Assert.assertEquals(8192, sizer.recordSize());
+
+        Assert.assertFalse(sizer.onActive(999));
+        Assert.assertEquals(8192, sizer.recordSize());
+        Assert.assertTrue(sizer.onActive(2000));
+        Assert.assertEquals(2048, sizer.recordSize());
+        Assert.assertFalse(sizer.onActive(5000));
+    }
+
+    @Test
+    public void disabledByDefault() {
+        Assert.assertFalse(SSLRecordSizing.fromProperties(new Properties()).isEnabled());
+
+        final Properties properties = new Properties();
+        properties.setProperty(SSLContextFactoryImpl.Props.DYNAMIC_RECORD_SIZING, "true");
+        Assert.assertTrue(SSLRecordSizing.fromProperties(properties).isEnabled());
+        Assert.assertEquals(1369, SSLRecordSizing.fromProperties(properties).newSizer().recordSize());
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void rejectsRecordsAboveTheTlsLimit() {
+        final Properties properties = new Properties();
+        properties.setProperty(SSLContextFactoryImpl.Props.DYNAMIC_RECORD_SIZING, "true");
+        properties.setProperty(SSLContextFactoryImpl.Props.MIN_RECORD_SIZE, "20000");
+        SSLRecordSizing.fromProperties(properties);
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsArePowersOfTwo() {
+        Assert.assertEquals(0, LatencyHistogram.bucket(0));
+        Assert.assertEquals(0, LatencyHistogram.bucket(128));
+        Assert.assertEquals(1, LatencyHistogram.bucket(129));
+        Assert.assertEquals(1, LatencyHistogram.bucket(256));
+        Assert.assertEquals(20, LatencyHistogram.bucket(Long.MAX_VALUE));
+        Assert.assertEquals(1024, LatencyHistogram.upperBound(3));
+    }
+
+    @Test
+    public void percentileReportsBucketUpperBound() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1000);
+        }
+        histogram.record(100_000_000);
+
+        Assert.assertEquals(100, histogram.count());
+        Assert.assertEquals(1024, histogram.percentile(50));
+        Assert.assertEquals(1024, histogram.percentile(99));
+        Assert.assertEquals(100_000_000, histogram.percentile(100));
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.ByteBuffer;
+
+@RunWith(JUnit4.class)
+public class SSLBufferPoolTest {
+
+    @Test
+    public void releasedBufferIsReused() {
+        final SSLBufferPool pool = new SSLBufferPool(1024 * 1024, 0);
+
+        final ByteBuffer buffer = pool.acquire(16709, true);
+        Assert.assertTrue(buffer.isDirect());
+        Assert.assertEquals(20 * 1024, buffer.capacity());
+
+        buffer.put((byte) 1);
+        pool.release(buffer);
+        Assert.assertEquals(buffer.capacity(), pool.pooledBytes());
+
+        final ByteBuffer reused = pool.acquire(17000, true);
+        Assert.assertSame(buffer, reused);
+        Assert.assertEquals(0, reused.position());
+        Assert.assertEquals(0, pool.pooledBytes());
+        Assert.assertEquals(50d, pool.hitPercentage(), 0.001);
+    }
+
+    @Test
+    public void heapAndDirectBuffersAreNotMixed() {
+        final SSLBufferPool pool = new SSLBufferPool(1024 * 1024, 0);
+
+        pool.release(pool.acquire(4096, false));
+        Assert.assertTrue(pool.acquire(4096, true).isDirect());
+        Assert.assertFalse(pool.acquire(4096, false).isDirect());
+    }
+
+    @Test
+    public void poolIsBounded() {
+        final SSLBufferPool pool = new SSLBufferPool(8 * 1024, 0);
+
+        pool.release(ByteBuffer.allocate(8 * 1024));
+        pool.release(ByteBuffer.allocate(8 * 1024));
+        Assert.assertEquals(1, pool.pooledBuffers());
+        Assert.assertEquals(8 * 1024, pool.pooledBytes());
+    }
+
+    @Test
+    public void idleOwnersAreWokenUp() {
+        final SSLBufferPool pool = new SSLBufferPool(1024 * 1024, 1);
+        final int[] wakeups = new int[1];
+        final PooledBufferOwner owner = new PooledBufferOwner() {
+            @Override
+            public long lastUsedMillis() {
+                return 0;
+            }
+
+            @Override
+            public void wakeup() {
+                wakeups[0]++;
+            }
+        };
+
+        pool.track(owner);
+        pool.releaseIdleBuffers();
+        pool.untrack(owner);
+        pool.releaseIdleBuffers();
+        Assert.assertEquals(1, wakeups[0]);
+    }
+}
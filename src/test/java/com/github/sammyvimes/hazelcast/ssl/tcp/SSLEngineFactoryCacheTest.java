@@ -0,0 +1,68 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.config.SSLConfig;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.net.ssl.SSLEngine;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(JUnit4.class)
+public class SSLEngineFactoryCacheTest {
+
+    @Test
+    public void equalConfigsShareOneFactory() {
+        final SSLEngineFactoryCache cache = new SSLEngineFactoryCache();
+
+        final SSLEngineFactory factory = cache.get(sslConfig("a.jks"), false);
+        Assert.assertSame(factory, cache.get(sslConfig("a.jks"), false));
+        Assert.assertNotSame(factory, cache.get(sslConfig("b.jks"), false));
+        Assert.assertNotSame(factory, cache.get(sslConfig("a.jks"), true));
+        Assert.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void laterConfigChangesDoNotAffectTheKey() {
+        final SSLEngineFactoryCache cache = new SSLEngineFactoryCache();
+        final SSLConfig sslConfig = sslConfig("a.jks");
+
+        final SSLEngineFactory factory = cache.get(sslConfig, false);
+        sslConfig.setProperty("keyStore", "b.jks");
+        Assert.assertSame(factory, cache.get(sslConfig("a.jks"), false));
+    }
+
+    @Test
+    public void preloadInitsEachDistinctConfigOnce() {
+        final SSLEngineFactoryCache cache = new SSLEngineFactoryCache();
+        final int before = CountingSSLEngineFactory.INITS.get();
+
+        cache.preload(Arrays.asList(sslConfig("a.jks"), sslConfig("a.jks"), sslConfig("b.jks")), false, Runnable::run);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(2, CountingSSLEngineFactory.INITS.get() - before);
+    }
+
+    private static SSLConfig sslConfig(final String keyStore) {
+        return new SSLConfig()
+                .setEnabled(true)
+                .setFactoryClassName(CountingSSLEngineFactory.class.getName())
+                .setProperty("keyStore", keyStore);
+    }
+
+    public static class CountingSSLEngineFactory implements SSLEngineFactory {
+        static final AtomicInteger INITS = new AtomicInteger();
+
+        @Override
+        public void init(final Properties properties, final boolean forClient) {
+            INITS.incrementAndGet();
+        }
+
+        @Override
+        public SSLEngine create(final boolean clientMode) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLHandshakeException;
+import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RunWith(JUnit4.class)
+public class SSLExecutorTest {
+    private static SSLContext sslContext;
+
+    @BeforeClass
+    public static void createSSLContext() throws Exception {
+        sslContext = SSLHandlerLoopback.newSSLContext();
+    }
+
+    @Test
+    public void failedInlineTaskFailsTheHandshake() {
+        final SSLTaskInlining inlining = SSLTaskInlining.fromProperties(new Properties());
+        inlining.onExecuted(false, 0, TimeUnit.MICROSECONDS.toNanos(1));
+        final SSLExecutor executor = new SSLExecutor(new SSLHandshakeExecutor(Runnable::run, 0, 0, 0),
+                SSLHandshakeExecutor.MEMBER_PRIORITY, inlining);
+
+        final SSLHandshakeMetrics metrics = new SSLHandshakeMetrics();
+        try {
+            executor.executeHandshakeTasks(newFailingEngine(), new TestChannel(false, 0), newTracker(metrics));
+            Assert.fail();
+        } catch (final SSLHandshakeException exception) {
+            Assert.assertTrue(exception.getCause().getCause() instanceof CertificateException);
+        }
+        // the handlers report it, with the handshake state they know
+        Assert.assertEquals(0, metrics.failed());
+        Assert.assertEquals(1, metrics.inlinedTasks());
+    }
+
+    @Test
+    public void failedOffloadedTaskFailsTheHandshake() throws Exception {
+        final SSLExecutor executor = new SSLExecutor(new SSLHandshakeExecutor(Runnable::run, 0, 0, 0),
+                SSLHandshakeExecutor.MEMBER_PRIORITY, SSLTaskInlining.NEVER);
+        final SSLHandshakeMetrics metrics = new SSLHandshakeMetrics();
+        final TestChannel channel = new TestChannel(false, 0);
+
+        Assert.assertFalse(executor.executeHandshakeTasks(newFailingEngine(), channel, newTracker(metrics)));
+        Assert.assertEquals(1, metrics.failed());
+        Assert.assertEquals(1, metrics.offloadedTasks());
+        Assert.assertTrue(channel.isClosed());
+    }
+
+    @Test
+    public void pipelineWithoutTasksWaitsForTheOneThatTookThem() throws Exception {
+        final List<Runnable> poolQueue = new ArrayList<>();
+        final SSLExecutor executor = new SSLExecutor(new SSLHandshakeExecutor(poolQueue::add, 0, 0, 0),
+                SSLHandshakeExecutor.MEMBER_PRIORITY, SSLTaskInlining.NEVER);
+        final SSLHandshakeTracker tracker = newTracker(new SSLHandshakeMetrics());
+        final TestChannel channel = new TestChannel(false, 0);
+        final AtomicBoolean taken = new AtomicBoolean();
+        final AtomicBoolean done = new AtomicBoolean();
+        final SSLEngine engine = new DelegatingSSLEngine(SSLHandlerLoopback.newEngine(sslContext, false)) {
+            @Override
+            public Runnable getDelegatedTask() {
+                return taken.compareAndSet(false, true) ? () -> done.set(true) : null;
+            }
+
+            @Override
+            public HandshakeStatus getHandshakeStatus() {
+                return done.get() ? HandshakeStatus.NEED_UNWRAP : HandshakeStatus.NEED_TASK;
+            }
+        };
+
+        // the inbound pipeline takes the tasks, the outbound one sees NEED_TASK while they are queued
+        Assert.assertFalse(executor.executeHandshakeTasks(engine, channel, tracker));
+        Assert.assertFalse(executor.executeHandshakeTasks(engine, channel, tracker));
+        Assert.assertFalse(executor.executeHandshakeTasks(engine, channel, tracker));
+        Assert.assertEquals(1, poolQueue.size());
+
+        poolQueue.get(0).run();
+        Assert.assertEquals(1, channel.outboundWakeups());
+        Assert.assertTrue(executor.executeHandshakeTasks(engine, channel, tracker));
+        // only the batch that was taken counts as a step
+        Assert.assertEquals(1, tracker.nextTaskStep());
+    }
+
+    private static SSLEngine newFailingEngine() {
+        return new DelegatingSSLEngine(SSLHandlerLoopback.newEngine(sslContext, false)) {
+            private boolean taken;
+
+            @Override
+            public Runnable getDelegatedTask() {
+                if (this.taken) {
+                    return null;
+                }
+                this.taken = true;
+                return () -> {
+                    throw new IllegalStateException(new CertificateException("untrusted"));
+                };
+            }
+        };
+    }
+
+    private static SSLHandshakeTracker newTracker(final SSLHandshakeMetrics metrics) {
+        return new SSLHandshakeTracker(metrics, new SSLSessionStats());
+    }
+}
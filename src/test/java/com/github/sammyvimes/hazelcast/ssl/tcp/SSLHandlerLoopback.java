@@ -0,0 +1,132 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.github.sammyvimes.hazelcast.ssl.TestKeyMaterial;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import java.nio.ByteBuffer;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * A client and a server pair of {@link SSLInboundHandler} / {@link SSLOutboundHandler} wired back to back, with the
+ * ciphertext moved between them in memory and the delegated tasks run on the calling thread.
+ */
+class SSLHandlerLoopback {
+    private static final int MAX_HANDSHAKE_ROUNDS = 1000;
+    private static final int SOCKET_BUFFER_SIZE = 64 * 1024;
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private final TestChannel client = new TestChannel(true, SOCKET_BUFFER_SIZE);
+    private final TestChannel server = new TestChannel(false, SOCKET_BUFFER_SIZE);
+    private final SSLEngine clientEngine;
+    private final SSLEngine serverEngine;
+
+    SSLHandlerLoopback(final SSLEngine clientEngine, final SSLEngine serverEngine, final SSLBufferPool bufferPool,
+                       final int serverDstSize) throws Exception {
+        this.clientEngine = clientEngine;
+        this.serverEngine = serverEngine;
+        init(this.client, clientEngine, bufferPool, SOCKET_BUFFER_SIZE);
+        init(this.server, serverEngine, bufferPool, serverDstSize);
+    }
+
+    static SSLContext newSSLContext() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE, TestKeyMaterial.createKeyStore("EC", 256).getPath());
+        properties.setProperty(SSLContextFactoryImpl.Props.KEY_STORE_PASSWORD, TestKeyMaterial.PASSWORD);
+        final SSLContextFactoryImpl factory = new SSLContextFactoryImpl();
+        factory.init(properties);
+        return factory.getSSLContext();
+    }
+
+    static SSLEngine newEngine(final SSLContext context, final boolean clientMode) {
+        final SSLEngine engine = context.createSSLEngine();
+        engine.setUseClientMode(clientMode);
+        return engine;
+    }
+
+    private static void init(final TestChannel channel, final SSLEngine sslEngine, final SSLBufferPool bufferPool,
+                             final int dstSize) throws Exception {
+        final SSLExecutor sslExecutor = new SSLExecutor(new SSLHandshakeExecutor(DIRECT_EXECUTOR, 0, 0, 0), SSLHandshakeExecutor.MEMBER_PRIORITY,
+                SSLTaskInlining.NEVER);
+        final SSLHandshakeTracker handshakeTracker = new SSLHandshakeTracker(new SSLHandshakeMetrics(), new SSLSessionStats());
+        final SSLConnectionCounters counters = new SSLConnectionCounters();
+        final SSLBufferSizing bufferSizing = SSLBufferSizing.fromProperties(new Properties());
+        sslEngine.beginHandshake();
+        channel.inboundPipeline().addLast(new SSLInboundHandler(sslEngine, sslExecutor, bufferPool, bufferSizing, handshakeTracker, counters));
+        channel.outboundPipeline().addLast(new SSLOutboundHandler(sslEngine, sslExecutor, bufferPool, bufferSizing, handshakeTracker, counters,
+                SSLRecordCoalescing.DISABLED, SSLRecordSizing.DISABLED));
+        channel.inboundHandler().dst(ByteBuffer.allocate(dstSize));
+        channel.outboundHandler().src(ByteBuffer.allocate(0));
+    }
+
+    void handshake() throws Exception {
+        int rounds = 0;
+        while (this.clientEngine.getHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING
+                || this.serverEngine.getHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING) {
+            if (++rounds > MAX_HANDSHAKE_ROUNDS) {
+                throw new IllegalStateException("Handshake did not complete in " + MAX_HANDSHAKE_ROUNDS + " rounds");
+            }
+            pump(this.client, this.server);
+            pump(this.server, this.client);
+        }
+
+        // let both handler pairs observe NOT_HANDSHAKING and switch to their pooled buffers
+        for (int i = 0; i < 4; i++) {
+            pump(this.client, this.server);
+            pump(this.server, this.client);
+        }
+    }
+
+    /**
+     * Sends {@code payload} from the client to the server.
+     *
+     * @return the plaintext that came out of the server inbound handler
+     */
+    byte[] send(final byte[] payload) throws Exception {
+        this.client.outboundHandler().src(ByteBuffer.wrap(payload));
+        final ByteBuffer received = ByteBuffer.allocate(payload.length);
+        for (int round = 0; received.hasRemaining(); round++) {
+            if (round > MAX_HANDSHAKE_ROUNDS) {
+                throw new IllegalStateException("Received only " + received.position() + " of " + payload.length + " bytes");
+            }
+            this.client.outboundHandler().onWrite();
+            transfer((ByteBuffer) this.client.outboundHandler().dst(), (ByteBuffer) this.server.inboundHandler().src());
+            this.server.inboundHandler().onRead();
+
+            final ByteBuffer dst = (ByteBuffer) this.server.inboundHandler().dst();
+            dst.flip();
+            received.put(dst);
+            dst.clear();
+        }
+        return received.array();
+    }
+
+    SSLInboundHandler serverInboundHandler() {
+        return (SSLInboundHandler) this.server.inboundHandler();
+    }
+
+    SSLOutboundHandler serverOutboundHandler() {
+        return (SSLOutboundHandler) this.server.outboundHandler();
+    }
+
+    private static void pump(final TestChannel from, final TestChannel to) throws Exception {
+        from.outboundHandler().onWrite();
+        transfer((ByteBuffer) from.outboundHandler().dst(), (ByteBuffer) to.inboundHandler().src());
+        to.inboundHandler().onRead();
+        ((ByteBuffer) to.inboundHandler().dst()).clear();
+    }
+
+    private static void transfer(final ByteBuffer from, final ByteBuffer to) {
+        if (from.remaining() <= to.remaining()) {
+            to.put(from);
+        } else {
+            final int limit = from.limit();
+            from.limit(from.position() + to.remaining());
+            to.put(from);
+            from.limit(limit);
+        }
+    }
+}
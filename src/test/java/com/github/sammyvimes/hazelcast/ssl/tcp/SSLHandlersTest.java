@@ -0,0 +1,93 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.networking.HandlerStatus;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLEngineResult.Status;
+import javax.net.ssl.SSLException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RunWith(JUnit4.class)
+public class SSLHandlersTest {
+    private static final long MAX_POOLED_BYTES = 16 * 1024 * 1024;
+
+    private static SSLContext sslContext;
+
+    @BeforeClass
+    public static void createSSLContext() throws Exception {
+        sslContext = SSLHandlerLoopback.newSSLContext();
+    }
+
+    @Test
+    public void closedHandlersReturnTheirBuffers() throws Exception {
+        final SSLBufferPool bufferPool = new SSLBufferPool(MAX_POOLED_BYTES, 0);
+        // a dst smaller than a record makes the inbound handler lease its app buffer too
+        final SSLHandlerLoopback loopback = newLoopback(bufferPool, 1024);
+        loopback.handshake();
+        final byte[] payload = randomBytes(32 * 1024);
+        Assert.assertArrayEquals(payload, loopback.send(payload));
+        Assert.assertEquals(0, bufferPool.pooledBuffers());
+
+        loopback.serverInboundHandler().releaseBuffers();
+        loopback.serverOutboundHandler().releaseBuffers();
+        Assert.assertEquals(3, bufferPool.pooledBuffers());
+
+        // released once only, and the handlers stay idle afterwards
+        loopback.serverInboundHandler().releaseBuffers();
+        loopback.serverOutboundHandler().releaseBuffers();
+        Assert.assertEquals(HandlerStatus.CLEAN, loopback.serverInboundHandler().onRead());
+        Assert.assertEquals(HandlerStatus.CLEAN, loopback.serverOutboundHandler().onWrite());
+        Assert.assertEquals(3, bufferPool.pooledBuffers());
+    }
+
+    @Test(timeout = 30000)
+    public void recordThatOverflowsDstGoesThroughTheAppBuffer() throws Exception {
+        final SSLBufferPool bufferPool = new SSLBufferPool(MAX_POOLED_BYTES, 0);
+        // roomy enough for the unwrap into dst, and no pooled buffer has this capacity
+        final int dstSize = 100 * 1000;
+        final SSLEngine serverEngine = new DelegatingSSLEngine(SSLHandlerLoopback.newEngine(sslContext, false)) {
+            @Override
+            public SSLEngineResult unwrap(final ByteBuffer src, final ByteBuffer[] dsts, final int offset, final int length)
+                    throws SSLException {
+                if (dsts[offset].capacity() == dstSize && this.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING) {
+                    return new SSLEngineResult(Status.BUFFER_OVERFLOW, HandshakeStatus.NOT_HANDSHAKING, 0, 0);
+                }
+                return super.unwrap(src, dsts, offset, length);
+            }
+        };
+        final SSLHandlerLoopback loopback = new SSLHandlerLoopback(SSLHandlerLoopback.newEngine(sslContext, true), serverEngine,
+                bufferPool, dstSize);
+        loopback.handshake();
+
+        final byte[] payload = randomBytes(32 * 1024);
+        Assert.assertArrayEquals(payload, loopback.send(payload));
+    }
+
+    @Test
+    public void runsInlineWithoutAnIoThread() {
+        final AtomicBoolean ran = new AtomicBoolean();
+        SSLChannelInitializer.runOnOwner(new TestChannel(false, 0).inboundPipeline(), () -> ran.set(true));
+        Assert.assertTrue(ran.get());
+    }
+
+    static SSLHandlerLoopback newLoopback(final SSLBufferPool bufferPool, final int serverDstSize) throws Exception {
+        return new SSLHandlerLoopback(SSLHandlerLoopback.newEngine(sslContext, true), SSLHandlerLoopback.newEngine(sslContext, false),
+                bufferPool, serverDstSize);
+    }
+
+    static byte[] randomBytes(final int length) {
+        final byte[] bytes = new byte[length];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return bytes;
+    }
+}
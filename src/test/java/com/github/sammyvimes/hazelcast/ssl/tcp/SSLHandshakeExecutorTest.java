@@ -0,0 +1,47 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(JUnit4.class)
+public class SSLHandshakeExecutorTest {
+
+    @Test
+    public void failsHandshakesWhoseTasksDoNotFit() {
+        final List<Runnable> poolQueue = new ArrayList<>();
+        final SSLHandshakeExecutor executor = new SSLHandshakeExecutor(poolQueue::add, 0, 0, 2);
+        final SSLHandshakeMetrics metrics = new SSLHandshakeMetrics();
+        final AtomicInteger ran = new AtomicInteger();
+        final Runnable task = ran::incrementAndGet;
+
+        final TestChannel queued = new TestChannel(false, 0);
+        executor.execute(queued, SSLHandshakeExecutor.MEMBER_PRIORITY, Arrays.asList(task, task), newTracker(metrics));
+        final TestChannel rejected = new TestChannel(false, 0);
+        executor.execute(rejected, SSLHandshakeExecutor.MEMBER_PRIORITY, Collections.singletonList(task), newTracker(metrics));
+        Assert.assertEquals(2, poolQueue.size());
+        Assert.assertFalse(queued.isClosed());
+        Assert.assertTrue(rejected.isClosed());
+        Assert.assertEquals(1, metrics.rejected());
+        Assert.assertEquals(1, metrics.failed());
+
+        // running the queued tasks frees their slots again
+        poolQueue.forEach(Runnable::run);
+        Assert.assertEquals(2, ran.get());
+        final TestChannel accepted = new TestChannel(false, 0);
+        executor.execute(accepted, SSLHandshakeExecutor.MEMBER_PRIORITY, Arrays.asList(task, task), newTracker(metrics));
+        Assert.assertFalse(accepted.isClosed());
+        Assert.assertEquals(4, poolQueue.size());
+    }
+
+    private static SSLHandshakeTracker newTracker(final SSLHandshakeMetrics metrics) {
+        return new SSLHandshakeTracker(metrics, new SSLSessionStats());
+    }
+}
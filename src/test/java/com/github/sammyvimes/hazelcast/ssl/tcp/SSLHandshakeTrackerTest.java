@@ -0,0 +1,65 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(JUnit4.class)
+public class SSLHandshakeTrackerTest {
+
+    @Test
+    public void expiredDeadlineEvictsRunningHandshake() {
+        final SSLHandshakeMetrics metrics = new SSLHandshakeMetrics();
+        final SSLHandshakeTracker evictedTracker = new SSLHandshakeTracker(metrics, new SSLSessionStats());
+        new SSLHandshakeTracker(metrics, new SSLSessionStats());
+        Assert.assertEquals(2, metrics.inFlight());
+
+        Assert.assertTrue(evictedTracker.onDeadlineExpired());
+        evictedTracker.onClosed();
+        Assert.assertEquals(1, metrics.evicted());
+        Assert.assertEquals(1, metrics.failed());
+        Assert.assertEquals(1, metrics.inFlight());
+    }
+
+    @Test
+    public void deadlineIsCancelledOnceHandshakeIsOver() throws Exception {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final SSLHandshakeMetrics metrics = new SSLHandshakeMetrics();
+            final SSLHandshakeTracker tracker = new SSLHandshakeTracker(metrics, new SSLSessionStats());
+            final ScheduledFuture<?> deadline = scheduler.schedule(() -> { }, 1, TimeUnit.HOURS);
+            tracker.setDeadline(deadline);
+
+            tracker.onFailed(new IllegalStateException());
+            Assert.assertTrue(deadline.isCancelled());
+            Assert.assertFalse(tracker.onDeadlineExpired());
+            Assert.assertEquals(0, metrics.evicted());
+            Assert.assertEquals(0, metrics.inFlight());
+
+            // a deadline set after the outcome is known is cancelled right away
+            final ScheduledFuture<?> lateDeadline = scheduler.schedule(() -> { }, 1, TimeUnit.HOURS);
+            tracker.setDeadline(lateDeadline);
+            Assert.assertTrue(lateDeadline.isCancelled());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void plaintextConnectionIsNeitherInFlightNorFailed() {
+        final SSLHandshakeMetrics metrics = new SSLHandshakeMetrics();
+        final SSLHandshakeTracker tracker = new SSLHandshakeTracker(metrics, new SSLSessionStats());
+
+        tracker.onPlaintext();
+        tracker.onClosed();
+        Assert.assertEquals(1, metrics.plaintextConnections());
+        Assert.assertEquals(0, metrics.failed());
+        Assert.assertEquals(0, metrics.inFlight());
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.hazelcast.config.ConfigurationException;
+import com.hazelcast.nio.Protocols;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+@RunWith(JUnit4.class)
+public class SSLPlaintextFallbackTest {
+
+    @Test
+    public void tlsOnlyByDefault() {
+        Assert.assertFalse(SSLPlaintextFallback.fromProperties(new Properties()).isEnabled());
+        Assert.assertFalse(fallback("none").isEnabled());
+        Assert.assertEquals("none", SSLPlaintextFallback.DISABLED.toString());
+    }
+
+    @Test
+    public void allowsOnlyTheListedProtocols() {
+        final SSLPlaintextFallback fallback = fallback("client, TEXT");
+        Assert.assertTrue(fallback.isEnabled());
+        Assert.assertTrue(fallback.allows(Protocols.CLIENT_BINARY_NEW));
+        Assert.assertTrue(fallback.allows("GET"));
+        Assert.assertFalse(fallback.allows(Protocols.CLUSTER));
+        Assert.assertEquals("[client, text]", fallback.toString());
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void rejectsUnknownProtocols() {
+        fallback("client,wan");
+    }
+
+    @Test
+    public void recognizesTlsHandshakeRecords() {
+        Assert.assertTrue(SSLSniffingInboundHandler.isTlsRecord(ByteBuffer.wrap(new byte[]{0x16, 0x03, 0x01})));
+        Assert.assertFalse(SSLSniffingInboundHandler.isTlsRecord(ByteBuffer.wrap(new byte[]{0x16, 0x02, 0x01})));
+        Assert.assertFalse(SSLSniffingInboundHandler.isTlsRecord(ByteBuffer.wrap(Protocols.CLUSTER.getBytes(StandardCharsets.US_ASCII))));
+        Assert.assertFalse(SSLSniffingInboundHandler.isTlsRecord(ByteBuffer.wrap(Protocols.CLIENT_BINARY_NEW.getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    private static SSLPlaintextFallback fallback(final String protocols) {
+        final Properties properties = new Properties();
+        properties.setProperty(SSLContextFactoryImpl.Props.PLAINTEXT_PROTOCOLS, protocols);
+        return SSLPlaintextFallback.fromProperties(properties);
+    }
+}
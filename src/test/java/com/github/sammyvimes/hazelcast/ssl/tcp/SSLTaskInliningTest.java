@@ -0,0 +1,73 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.hazelcast.config.ConfigurationException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(JUnit4.class)
+public class SSLTaskInliningTest {
+    private static final long CHEAP = TimeUnit.MICROSECONDS.toNanos(40);
+    private static final long EXPENSIVE = TimeUnit.MILLISECONDS.toNanos(3);
+
+    @Test
+    public void unmeasuredStepsAreOffloaded() {
+        final SSLTaskInlining inlining = SSLTaskInlining.fromProperties(new Properties());
+
+        Assert.assertFalse(inlining.shouldInline(false, 0));
+        inlining.onExecuted(false, 0, CHEAP);
+        Assert.assertTrue(inlining.shouldInline(false, 0));
+        Assert.assertFalse(inlining.shouldInline(true, 0));
+        Assert.assertFalse(inlining.shouldInline(false, 1));
+    }
+
+    @Test
+    public void expensiveTasksMoveTheStepBackToThePool() {
+        final SSLTaskInlining inlining = SSLTaskInlining.fromProperties(new Properties());
+        inlining.onExecuted(true, 1, CHEAP);
+
+        inlining.onExecuted(true, 1, EXPENSIVE);
+        Assert.assertFalse(inlining.shouldInline(true, 1));
+        for (int i = 0; i < 32; i++) {
+            inlining.onExecuted(true, 1, CHEAP);
+        }
+        Assert.assertTrue(inlining.shouldInline(true, 1));
+    }
+
+    @Test
+    public void oneTaskOverTheThresholdStopsInliningAtOnce() {
+        final SSLTaskInlining inlining = SSLTaskInlining.fromProperties(new Properties());
+        for (int i = 0; i < 32; i++) {
+            inlining.onExecuted(false, 0, CHEAP);
+        }
+        Assert.assertTrue(inlining.shouldInline(false, 0));
+
+        // a full handshake after a run of resumptions, well below what would move a smoothed average over the threshold
+        inlining.onExecuted(false, 0, TimeUnit.MICROSECONDS.toNanos(600));
+        Assert.assertFalse(inlining.shouldInline(false, 0));
+        inlining.onExecuted(false, 0, CHEAP);
+        Assert.assertFalse(inlining.shouldInline(false, 0));
+    }
+
+    @Test
+    public void neverInlines() {
+        final Properties properties = new Properties();
+        properties.setProperty(SSLContextFactoryImpl.Props.HANDSHAKE_TASK_INLINING, "never");
+        final SSLTaskInlining inlining = SSLTaskInlining.fromProperties(properties);
+
+        inlining.onExecuted(false, 0, CHEAP);
+        Assert.assertFalse(inlining.shouldInline(false, 0));
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void unknownModeIsRejected() {
+        final Properties properties = new Properties();
+        properties.setProperty(SSLContextFactoryImpl.Props.HANDSHAKE_TASK_INLINING, "always");
+        SSLTaskInlining.fromProperties(properties);
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.hazelcast.internal.metrics.ProbeLevel;
+import com.hazelcast.internal.metrics.impl.MetricsRegistryImpl;
+import com.hazelcast.logging.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SSLTrafficMetricsTest {
+
+    @Test
+    public void exposesOpenConnectionsAndKeepsTheirTotals() {
+        final MetricsRegistryImpl registry = new MetricsRegistryImpl(Logger.getLogger(SSLTrafficMetricsTest.class), ProbeLevel.INFO);
+        final SSLTrafficMetrics metrics = new SSLTrafficMetrics();
+        metrics.register(registry, "tls.traffic");
+
+        final SSLConnectionCounters first = metrics.onConnectionOpened(new TestChannel(false, 0));
+        final SSLConnectionCounters second = metrics.onConnectionOpened(new TestChannel(false, 0));
+        first.plaintextBytesIn.inc(100);
+        second.plaintextBytesIn.inc(20);
+        Assert.assertTrue(registry.getNames().contains("tls.traffic.connection[unconnected#1].plaintextBytesIn"));
+        Assert.assertTrue(registry.getNames().contains("tls.traffic.connection[unconnected#2].plaintextBytesIn"));
+        Assert.assertEquals(120, metrics.plaintextBytesIn());
+
+        metrics.onConnectionClosed(first);
+        metrics.onConnectionClosed(first);
+        Assert.assertFalse(registry.getNames().contains("tls.traffic.connection[unconnected#1].plaintextBytesIn"));
+        Assert.assertEquals(1, metrics.connections());
+        Assert.assertEquals(120, metrics.plaintextBytesIn());
+    }
+}
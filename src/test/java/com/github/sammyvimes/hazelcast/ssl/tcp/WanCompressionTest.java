@@ -0,0 +1,138 @@
+package com.github.sammyvimes.hazelcast.ssl.tcp;
+
+import com.github.sammyvimes.hazelcast.ssl.SSLContextFactoryImpl;
+import com.hazelcast.config.ConfigurationException;
+import com.hazelcast.internal.networking.HandlerStatus;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+@RunWith(JUnit4.class)
+public class WanCompressionTest {
+    private static final int BUFFER_SIZE = WanCompression.FRAME_HEADER_SIZE + WanCompression.MAX_COMPRESSED_SIZE;
+
+    @Test
+    public void disabledByDefault() {
+        Assert.assertFalse(WanCompression.fromProperties(new Properties()).isEnabled());
+        Assert.assertFalse(WanCompression.fromProperties(properties("none")).isEnabled());
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void rejectsUnknownCodecs() {
+        WanCompression.fromProperties(properties("lz4,zstd"));
+    }
+
+    @Test
+    public void selectsTheFirstCodecThePeerSupports() {
+        final WanCompression compression = WanCompression.fromProperties(properties("lz4,deflate"));
+
+        Assert.assertEquals(CompressionCodec.LZ4, compression.select(WanCompression.fromProperties(properties("deflate,lz4")).helloBits()));
+        Assert.assertEquals(CompressionCodec.DEFLATE, compression.select(WanCompression.fromProperties(properties("deflate")).helloBits()));
+        Assert.assertEquals(CompressionCodec.NONE, compression.select(CompressionCodec.NONE.bit()));
+    }
+
+    @Test
+    public void deflateRoundTrip() throws Exception {
+        this.assertRoundTrip("deflate", "deflate", 1024);
+    }
+
+    @Test
+    public void lz4RoundTrip() throws Exception {
+        this.assertRoundTrip("lz4", "lz4,deflate", 1024);
+    }
+
+    @Test
+    public void drainsIntoSmallBuffers() throws Exception {
+        // the member protocol decoder starts with a buffer for the 3 protocol bytes
+        this.assertRoundTrip("deflate", "deflate", 3);
+    }
+
+    @Test
+    public void sendsUncompressedFramesUntilThePeerHelloArrives() throws Exception {
+        final Peer sender = new Peer("deflate");
+        final Peer receiver = new Peer("deflate");
+        final byte[] payload = payload(100000);
+
+        Assert.assertArrayEquals(payload, transfer(sender, receiver, payload, 1024));
+        Assert.assertEquals(1.0, sender.metrics.ratioOut(), 0.01);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsPeersWithoutCompression() throws Exception {
+        final Peer receiver = new Peer("deflate");
+        receiver.decompressor.src(ByteBuffer.allocate(BUFFER_SIZE).put("HZC".getBytes(StandardCharsets.US_ASCII)));
+        receiver.decompressor.dst(ByteBuffer.allocate(1024));
+        receiver.decompressor.onRead();
+    }
+
+    private void assertRoundTrip(final String senderCodecs, final String receiverCodecs, final int dstSize) throws Exception {
+        final Peer sender = new Peer(senderCodecs);
+        final Peer receiver = new Peer(receiverCodecs);
+        // the receiver's hello tells the sender which codec to use
+        transfer(receiver, sender, new byte[0], dstSize);
+
+        final byte[] payload = payload(300000);
+        Assert.assertArrayEquals(payload, transfer(sender, receiver, payload, dstSize));
+        Assert.assertTrue("ratio " + sender.metrics.ratioOut(), sender.metrics.ratioOut() > 3);
+        Assert.assertEquals(sender.metrics.ratioOut(), receiver.metrics.ratioIn(), 0.001);
+    }
+
+    private static byte[] transfer(final Peer sender, final Peer receiver, final byte[] payload, final int dstSize) throws Exception {
+        sender.compressor.src(ByteBuffer.wrap(payload));
+        receiver.decompressor.dst(ByteBuffer.allocate(dstSize));
+        final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        for (int i = 0; i < 1000000; i++) {
+            final HandlerStatus outboundStatus = sender.compressor.onWrite();
+            WanCompression.drain(sender.compressor.dst(), receiver.decompressor.src());
+            final HandlerStatus inboundStatus = receiver.decompressor.onRead();
+
+            final ByteBuffer dst = receiver.decompressor.dst();
+            dst.flip();
+            while (dst.hasRemaining()) {
+                received.write(dst.get());
+            }
+            dst.clear();
+
+            if (outboundStatus == HandlerStatus.CLEAN && inboundStatus == HandlerStatus.CLEAN
+                    && !sender.compressor.dst().hasRemaining() && received.size() == payload.length) {
+                break;
+            }
+        }
+        return received.toByteArray();
+    }
+
+    private static byte[] payload(final int size) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; builder.length() < size; i++) {
+            builder.append("{\"key\":").append(i).append(",\"region\":\"eu-west\",\"value\":\"replicated entry\"}");
+        }
+        return builder.substring(0, size).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static Properties properties(final String codecs) {
+        final Properties properties = new Properties();
+        properties.setProperty(SSLContextFactoryImpl.Props.COMPRESSION, codecs);
+        return properties;
+    }
+
+    private static final class Peer {
+        final WanCompressionMetrics metrics = new WanCompressionMetrics();
+        final CompressingOutboundHandler compressor;
+        final DecompressingInboundHandler decompressor;
+
+        Peer(final String codecs) {
+            this.compressor = new CompressingOutboundHandler(WanCompression.fromProperties(properties(codecs)), this.metrics);
+            this.decompressor = new DecompressingInboundHandler(this.compressor, this.metrics);
+            final ByteBuffer dst = ByteBuffer.allocate(BUFFER_SIZE);
+            dst.flip();
+            this.compressor.dst(dst);
+            this.decompressor.src(ByteBuffer.allocate(BUFFER_SIZE));
+        }
+    }
+}